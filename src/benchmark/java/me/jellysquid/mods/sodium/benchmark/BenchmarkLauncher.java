@@ -0,0 +1,46 @@
+package me.jellysquid.mods.sodium.benchmark;
+
+import net.fabricmc.loader.api.entrypoint.PreLaunchEntrypoint;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks from within the game's class loader, so that all of Sodium's mixins have been applied to the
+ * game classes. This happens before the game has created its window, which means the benchmarks can never access an
+ * OpenGL context, and they can be run on machines without a display.
+ *
+ * <p>The benchmarks must run in the same JVM as the loader (forking would lose the transformed classes), so the JIT
+ * profile will be shared between all benchmarks. Use {@code -Dsodium.benchmark.include} to run only a subset.</p>
+ */
+public class BenchmarkLauncher implements PreLaunchEntrypoint {
+    private static final Logger LOGGER = LogManager.getLogger("SodiumBenchmarks");
+
+    @Override
+    public void onPreLaunch() {
+        if (!Boolean.getBoolean("sodium.benchmark")) {
+            return;
+        }
+
+        var options = new OptionsBuilder()
+                .include(System.getProperty("sodium.benchmark.include", ".*"))
+                .forks(0)
+                .addProfiler(GCProfiler.class) // reports gc.alloc.rate.norm, the number of bytes allocated per operation
+                .build();
+
+        int status = 0;
+
+        try {
+            new Runner(options).run();
+        } catch (RunnerException e) {
+            LOGGER.error("Failed to run benchmarks", e);
+            status = 1;
+        }
+
+        // Never let the game start after the benchmarks have finished
+        System.exit(status);
+    }
+}
@@ -0,0 +1,98 @@
+package me.jellysquid.mods.sodium.benchmark.arena;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A sequence of allocations and frees against a single region's geometry arena. The trace is generated from a fixed
+ * seed and follows the pattern seen in regions with heavy churn, such as redstone builds and farms: the region is
+ * first filled as its sections are loaded, and then a small set of "hot" sections is rebuilt over and over, with their
+ * mesh size changing a little each time.
+ *
+ * <p>Each operation is either the allocation of a segment with the given length (a positive value), which is assigned
+ * the next ID in sequence, or the release of a previously allocated segment (a negative value, {@code ~id}).</p>
+ */
+final class AllocationTrace {
+    private static final int SECTION_COUNT = 256;
+    private static final int PASS_COUNT = 3;
+
+    private static final int HOT_SLOT_COUNT = 32;
+    private static final float HOT_SLOT_CHANCE = 0.8f;
+
+    final int[] operations;
+    final int allocationCount;
+    final int capacity;
+
+    private AllocationTrace(int[] operations, int allocationCount, int capacity) {
+        this.operations = operations;
+        this.allocationCount = allocationCount;
+        this.capacity = capacity;
+    }
+
+    static AllocationTrace generate(long seed, int rebuildCount) {
+        var random = new Random(seed);
+
+        // One slot for the mesh of each render pass in each section, holding the ID of its segment
+        int slotCount = SECTION_COUNT * PASS_COUNT;
+        int[] slotSegments = new int[slotCount];
+        int[] slotLengths = new int[slotCount];
+
+        Arrays.fill(slotSegments, -1);
+
+        int[] operations = new int[slotCount + (rebuildCount * 2)];
+        int operationCount = 0;
+        int nextId = 0;
+
+        int used = 0, peakUsed = 0;
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            slotLengths[slot] = createLength(random);
+
+            // Not every section has geometry for every render pass
+            if (random.nextFloat() < 0.6f) {
+                operations[operationCount++] = slotLengths[slot];
+                slotSegments[slot] = nextId++;
+
+                used += slotLengths[slot];
+            }
+        }
+
+        peakUsed = Math.max(peakUsed, used);
+
+        for (int i = 0; i < rebuildCount; i++) {
+            int slot = random.nextFloat() < HOT_SLOT_CHANCE ? random.nextInt(HOT_SLOT_COUNT) : random.nextInt(slotCount);
+
+            if (slotSegments[slot] != -1) {
+                operations[operationCount++] = ~slotSegments[slot];
+                slotSegments[slot] = -1;
+
+                used -= slotLengths[slot];
+            }
+
+            if (random.nextFloat() < 0.9f) {
+                // The mesh is usually about the same size as it was before the rebuild, with multiples of four
+                // vertices (one quad)
+                float scale = 0.75f + (random.nextFloat() * 0.5f);
+                slotLengths[slot] = Math.max(4, Math.round(slotLengths[slot] * scale / 4.0f) * 4);
+
+                operations[operationCount++] = slotLengths[slot];
+                slotSegments[slot] = nextId++;
+
+                used += slotLengths[slot];
+                peakUsed = Math.max(peakUsed, used);
+            }
+        }
+
+        // Leave room for fragmentation, as the arena would have grown to make room for it
+        int capacity = peakUsed * 2;
+
+        return new AllocationTrace(Arrays.copyOf(operations, operationCount), nextId, capacity);
+    }
+
+    // Mesh sizes roughly follow a log-normal distribution, with most sections having a few hundred vertices
+    private static int createLength(Random random) {
+        int length = (int) Math.exp(6.0 + random.nextGaussian());
+
+        return Math.max(4, Math.min(length, 24576) & ~3);
+    }
+}
@@ -0,0 +1,123 @@
+package me.jellysquid.mods.sodium.benchmark.arena;
+
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import me.jellysquid.mods.sodium.client.gl.arena.ArenaAllocator;
+import me.jellysquid.mods.sodium.client.gl.arena.FreeSegmentIndex;
+import me.jellysquid.mods.sodium.client.gl.arena.GlBufferSegment;
+import me.jellysquid.mods.sodium.client.gl.arena.SegregatedFreeSegmentIndex;
+import me.jellysquid.mods.sodium.client.gl.arena.TreeFreeSegmentIndex;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays a trace of allocations and frees against the arena allocator with each strategy for finding free
+ * segments. The allocator doesn't touch any graphics state, so this measures only the time spent on bookkeeping.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ArenaAllocatorBenchmark {
+    public enum Strategy {
+        /**
+         * A best-fit search over every free segment, which is what the arena did before free segments were indexed.
+         */
+        LINEAR_SCAN(LinearScanFreeSegmentIndex::new),
+        SEGREGATED(SegregatedFreeSegmentIndex::new),
+        TREE(TreeFreeSegmentIndex::new);
+
+        private final Supplier<FreeSegmentIndex> factory;
+
+        Strategy(Supplier<FreeSegmentIndex> factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param
+    public Strategy strategy;
+
+    @Param({ "100000" })
+    public int rebuildCount;
+
+    private AllocationTrace trace;
+    private GlBufferSegment[] segments;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.trace = AllocationTrace.generate(42L, this.rebuildCount);
+        this.segments = new GlBufferSegment[this.trace.allocationCount];
+    }
+
+    /**
+     * @return The number of allocations which failed because no free segment was large enough
+     */
+    @Benchmark
+    public int replayTrace() {
+        var allocator = new ArenaAllocator(this.trace.capacity, this.strategy.factory.get());
+        var segments = this.segments;
+
+        int nextId = 0;
+        int failures = 0;
+
+        for (int operation : this.trace.operations) {
+            if (operation > 0) {
+                var segment = allocator.alloc(operation);
+
+                if (segment == null) {
+                    failures++;
+                }
+
+                segments[nextId++] = segment;
+            } else {
+                var segment = segments[~operation];
+
+                if (segment != null) {
+                    allocator.free(segment);
+                    segments[~operation] = null;
+                }
+            }
+        }
+
+        return failures;
+    }
+
+    private static class LinearScanFreeSegmentIndex implements FreeSegmentIndex {
+        private final ReferenceLinkedOpenHashSet<GlBufferSegment> segments = new ReferenceLinkedOpenHashSet<>();
+
+        @Override
+        public void add(GlBufferSegment segment) {
+            this.segments.add(segment);
+        }
+
+        @Override
+        public void remove(GlBufferSegment segment) {
+            this.segments.remove(segment);
+        }
+
+        @Override
+        public @Nullable GlBufferSegment findFree(int length) {
+            GlBufferSegment best = null;
+
+            for (var segment : this.segments) {
+                if (segment.getLength() == length) {
+                    return segment;
+                } else if (segment.getLength() > length) {
+                    if (best == null || best.getLength() > segment.getLength()) {
+                        best = segment;
+                    }
+                }
+            }
+
+            return best;
+        }
+
+        @Override
+        public void clear() {
+            this.segments.clear();
+        }
+    }
+}
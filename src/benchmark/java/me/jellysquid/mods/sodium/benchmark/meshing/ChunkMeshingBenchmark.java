@@ -0,0 +1,72 @@
+package me.jellysquid.mods.sodium.benchmark.meshing;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderMeshingTask;
+import me.jellysquid.mods.sodium.client.util.task.CancellationToken;
+import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many chunk sections can be meshed per second by a single worker, for a number of different kinds of
+ * terrain. The bytes allocated per section are reported as {@code gc.alloc.rate.norm} when the GC profiler is
+ * enabled, which is the default when launched through {@code runBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChunkMeshingBenchmark {
+    private static final CancellationToken NEVER_CANCELLED = new CancellationToken() {
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setCancelled() {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Param
+    public SectionFixture fixture;
+
+    private ChunkBuildContext buildContext;
+    private ChunkRenderContext renderContext;
+    private RenderSection section;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var environment = MeshingEnvironment.get();
+        var origin = ChunkSectionPos.from(0, 4, 0);
+
+        this.buildContext = environment.createBuildContext();
+        this.renderContext = this.fixture.createRenderContext(origin);
+        this.section = environment.createRenderSection(origin);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        this.buildContext.cleanup();
+    }
+
+    @Benchmark
+    public int meshSection() {
+        ChunkBuildOutput output = new ChunkBuilderMeshingTask(this.section, this.renderContext, 0)
+                .execute(this.buildContext, NEVER_CANCELLED);
+
+        try {
+            return output.meshes.size();
+        } finally {
+            // Free the native buffers as the render thread normally would after uploading them
+            output.delete();
+            this.buildContext.cache.cleanup();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package me.jellysquid.mods.sodium.benchmark.meshing;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderCache;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
+import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import net.fabricmc.fabric.api.client.render.fluid.v1.FluidRenderHandler;
+import net.fabricmc.fabric.api.client.render.fluid.v1.FluidRenderHandlerRegistry;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.client.color.block.BlockColors;
+import net.minecraft.client.texture.MissingSprite;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.texture.SpriteAtlasTexture;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.registry.BuiltinRegistries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockRenderView;
+import net.minecraft.world.biome.BiomeKeys;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+
+/**
+ * Provides everything the chunk meshing pipeline needs without a running client. The world is a mock which only
+ * answers the handful of queries made by {@link WorldSlice}, and block models are generated from simple geometry
+ * rather than being loaded from resource packs. No OpenGL context is required, since meshing only ever writes into
+ * native memory buffers.
+ */
+public class MeshingEnvironment {
+    private static final int BIOME_BLEND_RADIUS = 2;
+
+    private static MeshingEnvironment INSTANCE;
+
+    private final ClientWorld world;
+    private final BlockColors blockColors;
+    private final SyntheticBlockModels blockModels;
+
+    private MeshingEnvironment() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        Sprite sprite = createSprite();
+
+        this.world = createWorld();
+        this.blockColors = BlockColors.create();
+        this.blockModels = new SyntheticBlockModels(sprite);
+
+        registerFluidHandlers(sprite);
+    }
+
+    public static synchronized MeshingEnvironment get() {
+        if (INSTANCE == null) {
+            INSTANCE = new MeshingEnvironment();
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Creates a new build context, equivalent to the one owned by each chunk builder worker thread.
+     */
+    public ChunkBuildContext createBuildContext() {
+        var slice = new WorldSlice(this.world, BIOME_BLEND_RADIUS);
+        var cache = new BlockRenderCache(slice, this.blockColors, this.blockModels, true);
+
+        return new ChunkBuildContext(new ChunkBuildBuffers(ChunkMeshFormats.COMPACT), cache);
+    }
+
+    public RenderSection createRenderSection(ChunkSectionPos pos) {
+        var region = new RenderRegion(Math.floorDiv(pos.getX(), RenderRegion.REGION_WIDTH),
+                Math.floorDiv(pos.getY(), RenderRegion.REGION_HEIGHT),
+                Math.floorDiv(pos.getZ(), RenderRegion.REGION_LENGTH), null, null);
+
+        return new RenderSection(region, pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    private static ClientWorld createWorld() {
+        var plains = BuiltinRegistries.createWrapperLookup()
+                .getWrapperOrThrow(RegistryKeys.BIOME)
+                .getOrThrow(BiomeKeys.PLAINS);
+
+        ClientWorld world = Mockito.mock(ClientWorld.class, Answers.RETURNS_DEEP_STUBS);
+        Mockito.when(world.getRegistryManager().get(RegistryKeys.BIOME).entryOf(BiomeKeys.PLAINS))
+                .thenReturn(plains);
+        Mockito.when(world.getBrightness(Mockito.any(Direction.class), Mockito.anyBoolean()))
+                .thenReturn(1.0f);
+        Mockito.when(world.getBottomY())
+                .thenReturn(-64);
+        Mockito.when(world.getHeight())
+                .thenReturn(384);
+
+        return world;
+    }
+
+    private static Sprite createSprite() {
+        return new Sprite(SpriteAtlasTexture.BLOCK_ATLAS_TEXTURE, MissingSprite.createSpriteContents(), 256, 256, 0, 0) { };
+    }
+
+    private static void registerFluidHandlers(Sprite sprite) {
+        Sprite[] sprites = new Sprite[] { sprite, sprite, sprite };
+
+        FluidRenderHandler handler = new FluidRenderHandler() {
+            @Override
+            public Sprite[] getFluidSprites(BlockRenderView view, BlockPos pos, FluidState state) {
+                return sprites;
+            }
+
+            @Override
+            public int getFluidColor(BlockRenderView view, BlockPos pos, FluidState state) {
+                return 0x3F76E4;
+            }
+        };
+
+        FluidRenderHandlerRegistry.INSTANCE.register(Fluids.WATER, Fluids.FLOWING_WATER, handler);
+    }
+}
@@ -0,0 +1,186 @@
+package me.jellysquid.mods.sodium.benchmark.meshing;
+
+import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSection;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.LightType;
+import net.minecraft.world.chunk.ChunkNibbleArray;
+import net.minecraft.world.chunk.PalettedContainer;
+
+import java.util.Random;
+
+/**
+ * Synthetic chunk sections which approximate the kinds of terrain that are commonly seen in the world. The contents
+ * are generated from a fixed seed, so every run of a benchmark will mesh exactly the same blocks.
+ *
+ * <p>None of the fixtures contain block entities, since rendering those requires the client's block entity render
+ * dispatcher to have been initialized.</p>
+ */
+public enum SectionFixture {
+    /**
+     * Mostly empty sections with sparse blocks, such as the air above the terrain or the edge of a cave.
+     */
+    AIR_HEAVY {
+        @Override
+        BlockState getBlockState(int x, int y, int z, Random random) {
+            if (random.nextInt(32) != 0) {
+                return Blocks.AIR.getDefaultState();
+            }
+
+            return random.nextBoolean() ? Blocks.STONE.getDefaultState() : Blocks.DIRT.getDefaultState();
+        }
+    },
+
+    /**
+     * Solid underground sections, where almost every face is hidden by a neighbor.
+     */
+    STONE_SOLID {
+        @Override
+        BlockState getBlockState(int x, int y, int z, Random random) {
+            return switch (random.nextInt(64)) {
+                case 0 -> Blocks.COAL_ORE.getDefaultState();
+                case 1 -> Blocks.IRON_ORE.getDefaultState();
+                case 2 -> Blocks.ANDESITE.getDefaultState();
+                default -> Blocks.STONE.getDefaultState();
+            };
+        }
+    },
+
+    /**
+     * Forest floor and canopy, with lots of non-occluding leaves and cross-shaped plants.
+     */
+    FOLIAGE_DENSE {
+        @Override
+        BlockState getBlockState(int x, int y, int z, Random random) {
+            if (y < 3) {
+                return Blocks.DIRT.getDefaultState();
+            } else if (y == 3) {
+                return Blocks.GRASS_BLOCK.getDefaultState();
+            } else if (y == 4) {
+                return switch (random.nextInt(8)) {
+                    case 0 -> Blocks.FERN.getDefaultState();
+                    case 1 -> Blocks.DANDELION.getDefaultState();
+                    case 2 -> Blocks.POPPY.getDefaultState();
+                    case 3, 4 -> Blocks.AIR.getDefaultState();
+                    default -> Blocks.GRASS.getDefaultState();
+                };
+            } else if (y < 9) {
+                return (x % 5 == 2 && z % 5 == 2) ? Blocks.OAK_LOG.getDefaultState() : Blocks.AIR.getDefaultState();
+            }
+
+            return random.nextInt(6) == 0 ? Blocks.AIR.getDefaultState() : Blocks.OAK_LEAVES.getDefaultState();
+        }
+    },
+
+    /**
+     * Open ocean, which is entirely made up of fluid blocks above a thin floor.
+     */
+    WATER_HEAVY {
+        @Override
+        BlockState getBlockState(int x, int y, int z, Random random) {
+            if (y < 2) {
+                return random.nextBoolean() ? Blocks.SAND.getDefaultState() : Blocks.GRAVEL.getDefaultState();
+            } else if (y == 2 && random.nextInt(4) == 0) {
+                return Blocks.SEAGRASS.getDefaultState();
+            }
+
+            return Blocks.WATER.getDefaultState();
+        }
+    },
+
+    /**
+     * The surface of the ocean, where still water fills the lower part of the section and is open to the sky above.
+     * Unlike {@link #WATER_HEAVY}, the top face of every water block in the surface layer is exposed.
+     */
+    OCEAN_SURFACE {
+        @Override
+        BlockState getBlockState(int x, int y, int z, Random random) {
+            if (y < 12) {
+                return Blocks.WATER.getDefaultState();
+            } else if (y == 12 && random.nextInt(48) == 0) {
+                return Blocks.LILY_PAD.getDefaultState();
+            }
+
+            return Blocks.AIR.getDefaultState();
+        }
+    },
+
+    /**
+     * Redstone contraptions, which are made up of many small non-full blocks on top of a floor.
+     */
+    REDSTONE_HEAVY {
+        @Override
+        BlockState getBlockState(int x, int y, int z, Random random) {
+            if ((y & 3) == 0) {
+                return Blocks.SMOOTH_STONE.getDefaultState();
+            } else if ((y & 3) != 1) {
+                return Blocks.AIR.getDefaultState();
+            }
+
+            return switch (random.nextInt(8)) {
+                case 0 -> Blocks.REPEATER.getDefaultState();
+                case 1 -> Blocks.REDSTONE_TORCH.getDefaultState();
+                case 2 -> Blocks.REDSTONE_LAMP.getDefaultState();
+                case 3 -> Blocks.OBSERVER.getDefaultState();
+                case 4 -> Blocks.PISTON.getDefaultState();
+                case 5 -> Blocks.REDSTONE_BLOCK.getDefaultState();
+                default -> Blocks.REDSTONE_WIRE.getDefaultState();
+            };
+        }
+    };
+
+    // Must match the radius used by WorldSlice#prepare
+    private static final int NEIGHBOR_BLOCK_RADIUS = 2;
+
+    abstract BlockState getBlockState(int x, int y, int z, Random random);
+
+    /**
+     * Creates the render context for the section at {@param origin}. The neighboring sections are filled using the
+     * same fixture, so that the faces on the border of the section are culled as they would be in the world.
+     */
+    public ChunkRenderContext createRenderContext(ChunkSectionPos origin) {
+        ClonedChunkSection[] sections = new ClonedChunkSection[27];
+
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                for (int z = 0; z < 3; z++) {
+                    var pos = ChunkSectionPos.from(origin.getX() + x - 1, origin.getY() + y - 1, origin.getZ() + z - 1);
+                    sections[WorldSlice.getLocalSectionIndex(x, y, z)] = this.createSection(pos);
+                }
+            }
+        }
+
+        BlockBox volume = new BlockBox(origin.getMinX() - NEIGHBOR_BLOCK_RADIUS,
+                origin.getMinY() - NEIGHBOR_BLOCK_RADIUS,
+                origin.getMinZ() - NEIGHBOR_BLOCK_RADIUS,
+                origin.getMaxX() + NEIGHBOR_BLOCK_RADIUS,
+                origin.getMaxY() + NEIGHBOR_BLOCK_RADIUS,
+                origin.getMaxZ() + NEIGHBOR_BLOCK_RADIUS);
+
+        return new ChunkRenderContext(origin, sections, volume);
+    }
+
+    private ClonedChunkSection createSection(ChunkSectionPos pos) {
+        var random = new Random(pos.asLong() ^ this.ordinal());
+        var blockData = new PalettedContainer<>(Block.STATE_IDS, Blocks.AIR.getDefaultState(), PalettedContainer.PaletteProvider.BLOCK_STATE);
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    blockData.set(x, y, z, this.getBlockState(x, y, z, random));
+                }
+            }
+        }
+
+        var lightArrays = new ChunkNibbleArray[2];
+        lightArrays[LightType.BLOCK.ordinal()] = new ChunkNibbleArray(0);
+        lightArrays[LightType.SKY.ordinal()] = new ChunkNibbleArray(15);
+
+        return new ClonedChunkSection(pos, blockData, null, null, null, lightArrays);
+    }
+}
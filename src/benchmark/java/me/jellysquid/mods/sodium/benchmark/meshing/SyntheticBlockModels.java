@@ -0,0 +1,130 @@
+package me.jellysquid.mods.sodium.benchmark.meshing;
+
+import me.jellysquid.mods.sodium.client.util.ModelQuadUtil;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.PlantBlock;
+import net.minecraft.client.render.block.BlockModels;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.BasicBakedModel;
+import net.minecraft.client.render.model.json.ModelOverrideList;
+import net.minecraft.client.render.model.json.ModelTransformation;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.EmptyBlockView;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Block models built from simple geometry instead of resource packs. Full cubes are given six culled faces, plants
+ * are given the usual crossed planes, and every other block shape is approximated by a thin slab on the floor. This
+ * produces roughly the same number and kind of quads as the vanilla models would, which is what matters for
+ * measuring the meshing pipeline.
+ */
+class SyntheticBlockModels extends BlockModels {
+    // Vertex positions for each face, in the same winding order as vanilla's baked models
+    private static final float[][][] CUBE_VERTICES = new float[][][] {
+            { { 0, 0, 1 }, { 0, 0, 0 }, { 1, 0, 0 }, { 1, 0, 1 } }, // DOWN
+            { { 0, 1, 0 }, { 0, 1, 1 }, { 1, 1, 1 }, { 1, 1, 0 } }, // UP
+            { { 1, 1, 0 }, { 1, 0, 0 }, { 0, 0, 0 }, { 0, 1, 0 } }, // NORTH
+            { { 0, 1, 1 }, { 0, 0, 1 }, { 1, 0, 1 }, { 1, 1, 1 } }, // SOUTH
+            { { 0, 1, 0 }, { 0, 0, 0 }, { 0, 0, 1 }, { 0, 1, 1 } }, // WEST
+            { { 1, 1, 1 }, { 1, 0, 1 }, { 1, 0, 0 }, { 1, 1, 0 } }  // EAST
+    };
+
+    private static final float[][] TEXTURE_COORDS = new float[][] {
+            { 0.0f, 0.0f }, { 0.0f, 1.0f }, { 1.0f, 1.0f }, { 1.0f, 0.0f }
+    };
+
+    private static final float SLAB_HEIGHT = 1.0f / 16.0f;
+
+    private final Map<BlockState, BakedModel> models = new ConcurrentHashMap<>();
+    private final Sprite sprite;
+
+    SyntheticBlockModels(Sprite sprite) {
+        super(null);
+
+        this.sprite = sprite;
+    }
+
+    @Override
+    public BakedModel getModel(BlockState state) {
+        return this.models.computeIfAbsent(state, this::createModel);
+    }
+
+    private BakedModel createModel(BlockState state) {
+        List<BakedQuad> quads = new ArrayList<>();
+        Map<Direction, List<BakedQuad>> faceQuads = new EnumMap<>(Direction.class);
+
+        for (Direction direction : Direction.values()) {
+            faceQuads.put(direction, new ArrayList<>());
+        }
+
+        if (state.isFullCube(EmptyBlockView.INSTANCE, BlockPos.ORIGIN)) {
+            for (Direction direction : Direction.values()) {
+                faceQuads.get(direction)
+                        .add(this.createQuad(CUBE_VERTICES[direction.getId()], direction));
+            }
+        } else if (state.getBlock() instanceof PlantBlock) {
+            this.addCrossQuads(quads);
+        } else {
+            this.addSlabQuads(quads, faceQuads);
+        }
+
+        return new BasicBakedModel(quads, faceQuads, true, true, false, this.sprite,
+                ModelTransformation.NONE, ModelOverrideList.EMPTY);
+    }
+
+    private void addCrossQuads(List<BakedQuad> quads) {
+        float lo = 0.15f, hi = 0.85f;
+
+        quads.add(this.createQuad(new float[][] { { lo, 1, lo }, { lo, 0, lo }, { hi, 0, hi }, { hi, 1, hi } }, Direction.NORTH));
+        quads.add(this.createQuad(new float[][] { { hi, 1, hi }, { hi, 0, hi }, { lo, 0, lo }, { lo, 1, lo } }, Direction.SOUTH));
+        quads.add(this.createQuad(new float[][] { { lo, 1, hi }, { lo, 0, hi }, { hi, 0, lo }, { hi, 1, lo } }, Direction.EAST));
+        quads.add(this.createQuad(new float[][] { { hi, 1, lo }, { hi, 0, lo }, { lo, 0, hi }, { lo, 1, hi } }, Direction.WEST));
+    }
+
+    private void addSlabQuads(List<BakedQuad> quads, Map<Direction, List<BakedQuad>> faceQuads) {
+        for (Direction direction : Direction.values()) {
+            float[][] vertices = new float[4][];
+
+            for (int i = 0; i < 4; i++) {
+                float[] src = CUBE_VERTICES[direction.getId()][i];
+                vertices[i] = new float[] { src[0], src[1] * SLAB_HEIGHT, src[2] };
+            }
+
+            BakedQuad quad = this.createQuad(vertices, direction);
+
+            // Only the bottom face of the slab touches the edge of the block space and can be culled
+            if (direction == Direction.DOWN) {
+                faceQuads.get(direction).add(quad);
+            } else {
+                quads.add(quad);
+            }
+        }
+    }
+
+    private BakedQuad createQuad(float[][] vertices, Direction face) {
+        int[] data = new int[4 * ModelQuadUtil.VERTEX_SIZE];
+
+        for (int i = 0; i < 4; i++) {
+            int offset = ModelQuadUtil.vertexOffset(i);
+
+            data[offset + ModelQuadUtil.POSITION_INDEX] = Float.floatToRawIntBits(vertices[i][0]);
+            data[offset + ModelQuadUtil.POSITION_INDEX + 1] = Float.floatToRawIntBits(vertices[i][1]);
+            data[offset + ModelQuadUtil.POSITION_INDEX + 2] = Float.floatToRawIntBits(vertices[i][2]);
+            data[offset + ModelQuadUtil.COLOR_INDEX] = 0xFFFFFFFF;
+            data[offset + ModelQuadUtil.TEXTURE_INDEX] = Float.floatToRawIntBits(this.sprite.getFrameU(TEXTURE_COORDS[i][0] * 16.0f));
+            data[offset + ModelQuadUtil.TEXTURE_INDEX + 1] = Float.floatToRawIntBits(this.sprite.getFrameV(TEXTURE_COORDS[i][1] * 16.0f));
+            data[offset + ModelQuadUtil.LIGHT_INDEX] = 0;
+            data[offset + ModelQuadUtil.NORMAL_INDEX] = 0;
+        }
+
+        return new BakedQuad(data, -1, face, this.sprite, true);
+    }
+}
@@ -0,0 +1,89 @@
+package me.jellysquid.mods.sodium.benchmark.occlusion;
+
+import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken to test a frontier of sections against the frustum, comparing the batched test in
+ * {@link Viewport#testBoxes(int[], int[], int[], int, float, boolean[])} against testing each section on its own with
+ * {@link Viewport#isBoxVisible(int, int, int, float)}, which calls into JOML's {@code FrustumIntersection}.
+ *
+ * <p>The sections are scattered randomly around the camera within a 64 chunk render distance, so roughly a quarter of
+ * them are inside the frustum, as in a real search.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FrustumTestBenchmark {
+    private static final int RENDER_DISTANCE = 64;
+
+    @Param({ "10000", "100000" })
+    public int sectionCount;
+
+    private Viewport viewport;
+
+    private int[] centerX, centerY, centerZ;
+    private boolean[] results;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var projection = new Matrix4f()
+                .perspective((float) Math.toRadians(70.0f), 16.0f / 9.0f, 0.05f, (RENDER_DISTANCE + 2) * 16.0f)
+                .rotateY((float) Math.toRadians(30.0f));
+
+        this.viewport = new Viewport(projection, 8.5, 72.5, 8.5);
+
+        this.centerX = new int[this.sectionCount];
+        this.centerY = new int[this.sectionCount];
+        this.centerZ = new int[this.sectionCount];
+        this.results = new boolean[this.sectionCount];
+
+        var random = new Random(42L);
+
+        for (int i = 0; i < this.sectionCount; i++) {
+            this.centerX[i] = ((random.nextInt(RENDER_DISTANCE * 2) - RENDER_DISTANCE) << 4) + 8;
+            this.centerY[i] = ((random.nextInt(24) - 4) << 4) + 8;
+            this.centerZ[i] = ((random.nextInt(RENDER_DISTANCE * 2) - RENDER_DISTANCE) << 4) + 8;
+        }
+
+        this.verify();
+    }
+
+    /**
+     * Checks that the batched test gives exactly the same result for every section as testing them one at a time.
+     */
+    private void verify() {
+        this.viewport.testBoxes(this.centerX, this.centerY, this.centerZ, this.sectionCount, 8.0f, this.results);
+
+        for (int i = 0; i < this.sectionCount; i++) {
+            boolean expected = this.viewport.isBoxVisible(this.centerX[i], this.centerY[i], this.centerZ[i], 8.0f);
+
+            if (this.results[i] != expected) {
+                throw new IllegalStateException("Batched frustum test does not match for section at [%s, %s, %s]"
+                        .formatted(this.centerX[i], this.centerY[i], this.centerZ[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean[] batched() {
+        this.viewport.testBoxes(this.centerX, this.centerY, this.centerZ, this.sectionCount, 8.0f, this.results);
+
+        return this.results;
+    }
+
+    @Benchmark
+    public boolean[] perSection() {
+        for (int i = 0; i < this.sectionCount; i++) {
+            this.results[i] = this.viewport.isBoxVisible(this.centerX[i], this.centerY[i], this.centerZ[i], 8.0f);
+        }
+
+        return this.results;
+    }
+}
@@ -0,0 +1,198 @@
+package me.jellysquid.mods.sodium.benchmark.occlusion;
+
+import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirection;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirectionSet;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.VisibilityEncoding;
+import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
+import me.jellysquid.mods.sodium.client.util.collections.DoubleBufferedQueue;
+import me.jellysquid.mods.sodium.client.util.collections.WriteQueue;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.function.Consumer;
+
+/**
+ * The graph search as it was implemented before the graph state was moved into dense arrays, where each section is
+ * an object with its own state and direct references to its six neighbors. This only implements the search from
+ * within the world, which is all the benchmark needs, and is kept to compare against the current implementation.
+ */
+class ObjectGraphSearch {
+    private final Long2ReferenceMap<Node> nodes;
+
+    private final DoubleBufferedQueue<Node> queue = new DoubleBufferedQueue<>();
+
+    private final ReferenceArrayList<Node> visibleNodes = new ReferenceArrayList<>();
+    private final ReferenceArrayList<Node> outsideNodes = new ReferenceArrayList<>();
+
+    ObjectGraphSearch(Long2ReferenceMap<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    public void findVisible(Consumer<Node> visitor, Viewport viewport, float searchDistance, int frame) {
+        this.visibleNodes.clear();
+        this.outsideNodes.clear();
+
+        final var queues = this.queue;
+        queues.reset();
+
+        var origin = viewport.getChunkCoord();
+        var node = this.nodes.get(origin.asLong());
+
+        if (node == null) {
+            return;
+        }
+
+        node.lastVisibleFrame = frame;
+        node.incomingDirections = GraphDirectionSet.NONE;
+        node.outsideViewport = false;
+
+        this.visibleNodes.add(node);
+        visitor.accept(node);
+
+        visitNeighbors(queues.write(), node, VisibilityEncoding.getConnections(node.visibilityData), frame);
+
+        while (queues.flip()) {
+            var readQueue = queues.read();
+            var writeQueue = queues.write();
+
+            while ((node = readQueue.dequeue()) != null) {
+                if (isOutsideViewport(viewport, node, searchDistance)) {
+                    node.outsideViewport = true;
+                    this.outsideNodes.add(node);
+
+                    continue;
+                }
+
+                node.outsideViewport = false;
+                this.visibleNodes.add(node);
+
+                visitor.accept(node);
+
+                int connections = VisibilityEncoding.getConnections(node.visibilityData, node.incomingDirections);
+                connections &= getOutwardDirections(origin, node);
+
+                visitNeighbors(writeQueue, node, connections, frame);
+            }
+        }
+    }
+
+    private static void visitNeighbors(WriteQueue<Node> queue, Node node, int outgoing, int frame) {
+        outgoing &= node.adjacentMask;
+
+        if (outgoing == GraphDirectionSet.NONE) {
+            return;
+        }
+
+        queue.ensureCapacity(6);
+
+        if (GraphDirectionSet.contains(outgoing, GraphDirection.DOWN)) {
+            visitNode(queue, node.adjacentDown, GraphDirectionSet.of(GraphDirection.UP), frame);
+        }
+
+        if (GraphDirectionSet.contains(outgoing, GraphDirection.UP)) {
+            visitNode(queue, node.adjacentUp, GraphDirectionSet.of(GraphDirection.DOWN), frame);
+        }
+
+        if (GraphDirectionSet.contains(outgoing, GraphDirection.NORTH)) {
+            visitNode(queue, node.adjacentNorth, GraphDirectionSet.of(GraphDirection.SOUTH), frame);
+        }
+
+        if (GraphDirectionSet.contains(outgoing, GraphDirection.SOUTH)) {
+            visitNode(queue, node.adjacentSouth, GraphDirectionSet.of(GraphDirection.NORTH), frame);
+        }
+
+        if (GraphDirectionSet.contains(outgoing, GraphDirection.WEST)) {
+            visitNode(queue, node.adjacentWest, GraphDirectionSet.of(GraphDirection.EAST), frame);
+        }
+
+        if (GraphDirectionSet.contains(outgoing, GraphDirection.EAST)) {
+            visitNode(queue, node.adjacentEast, GraphDirectionSet.of(GraphDirection.WEST), frame);
+        }
+    }
+
+    private static void visitNode(WriteQueue<Node> queue, Node node, int incoming, int frame) {
+        if (node.lastVisibleFrame != frame) {
+            node.lastVisibleFrame = frame;
+            node.incomingDirections = GraphDirectionSet.NONE;
+
+            queue.enqueue(node);
+        }
+
+        node.incomingDirections |= incoming;
+    }
+
+    private static int getOutwardDirections(ChunkSectionPos origin, Node node) {
+        int planes = 0;
+
+        planes |= node.chunkX <= origin.getX() ? 1 << GraphDirection.WEST  : 0;
+        planes |= node.chunkX >= origin.getX() ? 1 << GraphDirection.EAST  : 0;
+
+        planes |= node.chunkY <= origin.getY() ? 1 << GraphDirection.DOWN  : 0;
+        planes |= node.chunkY >= origin.getY() ? 1 << GraphDirection.UP    : 0;
+
+        planes |= node.chunkZ <= origin.getZ() ? 1 << GraphDirection.NORTH : 0;
+        planes |= node.chunkZ >= origin.getZ() ? 1 << GraphDirection.SOUTH : 0;
+
+        return planes;
+    }
+
+    private static boolean isOutsideViewport(Viewport viewport, Node node, float maxDistance) {
+        var origin = viewport.getBlockCoord();
+        var transform = viewport.getTransform();
+
+        int centerX = (node.chunkX << 4) + 8;
+        int centerY = (node.chunkY << 4) + 8;
+        int centerZ = (node.chunkZ << 4) + 8;
+
+        int pointX = centerX + (Integer.signum(origin.getX() - centerX) * 8);
+        int pointY = centerY + (Integer.signum(origin.getY() - centerY) * 8);
+        int pointZ = centerZ + (Integer.signum(origin.getZ() - centerZ) * 8);
+
+        float distanceX = (pointX - transform.intX) - transform.fracX;
+        float distanceY = (pointY - transform.intY) - transform.fracY;
+        float distanceZ = (pointZ - transform.intZ) - transform.fracZ;
+
+        var distanceSq = Math.max((distanceX * distanceX) + (distanceZ * distanceZ), distanceY * distanceY);
+
+        if (distanceSq > MathHelper.square(maxDistance)) {
+            return true;
+        }
+
+        return !viewport.isBoxVisible(centerX, centerY, centerZ, 8.0f);
+    }
+
+    static class Node {
+        final int chunkX, chunkY, chunkZ;
+        final long visibilityData;
+
+        int incomingDirections;
+        int lastVisibleFrame = -1;
+        boolean outsideViewport;
+
+        int adjacentMask;
+        Node adjacentDown, adjacentUp, adjacentNorth, adjacentSouth, adjacentWest, adjacentEast;
+
+        Node(int chunkX, int chunkY, int chunkZ, long visibilityData) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.chunkZ = chunkZ;
+            this.visibilityData = visibilityData;
+        }
+
+        void setAdjacentNode(int direction, Node node) {
+            this.adjacentMask |= GraphDirectionSet.of(direction);
+
+            switch (direction) {
+                case GraphDirection.DOWN -> this.adjacentDown = node;
+                case GraphDirection.UP -> this.adjacentUp = node;
+                case GraphDirection.NORTH -> this.adjacentNorth = node;
+                case GraphDirection.SOUTH -> this.adjacentSouth = node;
+                case GraphDirection.WEST -> this.adjacentWest = node;
+                case GraphDirection.EAST -> this.adjacentEast = node;
+                default -> { }
+            }
+        }
+    }
+}
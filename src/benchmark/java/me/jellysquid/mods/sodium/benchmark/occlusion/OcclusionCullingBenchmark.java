@@ -0,0 +1,91 @@
+package me.jellysquid.mods.sodium.benchmark.occlusion;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.world.World;
+import org.joml.Matrix4f;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the time taken by a full search of the section graph, comparing the occlusion culler (which stores the
+ * graph state in dense arrays owned by each render region) against the previous layout, where the state of each
+ * section was stored in its own object along with references to its neighbors.
+ *
+ * <p>The camera is placed just above sea level, looking north, so that the search has to pass through both the open
+ * sky and the mostly solid terrain below it.</p>
+ *
+ * <p>The occlusion culler is measured both with and without the parallel search, which splits the frustum tests and
+ * connection lookups for each large frontier across the fork/join pool.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OcclusionCullingBenchmark {
+    @Param({ "32", "64" })
+    public int renderDistance;
+
+    @Param({ "false", "true" })
+    public boolean useParallelSearch;
+
+    private Viewport viewport;
+    private float searchDistance;
+
+    private OcclusionCuller culler;
+    private ObjectGraphSearch objectGraphSearch;
+
+    private int frame;
+    private int visibleCount;
+
+    private final Consumer<RenderSection> sectionVisitor = (section) -> this.visibleCount++;
+    private final Consumer<ObjectGraphSearch.Node> nodeVisitor = (node) -> this.visibleCount++;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        var fixture = new SectionGraphFixture(this.renderDistance);
+
+        World world = Mockito.mock(World.class);
+        Mockito.when(world.getBottomSectionCoord())
+                .thenReturn(SectionGraphFixture.BOTTOM_SECTION);
+        Mockito.when(world.getTopSectionCoord())
+                .thenReturn(SectionGraphFixture.TOP_SECTION);
+
+        this.searchDistance = this.renderDistance * 16.0f;
+
+        var projection = new Matrix4f()
+                .perspective((float) Math.toRadians(70.0f), 16.0f / 9.0f, 0.05f, this.searchDistance + 32.0f);
+
+        this.viewport = new Viewport(projection, 8.5, 72.5, 8.5);
+
+        this.culler = new OcclusionCuller(fixture.sections, fixture.regions.values(), world);
+        this.culler.setUseParallelSearch(this.useParallelSearch);
+        this.objectGraphSearch = new ObjectGraphSearch(fixture.nodes);
+    }
+
+    @Benchmark
+    public int sectionGraphStorage() {
+        this.visibleCount = 0;
+        this.culler.findVisible(this.sectionVisitor, this.viewport, this.searchDistance, true, this.frame++);
+
+        return this.visibleCount;
+    }
+
+    @Benchmark
+    public int objectGraph() {
+        this.visibleCount = 0;
+        this.objectGraphSearch.findVisible(this.nodeVisitor, this.viewport, this.searchDistance, this.frame++);
+
+        return this.visibleCount;
+    }
+}
@@ -0,0 +1,149 @@
+package me.jellysquid.mods.sodium.benchmark.occlusion;
+
+import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirection;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.SectionGraphStorage;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.Random;
+
+/**
+ * A loaded world of chunk sections, with the same visibility data stored both in the legacy object graph and in the
+ * region graph storage used by the occlusion culler. The world is generated from a fixed seed: sections below sea
+ * level are mostly solid with a few cave openings, and sections above it are open in every direction.
+ */
+public class SectionGraphFixture {
+    public static final int BOTTOM_SECTION = -4;
+    public static final int TOP_SECTION = 20;
+
+    private static final int SEA_LEVEL_SECTION = 4;
+
+    private static final long ALL_CONNECTIONS = createVisibilityData(new Random(0), 1.0f);
+
+    final Long2ReferenceMap<RenderSection> sections = new Long2ReferenceOpenHashMap<>();
+    final Long2ReferenceMap<ObjectGraphSearch.Node> nodes = new Long2ReferenceOpenHashMap<>();
+
+    final Long2ReferenceMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
+
+    public SectionGraphFixture(int renderDistance) {
+        long[] positions = createPositions(renderDistance);
+        var random = new Random(42);
+
+        // Sections are added in a random order, as they would be while chunks are streamed in from the server, so
+        // that the objects of neighboring sections don't happen to be allocated next to each other
+        shuffle(positions, random);
+
+        for (long pos : positions) {
+            int x = ChunkSectionPos.unpackX(pos);
+            int y = ChunkSectionPos.unpackY(pos);
+            int z = ChunkSectionPos.unpackZ(pos);
+
+            long visibilityData = y < SEA_LEVEL_SECTION ? createVisibilityData(random, 0.15f) : ALL_CONNECTIONS;
+
+            this.addSection(x, y, z, visibilityData);
+            this.addNode(x, y, z, visibilityData);
+        }
+    }
+
+    private void addSection(int x, int y, int z, long visibilityData) {
+        var region = this.getOrCreateRegion(Math.floorDiv(x, RenderRegion.REGION_WIDTH),
+                Math.floorDiv(y, RenderRegion.REGION_HEIGHT),
+                Math.floorDiv(z, RenderRegion.REGION_LENGTH));
+
+        var section = new RenderSection(region, x, y, z);
+        region.addSection(section);
+        region.getGraph().setVisibilityData(section.getSectionIndex(), visibilityData);
+
+        this.sections.put(ChunkSectionPos.asLong(x, y, z), section);
+
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = this.sections.get(ChunkSectionPos.asLong(x + GraphDirection.x(direction),
+                    y + GraphDirection.y(direction), z + GraphDirection.z(direction)));
+
+            if (adjacent != null) {
+                adjacent.setAdjacentNode(GraphDirection.opposite(direction), section);
+                section.setAdjacentNode(direction, adjacent);
+            }
+        }
+    }
+
+    private void addNode(int x, int y, int z, long visibilityData) {
+        var node = new ObjectGraphSearch.Node(x, y, z, visibilityData);
+
+        this.nodes.put(ChunkSectionPos.asLong(x, y, z), node);
+
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = this.nodes.get(ChunkSectionPos.asLong(x + GraphDirection.x(direction),
+                    y + GraphDirection.y(direction), z + GraphDirection.z(direction)));
+
+            if (adjacent != null) {
+                adjacent.setAdjacentNode(GraphDirection.opposite(direction), node);
+                node.setAdjacentNode(direction, adjacent);
+            }
+        }
+    }
+
+    private RenderRegion getOrCreateRegion(int x, int y, int z) {
+        var region = this.regions.get(RenderRegion.key(x, y, z));
+
+        if (region == null) {
+            this.regions.put(RenderRegion.key(x, y, z), region = new RenderRegion(x, y, z, null, null));
+
+            for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+                var adjacent = this.regions.get(RenderRegion.key(x + GraphDirection.x(direction),
+                        y + GraphDirection.y(direction), z + GraphDirection.z(direction)));
+
+                if (adjacent != null) {
+                    SectionGraphStorage.connect(region.getGraph(), direction, adjacent.getGraph());
+                }
+            }
+        }
+
+        return region;
+    }
+
+    private static long[] createPositions(int renderDistance) {
+        int width = (renderDistance * 2) + 1;
+        long[] positions = new long[width * width * (TOP_SECTION - BOTTOM_SECTION)];
+        int i = 0;
+
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                for (int y = BOTTOM_SECTION; y < TOP_SECTION; y++) {
+                    positions[i++] = ChunkSectionPos.asLong(x, y, z);
+                }
+            }
+        }
+
+        return positions;
+    }
+
+    private static void shuffle(long[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+
+            long tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    // Uses the same layout as VisibilityEncoding, where the bit (from * 8) + to is set if the faces are connected
+    private static long createVisibilityData(Random random, float chance) {
+        long visibilityData = 0L;
+
+        for (int from = 0; from < GraphDirection.COUNT; from++) {
+            for (int to = from; to < GraphDirection.COUNT; to++) {
+                if (random.nextFloat() < chance) {
+                    visibilityData |= 1L << ((from * 8) + to);
+                    visibilityData |= 1L << ((to * 8) + from);
+                }
+            }
+        }
+
+        return visibilityData;
+    }
+}
@@ -0,0 +1,157 @@
+package me.jellysquid.mods.sodium.client.model.light.smooth;
+
+import me.jellysquid.mods.sodium.client.model.light.data.LightDataAccess;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken to gather the smooth lighting data of every face of a section's worth of blocks, comparing
+ * {@link AoFaceData} (which gathers the edges and corners of a face into small arrays and handles them with a loop)
+ * against the previous implementation in {@link ScalarAoFaceData}.
+ *
+ * <p>The light data is generated randomly rather than computed from a world, so that only the cost of the lighting
+ * calculations is measured. Since the benchmark needs access to package-private classes, it lives in the same package
+ * as the smooth lighting pipeline.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AoFaceDataBenchmark {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // The blocks of a section, along with the two layers of neighbors which are read for offset faces
+    private static final int PADDING = 2;
+    private static final int SIZE = 16 + (PADDING * 2);
+
+    @Param({ "0.25", "0.75" })
+    public float opaqueChance;
+
+    private SyntheticLightData lightData;
+
+    private final BlockPos.Mutable pos = new BlockPos.Mutable();
+
+    private final AoFaceData batched = new AoFaceData();
+    private final ScalarAoFaceData scalar = new ScalarAoFaceData();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        this.lightData = new SyntheticLightData(new Random(42L), this.opaqueChance);
+
+        this.verify();
+    }
+
+    /**
+     * Checks that both implementations produce exactly the same light values for every face of every block.
+     */
+    private void verify() {
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockPos pos = this.pos.set(x, y, z);
+
+                    for (Direction direction : DIRECTIONS) {
+                        for (boolean offset : new boolean[] { false, true }) {
+                            this.batched.reset();
+                            this.batched.initLightData(this.lightData, pos, direction, offset);
+                            this.scalar.initLightData(this.lightData, pos, direction, offset);
+
+                            if (!Arrays.equals(this.batched.lm, this.scalar.lm) || !aoEquals(this.batched.ao, this.scalar.ao)) {
+                                throw new IllegalStateException("Light data does not match for face %s (offset=%s) of block at %s"
+                                        .formatted(direction, offset, pos.toShortString()));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean aoEquals(float[] a, float[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (Float.floatToRawIntBits(a[i]) != Float.floatToRawIntBits(b[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Benchmark
+    public int batched() {
+        AoFaceData data = this.batched;
+        int result = 0;
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockPos pos = this.pos.set(x, y, z);
+
+                    for (Direction direction : DIRECTIONS) {
+                        data.reset();
+                        data.initLightData(this.lightData, pos, direction, true);
+
+                        result += data.lm[0] + data.lm[3] + Float.floatToRawIntBits(data.ao[1]);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int scalar() {
+        ScalarAoFaceData data = this.scalar;
+        int result = 0;
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockPos pos = this.pos.set(x, y, z);
+
+                    for (Direction direction : DIRECTIONS) {
+                        data.initLightData(this.lightData, pos, direction, true);
+
+                        result += data.lm[0] + data.lm[3] + Float.floatToRawIntBits(data.ao[1]);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static class SyntheticLightData extends LightDataAccess {
+        private final int[] words = new int[SIZE * SIZE * SIZE];
+
+        public SyntheticLightData(Random random, float opaqueChance) {
+            for (int i = 0; i < this.words.length; i++) {
+                boolean opaque = random.nextFloat() < opaqueChance;
+                boolean emissive = random.nextInt(64) == 0;
+
+                int luminance = random.nextInt(16) == 0 ? random.nextInt(16) : 0;
+                float ao = opaque ? 0.2f : 1.0f;
+
+                this.words[i] = packFC(opaque) | packFO(opaque) | packOP(opaque) | packEM(emissive) | packAO(ao) |
+                        packLU(luminance) | packSL(opaque ? 0 : random.nextInt(16)) | packBL(opaque ? 0 : random.nextInt(16));
+            }
+        }
+
+        @Override
+        public int get(int x, int y, int z) {
+            return this.words[(((y + PADDING) * SIZE) + (z + PADDING)) * SIZE + (x + PADDING)];
+        }
+    }
+}
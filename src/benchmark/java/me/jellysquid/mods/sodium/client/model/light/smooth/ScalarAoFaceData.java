@@ -0,0 +1,188 @@
+package me.jellysquid.mods.sodium.client.model.light.smooth;
+
+import me.jellysquid.mods.sodium.client.model.light.data.LightDataAccess;
+import net.minecraft.client.render.LightmapTextureManager;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import static me.jellysquid.mods.sodium.client.model.light.data.ArrayLightDataCache.*;
+
+/**
+ * The previous implementation of {@link AoFaceData#initLightData(LightDataAccess, BlockPos, Direction, boolean)},
+ * which handled each edge and corner of the face with its own set of local variables. This is only kept so that the
+ * benchmark can compare against it, and check that both produce the same results.
+ */
+class ScalarAoFaceData {
+    public final int[] lm = new int[4];
+    public final float[] ao = new float[4];
+
+    public void initLightData(LightDataAccess cache, BlockPos pos, Direction direction, boolean offset) {
+        final int x = pos.getX();
+        final int y = pos.getY();
+        final int z = pos.getZ();
+
+        final int adjX;
+        final int adjY;
+        final int adjZ;
+
+        if (offset) {
+            adjX = x + direction.getOffsetX();
+            adjY = y + direction.getOffsetY();
+            adjZ = z + direction.getOffsetZ();
+        } else {
+            adjX = x;
+            adjY = y;
+            adjZ = z;
+        }
+
+        final int adjWord = cache.get(adjX, adjY, adjZ);
+
+        final int calm;
+        final boolean caem;
+
+        if (offset && unpackFO(adjWord)) {
+            final int originWord = cache.get(x, y, z);
+            calm = getLightmap(originWord);
+            caem = unpackEM(originWord);
+        } else {
+            calm = getLightmap(adjWord);
+            caem = unpackEM(adjWord);
+        }
+
+        final float caao = unpackAO(adjWord);
+
+        Direction[] faces = AoNeighborInfo.get(direction).faces;
+
+        final int e0 = cache.get(adjX, adjY, adjZ, faces[0]);
+        final int e0lm = getLightmap(e0);
+        final float e0ao = unpackAO(e0);
+        final boolean e0op = unpackOP(e0);
+        final boolean e0em = unpackEM(e0);
+
+        final int e1 = cache.get(adjX, adjY, adjZ, faces[1]);
+        final int e1lm = getLightmap(e1);
+        final float e1ao = unpackAO(e1);
+        final boolean e1op = unpackOP(e1);
+        final boolean e1em = unpackEM(e1);
+
+        final int e2 = cache.get(adjX, adjY, adjZ, faces[2]);
+        final int e2lm = getLightmap(e2);
+        final float e2ao = unpackAO(e2);
+        final boolean e2op = unpackOP(e2);
+        final boolean e2em = unpackEM(e2);
+
+        final int e3 = cache.get(adjX, adjY, adjZ, faces[3]);
+        final int e3lm = getLightmap(e3);
+        final float e3ao = unpackAO(e3);
+        final boolean e3op = unpackOP(e3);
+        final boolean e3em = unpackEM(e3);
+
+        final int c0lm;
+        final float c0ao;
+        final boolean c0em;
+
+        if (e2op && e0op) {
+            c0lm = e0lm;
+            c0ao = e0ao;
+            c0em = e0em;
+        } else {
+            int d0 = cache.get(adjX, adjY, adjZ, faces[0], faces[2]);
+            c0lm = getLightmap(d0);
+            c0ao = unpackAO(d0);
+            c0em = unpackEM(d0);
+        }
+
+        final int c1lm;
+        final float c1ao;
+        final boolean c1em;
+
+        if (e3op && e0op) {
+            c1lm = e0lm;
+            c1ao = e0ao;
+            c1em = e0em;
+        } else {
+            int d1 = cache.get(adjX, adjY, adjZ, faces[0], faces[3]);
+            c1lm = getLightmap(d1);
+            c1ao = unpackAO(d1);
+            c1em = unpackEM(d1);
+        }
+
+        final int c2lm;
+        final float c2ao;
+        final boolean c2em;
+
+        if (e2op && e1op) {
+            c2lm = e1lm;
+            c2ao = e1ao;
+            c2em = e1em;
+        } else {
+            int d2 = cache.get(adjX, adjY, adjZ, faces[1], faces[2]);
+            c2lm = getLightmap(d2);
+            c2ao = unpackAO(d2);
+            c2em = unpackEM(d2);
+        }
+
+        final int c3lm;
+        final float c3ao;
+        final boolean c3em;
+
+        if (e3op && e1op) {
+            c3lm = e1lm;
+            c3ao = e1ao;
+            c3em = e1em;
+        } else {
+            int d3 = cache.get(adjX, adjY, adjZ, faces[1], faces[3]);
+            c3lm = getLightmap(d3);
+            c3ao = unpackAO(d3);
+            c3em = unpackEM(d3);
+        }
+
+        float[] ao = this.ao;
+        ao[0] = (e3ao + e0ao + c1ao + caao) * 0.25f;
+        ao[1] = (e2ao + e0ao + c0ao + caao) * 0.25f;
+        ao[2] = (e2ao + e1ao + c2ao + caao) * 0.25f;
+        ao[3] = (e3ao + e1ao + c3ao + caao) * 0.25f;
+
+        int[] cb = this.lm;
+        cb[0] = calculateCornerBrightness(e3lm, e0lm, c1lm, calm, e3em, e0em, c1em, caem);
+        cb[1] = calculateCornerBrightness(e2lm, e0lm, c0lm, calm, e2em, e0em, c0em, caem);
+        cb[2] = calculateCornerBrightness(e2lm, e1lm, c2lm, calm, e2em, e1em, c2em, caem);
+        cb[3] = calculateCornerBrightness(e3lm, e1lm, c3lm, calm, e3em, e1em, c3em, caem);
+    }
+
+    private static int calculateCornerBrightness(int a, int b, int c, int d, boolean aem, boolean bem, boolean cem, boolean dem) {
+        if ((a == 0) || (b == 0) || (c == 0) || (d == 0)) {
+            final int min = minNonZero(minNonZero(a, b), minNonZero(c, d));
+
+            a = Math.max(a, min);
+            b = Math.max(b, min);
+            c = Math.max(c, min);
+            d = Math.max(d, min);
+        }
+
+        if (aem) {
+            a = LightmapTextureManager.MAX_LIGHT_COORDINATE;
+        }
+        if (bem) {
+            b = LightmapTextureManager.MAX_LIGHT_COORDINATE;
+        }
+        if (cem) {
+            c = LightmapTextureManager.MAX_LIGHT_COORDINATE;
+        }
+        if (dem) {
+            d = LightmapTextureManager.MAX_LIGHT_COORDINATE;
+        }
+
+        return ((a + b + c + d) >> 2) & 0xFF00FF;
+    }
+
+    private static int minNonZero(int a, int b) {
+        if (a == 0) {
+            return b;
+        } else if (b == 0) {
+            return a;
+        }
+
+        return Math.min(a, b);
+    }
+}
@@ -0,0 +1,568 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of which parts of an arena are in use, independently of the buffer which holds the arena's data. The
+ * arena is split into a linked list of segments ordered by their offset, which are either free or used, and adjacent
+ * free segments are always merged together. All lengths and offsets are measured in elements, rather than bytes.
+ *
+ * <p>Free segments are additionally tracked by a {@link FreeSegmentIndex}, so that allocations don't need to walk the
+ * whole list to find a segment which fits.</p>
+ */
+public class ArenaAllocator {
+    static final boolean CHECK_ASSERTIONS = false;
+
+    private final FreeSegmentIndex freeSegments;
+
+    private GlBufferSegment head;
+
+    private int capacity;
+    private int used;
+
+    public ArenaAllocator(int capacity, FreeSegmentIndex freeSegments) {
+        this.capacity = capacity;
+        this.freeSegments = freeSegments;
+
+        this.head = new GlBufferSegment(this, 0, capacity);
+        this.head.setFree(true);
+
+        this.freeSegments.add(this.head);
+    }
+
+    /**
+     * Allocates a segment of the given length, or returns null if there is no free segment large enough.
+     *
+     * @throws IllegalArgumentException If the length is not positive
+     */
+    @Nullable
+    public GlBufferSegment alloc(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        GlBufferSegment a = this.freeSegments.findFree(length);
+
+        if (a == null) {
+            return null;
+        }
+
+        this.freeSegments.remove(a);
+
+        GlBufferSegment result;
+
+        if (a.getLength() == length) {
+            a.setFree(false);
+
+            result = a;
+        } else {
+            GlBufferSegment b = new GlBufferSegment(this, a.getEnd() - length, length);
+            b.setNext(a.getNext());
+            b.setPrev(a);
+
+            if (b.getNext() != null) {
+                b.getNext()
+                        .setPrev(b);
+            }
+
+            a.setLength(a.getLength() - length);
+            a.setNext(b);
+
+            this.freeSegments.add(a);
+
+            result = b;
+        }
+
+        this.used += result.getLength();
+        this.checkAssertions();
+
+        return result;
+    }
+
+    public void free(GlBufferSegment entry) {
+        if (entry.isFree()) {
+            throw new IllegalStateException("Already freed");
+        }
+
+        entry.setFree(true);
+
+        this.used -= entry.getLength();
+
+        this.mergeFreeSegment(entry);
+        this.checkAssertions();
+    }
+
+    // Merges a free segment which isn't in the index yet with any free neighbors, and adds the result to the index
+    private void mergeFreeSegment(GlBufferSegment entry) {
+        GlBufferSegment next = entry.getNext();
+
+        if (next != null && next.isFree()) {
+            this.freeSegments.remove(next);
+            entry.mergeInto(next);
+        }
+
+        GlBufferSegment prev = entry.getPrev();
+
+        if (prev != null && prev.isFree()) {
+            this.freeSegments.remove(prev);
+            prev.mergeInto(entry);
+            this.freeSegments.add(prev);
+        } else {
+            this.freeSegments.add(entry);
+        }
+    }
+
+    /**
+     * Grows the arena to the given capacity, and moves all used segments to the end of the arena, so that all of the
+     * free space is joined into one segment at the start.
+     *
+     * @return The copies which must be made to move the data of each segment into its new location
+     */
+    List<PendingBufferCopyCommand> resize(int newCapacity) {
+        if (this.used > newCapacity) {
+            throw new UnsupportedOperationException("New capacity must be larger than used size");
+        }
+
+        this.checkAssertions();
+
+        int tail = newCapacity - this.used;
+
+        List<GlBufferSegment> usedSegments = this.getUsedSegments();
+        List<PendingBufferCopyCommand> pendingCopies = this.buildTransferList(usedSegments, tail);
+
+        this.capacity = newCapacity;
+
+        this.freeSegments.clear();
+
+        if (tail > 0) {
+            this.head = new GlBufferSegment(this, 0, tail);
+            this.head.setFree(true);
+
+            if (usedSegments.isEmpty()) {
+                this.head.setNext(null);
+            } else {
+                this.head.setNext(usedSegments.get(0));
+                this.head.getNext()
+                        .setPrev(this.head);
+            }
+
+            this.freeSegments.add(this.head);
+        } else {
+            // The arena is completely full, so there is no free segment to put at the start
+            this.head = usedSegments.isEmpty() ? null : usedSegments.get(0);
+        }
+
+        this.checkAssertions();
+
+        return pendingCopies;
+    }
+
+    /**
+     * Moves used segments from the end of the arena into free space closer to the start, so that the free space at
+     * the end can later be released with {@link #truncate(int)}. Segments are moved starting from the end of the
+     * arena, until the total length of the moved segments would exceed the given limit. Each segment is moved into
+     * the first free segment before it which is large enough to hold it.
+     *
+     * @return The copies which must be made to move the data of each segment into its new location, which is empty if
+     * no segments could be moved any closer to the start
+     */
+    List<PendingBufferCopyCommand> compact(int maxElements) {
+        List<PendingBufferCopyCommand> pendingCopies = new ArrayList<>();
+        List<GlBufferSegment> usedSegments = this.getUsedSegments();
+
+        // Segments are only ever moved into the free segments which existed before compaction started, since the free
+        // space left behind by a moved segment is always after the segments which are yet to be moved
+        List<GlBufferSegment> freeSegments = this.getFreeSegments();
+        FirstFitTree targets = new FirstFitTree(freeSegments);
+
+        // The number of free segments which are before the current segment
+        int freeSegmentsBefore = freeSegments.size();
+
+        int remainingElements = maxElements;
+
+        for (int i = usedSegments.size() - 1; i >= 0; i--) {
+            GlBufferSegment segment = usedSegments.get(i);
+
+            if (segment.getLength() > maxElements) {
+                // This segment can never be moved within the limit, so leave it where it is
+                continue;
+            } else if (segment.getLength() > remainingElements) {
+                break;
+            }
+
+            while (freeSegmentsBefore > 0 && freeSegments.get(freeSegmentsBefore - 1).getOffset() > segment.getOffset()) {
+                freeSegmentsBefore--;
+            }
+
+            int index = targets.findFirst(segment.getLength(), freeSegmentsBefore);
+
+            if (index >= 0) {
+                GlBufferSegment target = freeSegments.get(index);
+
+                // If the segment fills the target completely, the target is removed from the list
+                boolean consumed = target.getLength() == segment.getLength();
+
+                pendingCopies.add(this.move(segment, target));
+                remainingElements -= segment.getLength();
+
+                targets.set(index, consumed ? 0 : target.getLength());
+            }
+        }
+
+        this.checkAssertions();
+
+        return pendingCopies;
+    }
+
+    private PendingBufferCopyCommand move(GlBufferSegment segment, GlBufferSegment target) {
+        int length = segment.getLength();
+
+        int readOffset = segment.getOffset();
+        int writeOffset = target.getOffset();
+
+        // Leave a free segment behind in place of the segment being moved
+        GlBufferSegment hole = new GlBufferSegment(this, readOffset, length);
+        hole.setFree(true);
+
+        this.replace(segment, hole);
+
+        // Take the space for the segment from the start of the target, so that used segments are packed together
+        this.freeSegments.remove(target);
+
+        if (target.getLength() == length) {
+            this.replace(target, segment);
+        } else {
+            segment.setPrev(target.getPrev());
+            segment.setNext(target);
+
+            if (segment.getPrev() != null) {
+                segment.getPrev()
+                        .setNext(segment);
+            } else {
+                this.head = segment;
+            }
+
+            target.setPrev(segment);
+            target.setOffset(target.getOffset() + length);
+            target.setLength(target.getLength() - length);
+
+            this.freeSegments.add(target);
+        }
+
+        segment.setOffset(writeOffset);
+
+        // The hole might be next to other free segments, which need to be merged with it
+        this.mergeFreeSegment(hole);
+
+        return new PendingBufferCopyCommand(readOffset, writeOffset, length);
+    }
+
+    // Links the replacement into the list in place of the given segment
+    private void replace(GlBufferSegment segment, GlBufferSegment replacement) {
+        GlBufferSegment prev = segment.getPrev();
+        GlBufferSegment next = segment.getNext();
+
+        replacement.setPrev(prev);
+        replacement.setNext(next);
+
+        if (prev != null) {
+            prev.setNext(replacement);
+        } else {
+            this.head = replacement;
+        }
+
+        if (next != null) {
+            next.setPrev(replacement);
+        }
+    }
+
+    /**
+     * Releases the free space at the end of the arena, so that the arena has the given capacity. All used segments
+     * must end before the new capacity, which can be ensured by compacting the arena first.
+     */
+    void truncate(int newCapacity) {
+        if (newCapacity > this.capacity) {
+            throw new IllegalArgumentException("New capacity must be smaller than the current capacity");
+        } else if (newCapacity < this.getUsedEnd()) {
+            throw new IllegalArgumentException("New capacity must be larger than the end of the last used segment");
+        }
+
+        GlBufferSegment last = this.getLastSegment();
+
+        if (last != null && last.isFree()) {
+            this.freeSegments.remove(last);
+
+            int length = newCapacity - last.getOffset();
+
+            if (length > 0) {
+                last.setLength(length);
+                this.freeSegments.add(last);
+            } else if (last.getPrev() != null) {
+                last.getPrev()
+                        .setNext(null);
+            } else {
+                this.head = null;
+            }
+        }
+
+        this.capacity = newCapacity;
+
+        this.checkAssertions();
+    }
+
+    /**
+     * Returns the offset at which the last used segment of the arena ends. Everything after this offset is free.
+     */
+    public int getUsedEnd() {
+        GlBufferSegment last = this.getLastSegment();
+
+        if (last == null) {
+            return 0;
+        }
+
+        return last.isFree() ? last.getOffset() : last.getEnd();
+    }
+
+    @Nullable
+    private GlBufferSegment getLastSegment() {
+        GlBufferSegment seg = this.head;
+
+        while (seg != null && seg.getNext() != null) {
+            seg = seg.getNext();
+        }
+
+        return seg;
+    }
+
+    private List<PendingBufferCopyCommand> buildTransferList(List<GlBufferSegment> usedSegments, int base) {
+        List<PendingBufferCopyCommand> pendingCopies = new ArrayList<>();
+        PendingBufferCopyCommand currentCopyCommand = null;
+
+        int writeOffset = base;
+
+        for (int i = 0; i < usedSegments.size(); i++) {
+            GlBufferSegment s = usedSegments.get(i);
+
+            if (currentCopyCommand == null || currentCopyCommand.readOffset + currentCopyCommand.length != s.getOffset()) {
+                if (currentCopyCommand != null) {
+                    pendingCopies.add(currentCopyCommand);
+                }
+
+                currentCopyCommand = new PendingBufferCopyCommand(s.getOffset(), writeOffset, s.getLength());
+            } else {
+                currentCopyCommand.length += s.getLength();
+            }
+
+            s.setOffset(writeOffset);
+
+            if (i + 1 < usedSegments.size()) {
+                s.setNext(usedSegments.get(i + 1));
+            } else {
+                s.setNext(null);
+            }
+
+            if (i - 1 < 0) {
+                s.setPrev(null);
+            } else {
+                s.setPrev(usedSegments.get(i - 1));
+            }
+
+            writeOffset += s.getLength();
+        }
+
+        if (currentCopyCommand != null) {
+            pendingCopies.add(currentCopyCommand);
+        }
+
+        return pendingCopies;
+    }
+
+    private ArrayList<GlBufferSegment> getUsedSegments() {
+        ArrayList<GlBufferSegment> used = new ArrayList<>();
+        GlBufferSegment seg = this.head;
+
+        while (seg != null) {
+            GlBufferSegment next = seg.getNext();
+
+            if (!seg.isFree()) {
+                used.add(seg);
+            }
+
+            seg = next;
+        }
+
+        return used;
+    }
+
+    private ArrayList<GlBufferSegment> getFreeSegments() {
+        ArrayList<GlBufferSegment> free = new ArrayList<>();
+        GlBufferSegment seg = this.head;
+
+        while (seg != null) {
+            if (seg.isFree()) {
+                free.add(seg);
+            }
+
+            seg = seg.getNext();
+        }
+
+        return free;
+    }
+
+    /**
+     * Returns the first segment of the arena, or null if the arena has no capacity. This is only used to check the
+     * state of the allocator from tests.
+     */
+    @Nullable
+    GlBufferSegment getHead() {
+        return this.head;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public int getUsed() {
+        return this.used;
+    }
+
+    public boolean isEmpty() {
+        return this.used <= 0;
+    }
+
+    private void checkAssertions() {
+        if (CHECK_ASSERTIONS) {
+            this.checkAssertions0();
+        }
+    }
+
+    private void checkAssertions0() {
+        GlBufferSegment seg = this.head;
+        int used = 0;
+
+        while (seg != null) {
+            if (seg.getOffset() < 0) {
+                throw new IllegalStateException("segment.start < 0: out of bounds");
+            } else if (seg.getEnd() > this.capacity) {
+                throw new IllegalStateException("segment.end > arena.capacity: out of bounds");
+            }
+
+            if (!seg.isFree()) {
+                used += seg.getLength();
+            }
+
+            GlBufferSegment next = seg.getNext();
+
+            if (next != null) {
+                if (next.getOffset() < seg.getEnd()) {
+                    throw new IllegalStateException("segment.next.start < segment.end: overlapping segments (corrupted)");
+                } else if (next.getOffset() > seg.getEnd()) {
+                    throw new IllegalStateException("segment.next.start > segment.end: not truly connected (sparsity error)");
+                }
+
+                if (next.isFree() && next.getNext() != null) {
+                    if (next.getNext().isFree()) {
+                        throw new IllegalStateException("segment.free && segment.next.free: not merged consecutive segments");
+                    }
+                }
+            }
+
+            GlBufferSegment prev = seg.getPrev();
+
+            if (prev != null) {
+                if (prev.getEnd() > seg.getOffset()) {
+                    throw new IllegalStateException("segment.prev.end > segment.start: overlapping segments (corrupted)");
+                } else if (prev.getEnd() < seg.getOffset()) {
+                    throw new IllegalStateException("segment.prev.end < segment.start: not truly connected (sparsity error)");
+                }
+
+                if (prev.isFree() && prev.getPrev() != null) {
+                    if (prev.getPrev().isFree()) {
+                        throw new IllegalStateException("segment.free && segment.prev.free: not merged consecutive segments");
+                    }
+                }
+            }
+
+            seg = next;
+        }
+
+        if (this.used < 0) {
+            throw new IllegalStateException("arena.used < 0: failure to track");
+        } else if (this.used > this.capacity) {
+            throw new IllegalStateException("arena.used > arena.capacity: failure to track");
+        }
+
+        if (this.used != used) {
+            throw new IllegalStateException("arena.used is invalid");
+        }
+    }
+
+    /**
+     * A tree over the lengths of a list of free segments, ordered by their offset, which finds the first segment that
+     * is at least a given length in logarithmic time. This avoids walking the list from the start of the arena for
+     * every segment which is moved during compaction.
+     */
+    private static class FirstFitTree {
+        // The maximum length of the segments below each node, with the leaves starting at index [size]
+        private final int[] nodes;
+        private final int size;
+
+        private FirstFitTree(List<GlBufferSegment> segments) {
+            int size = 1;
+
+            while (size < segments.size()) {
+                size <<= 1;
+            }
+
+            this.size = size;
+            this.nodes = new int[size * 2];
+
+            for (int i = 0; i < segments.size(); i++) {
+                this.nodes[size + i] = segments.get(i).getLength();
+            }
+
+            for (int i = size - 1; i > 0; i--) {
+                this.nodes[i] = Math.max(this.nodes[i * 2], this.nodes[(i * 2) + 1]);
+            }
+        }
+
+        private void set(int index, int length) {
+            int node = this.size + index;
+            this.nodes[node] = length;
+
+            for (node >>= 1; node > 0; node >>= 1) {
+                this.nodes[node] = Math.max(this.nodes[node * 2], this.nodes[(node * 2) + 1]);
+            }
+        }
+
+        /**
+         * @return The index of the first segment before the given limit which is at least the given length, or -1 if
+         * there is none
+         */
+        private int findFirst(int length, int limit) {
+            return this.findFirst(1, 0, this.size, length, limit);
+        }
+
+        private int findFirst(int node, int start, int end, int length, int limit) {
+            if (start >= limit || this.nodes[node] < length) {
+                return -1;
+            }
+
+            if (end - start == 1) {
+                return start;
+            }
+
+            int mid = (start + end) >>> 1;
+            int index = this.findFirst(node * 2, start, mid, length, limit);
+
+            if (index < 0) {
+                index = this.findFirst((node * 2) + 1, mid, end, length, limit);
+            }
+
+            return index;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of the free segments in an arena, so that an allocation can find a segment to fit in without walking
+ * over every segment of the arena.
+ *
+ * <p>Implementations may use the length of a segment as a key, so the allocator must always remove a segment from the
+ * index before changing its length, and add it again afterwards.</p>
+ */
+public interface FreeSegmentIndex {
+    void add(GlBufferSegment segment);
+
+    void remove(GlBufferSegment segment);
+
+    /**
+     * Returns the smallest free segment which is at least the given length, or null if there are none. Implementations
+     * may trade off finding the very smallest segment for speed, but must never return a segment which is too small,
+     * and must always return a segment if any fits.
+     *
+     * @param length The length of the segment to find, which must be positive
+     */
+    @Nullable
+    GlBufferSegment findFree(int length);
+
+    void clear();
+}
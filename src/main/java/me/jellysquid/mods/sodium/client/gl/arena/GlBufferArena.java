@@ -9,112 +9,54 @@ import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class GlBufferArena {
-    static final boolean CHECK_ASSERTIONS = false;
-
     private static final GlBufferUsage BUFFER_USAGE = GlBufferUsage.STATIC_DRAW;
 
+    // The fraction of the arena which must be in use, below which the arena will be compacted and shrunk
+    private static final float SHRINK_THRESHOLD = 0.5f;
+
+    private final int initialCapacity;
     private final int resizeIncrement;
 
     private final StagingBuffer stagingBuffer;
     private GlMutableBuffer arenaBuffer;
 
-    private GlBufferSegment head;
+    // The smaller buffer which the arena is being copied into while it is shrunk, or null if the arena isn't being
+    // shrunk. The copy is spread over several frames, and the arena keeps using its current buffer until it is done.
+    private GlMutableBuffer shrinkBuffer;
+
+    // The number of elements at the start of the arena which have already been copied into the smaller buffer
+    private int shrinkCopiedElements;
 
-    private int capacity;
-    private int used;
+    private final ArenaAllocator allocator;
 
     private final int stride;
 
     public GlBufferArena(CommandList commands, int initialCapacity, int stride, StagingBuffer stagingBuffer) {
-        this.capacity = initialCapacity;
+        this.initialCapacity = initialCapacity;
         this.resizeIncrement = initialCapacity / 16;
 
         this.stride = stride;
 
-        this.head = new GlBufferSegment(this, 0, initialCapacity);
-        this.head.setFree(true);
+        this.allocator = new ArenaAllocator(initialCapacity, new SegregatedFreeSegmentIndex());
 
         this.arenaBuffer = commands.createMutableBuffer();
-        commands.allocateStorage(this.arenaBuffer, this.capacity * stride, BUFFER_USAGE);
+        commands.allocateStorage(this.arenaBuffer, initialCapacity * stride, BUFFER_USAGE);
 
         this.stagingBuffer = stagingBuffer;
     }
 
     private void resize(CommandList commandList, int newCapacity) {
-        if (this.used > newCapacity) {
-            throw new UnsupportedOperationException("New capacity must be larger than used size");
-        }
-
-        this.checkAssertions();
-
-        int tail = newCapacity - this.used;
+        // The arena is being copied into a new buffer anyway, so any copy into a smaller buffer can be abandoned
+        this.cancelShrink(commandList);
 
-        List<GlBufferSegment> usedSegments = this.getUsedSegments();
-        List<PendingBufferCopyCommand> pendingCopies = this.buildTransferList(usedSegments, tail);
+        List<PendingBufferCopyCommand> pendingCopies = this.allocator.resize(newCapacity);
 
         this.transferSegments(commandList, pendingCopies, newCapacity);
-
-        this.head = new GlBufferSegment(this, 0, tail);
-        this.head.setFree(true);
-
-        if (usedSegments.isEmpty()) {
-            this.head.setNext(null);
-        } else {
-            this.head.setNext(usedSegments.get(0));
-            this.head.getNext()
-                    .setPrev(this.head);
-        }
-
-        this.checkAssertions();
-    }
-
-    private List<PendingBufferCopyCommand> buildTransferList(List<GlBufferSegment> usedSegments, int base) {
-        List<PendingBufferCopyCommand> pendingCopies = new ArrayList<>();
-        PendingBufferCopyCommand currentCopyCommand = null;
-
-        int writeOffset = base;
-
-        for (int i = 0; i < usedSegments.size(); i++) {
-            GlBufferSegment s = usedSegments.get(i);
-
-            if (currentCopyCommand == null || currentCopyCommand.readOffset + currentCopyCommand.length != s.getOffset()) {
-                if (currentCopyCommand != null) {
-                    pendingCopies.add(currentCopyCommand);
-                }
-
-                currentCopyCommand = new PendingBufferCopyCommand(s.getOffset(), writeOffset, s.getLength());
-            } else {
-                currentCopyCommand.length += s.getLength();
-            }
-
-            s.setOffset(writeOffset);
-
-            if (i + 1 < usedSegments.size()) {
-                s.setNext(usedSegments.get(i + 1));
-            } else {
-                s.setNext(null);
-            }
-
-            if (i - 1 < 0) {
-                s.setPrev(null);
-            } else {
-                s.setPrev(usedSegments.get(i - 1));
-            }
-
-            writeOffset += s.getLength();
-        }
-
-        if (currentCopyCommand != null) {
-            pendingCopies.add(currentCopyCommand);
-        }
-
-        return pendingCopies;
     }
 
     private void transferSegments(CommandList commandList, Collection<PendingBufferCopyCommand> list, int capacity) {
@@ -133,120 +75,133 @@ public class GlBufferArena {
         commandList.deleteBuffer(srcBufferObj);
 
         this.arenaBuffer = dstBufferObj;
-        this.capacity = capacity;
     }
 
-    private ArrayList<GlBufferSegment> getUsedSegments() {
-        ArrayList<GlBufferSegment> used = new ArrayList<>();
-        GlBufferSegment seg = this.head;
-
-        while (seg != null) {
-            GlBufferSegment next = seg.getNext();
-
-            if (!seg.isFree()) {
-                used.add(seg);
-            }
-
-            seg = next;
+    /**
+     * Performs one step of defragmenting the arena, if enough of the arena is unused that it should be shrunk. Each
+     * step either moves used segments closer to the start of the arena, or once no more segments can be moved, copies
+     * part of the arena into a smaller buffer. Once all of the used space has been copied, the smaller buffer replaces
+     * the arena's buffer. The arena will never shrink below its initial capacity.
+     *
+     * <p>If any segments were moved, or the buffer object was replaced, the offsets of any segments in this arena
+     * will need to be updated by the caller. This isn't needed while the arena is still being copied into the smaller
+     * buffer, see {@link #isShrinking()}.</p>
+     *
+     * @param maxBytes The maximum number of bytes which should be copied
+     * @return The number of bytes which were copied, or zero if the arena was not changed
+     */
+    public int defragment(CommandList commandList, int maxBytes) {
+        int maxElements = maxBytes / this.stride;
+
+        if (this.shrinkBuffer != null) {
+            return this.continueShrink(commandList, maxElements) * this.stride;
         }
 
-        return used;
-    }
+        int capacity = this.allocator.getCapacity();
 
-    public int getDeviceUsedMemory() {
-        return this.used * this.stride;
-    }
-
-    public int getDeviceAllocatedMemory() {
-        return this.capacity * this.stride;
-    }
-
-    private GlBufferSegment alloc(int size) {
-        GlBufferSegment a = this.findFree(size);
-
-        if (a == null) {
-            return null;
+        if (capacity <= this.initialCapacity || this.allocator.getUsed() >= capacity * SHRINK_THRESHOLD) {
+            return 0;
         }
 
-        GlBufferSegment result;
+        List<PendingBufferCopyCommand> pendingCopies = this.allocator.compact(maxElements);
 
-        if (a.getLength() == size) {
-            a.setFree(false);
+        if (!pendingCopies.isEmpty()) {
+            int copiedElements = 0;
 
-            result = a;
-        } else {
-            GlBufferSegment b = new GlBufferSegment(this, a.getEnd() - size, size);
-            b.setNext(a.getNext());
-            b.setPrev(a);
+            // The segments are only ever moved into free space, so the source and destination never overlap
+            for (PendingBufferCopyCommand cmd : pendingCopies) {
+                commandList.copyBufferSubData(this.arenaBuffer, this.arenaBuffer,
+                        cmd.readOffset * this.stride,
+                        cmd.writeOffset * this.stride,
+                        cmd.length * this.stride);
 
-            if (b.getNext() != null) {
-                b.getNext()
-                        .setPrev(b);
+                copiedElements += cmd.length;
             }
 
-            a.setLength(a.getLength() - size);
-            a.setNext(b);
-
-            result = b;
+            return copiedElements * this.stride;
         }
 
-        this.used += result.getLength();
-        this.checkAssertions();
+        // No more segments can be moved, so release the free space at the end (keeping some space for new uploads)
+        int usedEnd = this.allocator.getUsedEnd();
+        int newCapacity = Math.max(this.initialCapacity, usedEnd + this.resizeIncrement);
 
-        return result;
-    }
+        if (newCapacity >= capacity) {
+            return 0;
+        }
 
-    private GlBufferSegment findFree(int size) {
-        GlBufferSegment entry = this.head;
-        GlBufferSegment best = null;
-
-        while (entry != null) {
-            if (entry.isFree()) {
-                if (entry.getLength() == size) {
-                    return entry;
-                } else if (entry.getLength() >= size) {
-                    if (best == null || best.getLength() > entry.getLength()) {
-                        best = entry;
-                    }
-                }
-            }
+        // Nothing will be allocated past the new capacity from now on, so the current buffer can keep being used while
+        // the used space is copied into the smaller buffer
+        this.allocator.truncate(newCapacity);
 
-            entry = entry.getNext();
-        }
+        this.shrinkBuffer = commandList.createMutableBuffer();
+        this.shrinkCopiedElements = 0;
+
+        commandList.allocateStorage(this.shrinkBuffer, newCapacity * this.stride, BUFFER_USAGE);
 
-        return best;
+        return this.continueShrink(commandList, maxElements) * this.stride;
     }
 
-    public void free(GlBufferSegment entry) {
-        if (entry.isFree()) {
-            throw new IllegalStateException("Already freed");
+    /**
+     * Copies the next part of the used space into the smaller buffer, and replaces the arena's buffer with it once all
+     * of the used space has been copied.
+     *
+     * @return The number of elements which were copied
+     */
+    private int continueShrink(CommandList commandList, int maxElements) {
+        // Segments may have been allocated or freed since the last step, so the end of the used space can move
+        int usedEnd = this.allocator.getUsedEnd();
+        int length = Math.max(0, Math.min(maxElements, usedEnd - this.shrinkCopiedElements));
+
+        if (length > 0) {
+            commandList.copyBufferSubData(this.arenaBuffer, this.shrinkBuffer,
+                    this.shrinkCopiedElements * this.stride,
+                    this.shrinkCopiedElements * this.stride,
+                    length * this.stride);
+
+            this.shrinkCopiedElements += length;
         }
 
-        entry.setFree(true);
+        if (this.shrinkCopiedElements >= usedEnd) {
+            commandList.deleteBuffer(this.arenaBuffer);
 
-        this.used -= entry.getLength();
+            this.arenaBuffer = this.shrinkBuffer;
+            this.shrinkBuffer = null;
+        }
 
-        GlBufferSegment next = entry.getNext();
+        return length;
+    }
 
-        if (next != null && next.isFree()) {
-            entry.mergeInto(next);
+    private void cancelShrink(CommandList commandList) {
+        if (this.shrinkBuffer != null) {
+            commandList.deleteBuffer(this.shrinkBuffer);
+            this.shrinkBuffer = null;
         }
+    }
 
-        GlBufferSegment prev = entry.getPrev();
+    /**
+     * Returns whether the arena is still being copied into a smaller buffer. Until it is done, the arena's buffer and
+     * the offsets of its segments don't change.
+     */
+    public boolean isShrinking() {
+        return this.shrinkBuffer != null;
+    }
 
-        if (prev != null && prev.isFree()) {
-            prev.mergeInto(entry);
-        }
+    public int getDeviceUsedMemory() {
+        return this.allocator.getUsed() * this.stride;
+    }
 
-        this.checkAssertions();
+    public int getDeviceAllocatedMemory() {
+        return this.allocator.getCapacity() * this.stride;
     }
 
     public void delete(CommandList commands) {
+        this.cancelShrink(commands);
+
         commands.deleteBuffer(this.arenaBuffer);
     }
 
     public boolean isEmpty() {
-        return this.used <= 0;
+        return this.allocator.isEmpty();
     }
 
     public GlBuffer getBufferObject() {
@@ -258,8 +213,8 @@ public class GlBufferArena {
         // If the arena needs to re-allocate a buffer, this will allow us to check and return an appropriate flag
         GlBuffer buffer = this.arenaBuffer;
 
-        // A linked list is used as we'll be randomly removing elements and want O(1) performance
-        List<PendingUpload> queue = stream.collect(Collectors.toCollection(LinkedList::new));
+        List<PendingUpload> queue = stream.collect(Collectors.toCollection(ArrayList::new));
+        List<PendingUpload> uploads = this.shrinkBuffer != null ? new ArrayList<>(queue) : null;
 
         // Try to upload all of the data into free segments first
         this.tryUploads(commandList, queue);
@@ -285,9 +240,30 @@ public class GlBufferArena {
             }
         }
 
+        if (this.shrinkBuffer != null) {
+            this.copyUploadsToShrinkBuffer(commandList, uploads);
+        }
+
         return this.arenaBuffer != buffer;
     }
 
+    // Any uploads into the part of the arena which was already copied into the smaller buffer need to be copied again
+    private void copyUploadsToShrinkBuffer(CommandList commandList, List<PendingUpload> uploads) {
+        for (PendingUpload upload : uploads) {
+            GlBufferSegment segment = upload.getResult();
+
+            int start = segment.getOffset();
+            int end = Math.min(segment.getEnd(), this.shrinkCopiedElements);
+
+            if (start < end) {
+                commandList.copyBufferSubData(this.arenaBuffer, this.shrinkBuffer,
+                        start * this.stride,
+                        start * this.stride,
+                        (end - start) * this.stride);
+            }
+        }
+    }
+
     private void tryUploads(CommandList commandList, List<PendingUpload> queue) {
         queue.removeIf(upload -> this.tryUpload(commandList, upload));
         this.stagingBuffer.flush(commandList);
@@ -299,7 +275,7 @@ public class GlBufferArena {
 
         int elementCount = data.remaining() / this.stride;
 
-        GlBufferSegment dst = this.alloc(elementCount);
+        GlBufferSegment dst = this.allocator.alloc(elementCount);
 
         if (dst == null) {
             return false;
@@ -317,77 +293,10 @@ public class GlBufferArena {
         // Re-sizing the arena results in a compaction, so any free space in the arena will be
         // made into one contiguous segment, joined with the new segment of free space we're asking for
         // We calculate the number of free elements in our arena and then subtract that from the total requested
-        int elementsNeeded = elementCount - (this.capacity - this.used);
+        int capacity = this.allocator.getCapacity();
+        int elementsNeeded = elementCount - (capacity - this.allocator.getUsed());
 
         // Try to allocate some extra buffer space unless this is an unusually large allocation
-        this.resize(commandList, Math.max(this.capacity + this.resizeIncrement, this.capacity + elementsNeeded));
-    }
-
-    private void checkAssertions() {
-        if (CHECK_ASSERTIONS) {
-            this.checkAssertions0();
-        }
+        this.resize(commandList, Math.max(capacity + this.resizeIncrement, capacity + elementsNeeded));
     }
-
-    private void checkAssertions0() {
-        GlBufferSegment seg = this.head;
-        int used = 0;
-
-        while (seg != null) {
-            if (seg.getOffset() < 0) {
-                throw new IllegalStateException("segment.start < 0: out of bounds");
-            } else if (seg.getEnd() > this.capacity) {
-                throw new IllegalStateException("segment.end > arena.capacity: out of bounds");
-            }
-
-            if (!seg.isFree()) {
-                used += seg.getLength();
-            }
-
-            GlBufferSegment next = seg.getNext();
-
-            if (next != null) {
-                if (next.getOffset() < seg.getEnd()) {
-                    throw new IllegalStateException("segment.next.start < segment.end: overlapping segments (corrupted)");
-                } else if (next.getOffset() > seg.getEnd()) {
-                    throw new IllegalStateException("segment.next.start > segment.end: not truly connected (sparsity error)");
-                }
-
-                if (next.isFree() && next.getNext() != null) {
-                    if (next.getNext().isFree()) {
-                        throw new IllegalStateException("segment.free && segment.next.free: not merged consecutive segments");
-                    }
-                }
-            }
-
-            GlBufferSegment prev = seg.getPrev();
-
-            if (prev != null) {
-                if (prev.getEnd() > seg.getOffset()) {
-                    throw new IllegalStateException("segment.prev.end > segment.start: overlapping segments (corrupted)");
-                } else if (prev.getEnd() < seg.getOffset()) {
-                    throw new IllegalStateException("segment.prev.end < segment.start: not truly connected (sparsity error)");
-                }
-
-                if (prev.isFree() && prev.getPrev() != null) {
-                    if (prev.getPrev().isFree()) {
-                        throw new IllegalStateException("segment.free && segment.prev.free: not merged consecutive segments");
-                    }
-                }
-            }
-
-            seg = next;
-        }
-
-        if (this.used < 0) {
-            throw new IllegalStateException("arena.used < 0: failure to track");
-        } else if (this.used > this.capacity) {
-            throw new IllegalStateException("arena.used > arena.capacity: failure to track");
-        }
-
-        if (this.used != used) {
-            throw new IllegalStateException("arena.used is invalid");
-        }
-    }
-
 }
@@ -1,7 +1,7 @@
 package me.jellysquid.mods.sodium.client.gl.arena;
 
 public class GlBufferSegment {
-    private final GlBufferArena arena;
+    private final ArenaAllocator allocator;
 
     private boolean free = false;
 
@@ -11,14 +11,14 @@ public class GlBufferSegment {
     private GlBufferSegment next;
     private GlBufferSegment prev;
 
-    public GlBufferSegment(GlBufferArena arena, int offset, int length) {
-        this.arena = arena;
+    public GlBufferSegment(ArenaAllocator allocator, int offset, int length) {
+        this.allocator = allocator;
         this.offset = offset;
         this.length = length;
     }
 
     public void delete() {
-        this.arena.free(this);
+        this.allocator.free(this);
     }
 
     protected int getEnd() {
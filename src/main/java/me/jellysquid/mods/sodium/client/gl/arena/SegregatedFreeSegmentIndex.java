@@ -0,0 +1,102 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Sorts free segments into size classes, where each class holds the segments with a length between two consecutive
+ * powers of two. An allocation only needs to search the class its length falls into, and if nothing fits there, any
+ * segment in the next non-empty class is guaranteed to fit.
+ *
+ * <p>This doesn't always find the best fit. The segment returned is the first one which fits in the smallest size
+ * class that has any, so it is at most twice as long as the best fit. In exchange, the search stops at the first
+ * segment which fits. If the length is a power of two, or the class of its length has no segment which fits, this is
+ * always the first segment which is looked at.</p>
+ */
+public class SegregatedFreeSegmentIndex implements FreeSegmentIndex {
+    private static final int CLASS_COUNT = Integer.SIZE;
+
+    @SuppressWarnings("unchecked")
+    private final ReferenceLinkedOpenHashSet<GlBufferSegment>[] classes = new ReferenceLinkedOpenHashSet[CLASS_COUNT];
+
+    // Bit N is set if size class N contains any segments
+    private long nonEmptyClasses;
+
+    public SegregatedFreeSegmentIndex() {
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            this.classes[i] = new ReferenceLinkedOpenHashSet<>();
+        }
+    }
+
+    @Override
+    public void add(GlBufferSegment segment) {
+        int sizeClass = getSizeClass(segment.getLength());
+
+        this.classes[sizeClass].add(segment);
+        this.nonEmptyClasses |= 1L << sizeClass;
+    }
+
+    @Override
+    public void remove(GlBufferSegment segment) {
+        int sizeClass = getSizeClass(segment.getLength());
+        var segments = this.classes[sizeClass];
+
+        if (!segments.remove(segment)) {
+            throw new IllegalStateException("Segment is not in the index");
+        }
+
+        if (segments.isEmpty()) {
+            this.nonEmptyClasses &= ~(1L << sizeClass);
+        }
+    }
+
+    @Override
+    public @Nullable GlBufferSegment findFree(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length must be positive");
+        }
+
+        int sizeClass = getSizeClass(length);
+
+        // The segments in the same class might be shorter than the requested length
+        GlBufferSegment segment = findFirstFit(this.classes[sizeClass], length);
+
+        if (segment != null) {
+            return segment;
+        }
+
+        long largerClasses = this.nonEmptyClasses & (-1L << (sizeClass + 1));
+
+        if (largerClasses == 0L) {
+            return null;
+        }
+
+        // Every segment in a larger class is long enough, so the first one is taken
+        return this.classes[Long.numberOfTrailingZeros(largerClasses)].first();
+    }
+
+    @Nullable
+    private static GlBufferSegment findFirstFit(ReferenceLinkedOpenHashSet<GlBufferSegment> segments, int length) {
+        for (var segment : segments) {
+            if (segment.getLength() >= length) {
+                return segment;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        for (var segments : this.classes) {
+            segments.clear();
+        }
+
+        this.nonEmptyClasses = 0L;
+    }
+
+    // The length must be positive, since there is no size class for empty segments
+    static int getSizeClass(int length) {
+        return (Integer.SIZE - 1) - Integer.numberOfLeadingZeros(length);
+    }
+}
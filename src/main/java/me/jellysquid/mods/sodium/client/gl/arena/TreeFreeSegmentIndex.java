@@ -0,0 +1,54 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import it.unimi.dsi.fastutil.ints.Int2ReferenceRBTreeMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the free segments in a balanced tree keyed by their length, which always finds the best fit for an
+ * allocation in logarithmic time. Segments of the same length share a node in the tree.
+ */
+public class TreeFreeSegmentIndex implements FreeSegmentIndex {
+    private final Int2ReferenceRBTreeMap<ReferenceLinkedOpenHashSet<GlBufferSegment>> segmentsByLength = new Int2ReferenceRBTreeMap<>();
+
+    @Override
+    public void add(GlBufferSegment segment) {
+        var segments = this.segmentsByLength.get(segment.getLength());
+
+        if (segments == null) {
+            this.segmentsByLength.put(segment.getLength(), segments = new ReferenceLinkedOpenHashSet<>());
+        }
+
+        segments.add(segment);
+    }
+
+    @Override
+    public void remove(GlBufferSegment segment) {
+        var segments = this.segmentsByLength.get(segment.getLength());
+
+        if (segments == null || !segments.remove(segment)) {
+            throw new IllegalStateException("Segment is not in the index");
+        }
+
+        if (segments.isEmpty()) {
+            this.segmentsByLength.remove(segment.getLength());
+        }
+    }
+
+    @Override
+    public @Nullable GlBufferSegment findFree(int length) {
+        var candidates = this.segmentsByLength.tailMap(length);
+
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        return candidates.get(candidates.firstIntKey())
+                .first();
+    }
+
+    @Override
+    public void clear() {
+        this.segmentsByLength.clear();
+    }
+}
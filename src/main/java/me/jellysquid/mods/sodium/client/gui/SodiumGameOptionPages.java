@@ -252,6 +252,15 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_adaptive_chunk_update_threads.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_adaptive_chunk_update_threads.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.useAdaptiveChunkBuilderThreads = value, opts -> opts.performance.useAdaptiveChunkBuilderThreads)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(Text.translatable("sodium.options.always_defer_chunk_updates.name"))
                         .setTooltip(Text.translatable("sodium.options.always_defer_chunk_updates.tooltip"))
@@ -273,6 +282,24 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_translucent_face_sorting.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_translucent_face_sorting.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.performance.useTranslucentFaceSorting = value, opts -> opts.performance.useTranslucentFaceSorting)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_greedy_meshing.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_greedy_meshing.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.useGreedyMeshing = value, opts -> opts.performance.useGreedyMeshing)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(Text.translatable("sodium.options.use_fog_occlusion.name"))
                         .setTooltip(Text.translatable("sodium.options.use_fog_occlusion.tooltip"))
@@ -282,6 +309,33 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_fluid_occlusion.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_fluid_occlusion.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.performance.useFluidOcclusion = value, opts -> opts.performance.useFluidOcclusion)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_incremental_occlusion_culling.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_incremental_occlusion_culling.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.performance.useIncrementalOcclusionCulling = value, opts -> opts.performance.useIncrementalOcclusionCulling)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_parallel_occlusion_culling.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_parallel_occlusion_culling.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setBinding((opts, value) -> opts.performance.useParallelOcclusionCulling = value, opts -> opts.performance.useParallelOcclusionCulling)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
                 .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
                         .setName(Text.translatable("sodium.options.use_entity_culling.name"))
                         .setTooltip(Text.translatable("sodium.options.use_entity_culling.tooltip"))
@@ -333,6 +387,23 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_geometry_defragmentation.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_geometry_defragmentation.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.advanced.useGeometryDefragmentation = value, opts -> opts.advanced.useGeometryDefragmentation)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.use_shared_geometry_pool.name"))
+                        .setTooltip(Text.translatable("sodium.options.use_shared_geometry_pool.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.advanced.useSharedGeometryPool = value, opts -> opts.advanced.useSharedGeometryPool)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .build());
 
         groups.add(OptionGroup.createBuilder()
@@ -343,6 +414,15 @@ public class SodiumGameOptionPages {
                         .setBinding((opts, value) -> opts.advanced.cpuRenderAheadLimit = value, opts -> opts.advanced.cpuRenderAheadLimit)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Text.translatable("sodium.options.section_cache_memory_limit.name"))
+                        .setTooltip(Text.translatable("sodium.options.section_cache_memory_limit.tooltip"))
+                        .setControl(opt -> new SliderControl(opt, 16, 256, 16, ControlValueFormatter.translateVariable("sodium.options.section_cache_memory_limit.value")))
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.advanced.sectionCacheMemoryLimit = value, opts -> opts.advanced.sectionCacheMemoryLimit)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .build());
 
         return new OptionPage(Text.translatable("sodium.options.pages.advanced"), ImmutableList.copyOf(groups));
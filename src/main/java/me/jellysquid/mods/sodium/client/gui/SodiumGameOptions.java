@@ -37,21 +37,30 @@ public class SodiumGameOptions {
 
     public static class PerformanceSettings {
         public int chunkBuilderThreads = 0;
+        public boolean useAdaptiveChunkBuilderThreads = true;
         @SerializedName("always_defer_chunk_updates_v2") // this will reset the option in older configs
         public boolean alwaysDeferChunkUpdates = true;
 
         public boolean animateOnlyVisibleTextures = true;
         public boolean useEntityCulling = true;
         public boolean useFogOcclusion = true;
+        public boolean useFluidOcclusion = false;
+        public boolean useIncrementalOcclusionCulling = true;
+        public boolean useParallelOcclusionCulling = false;
         public boolean useBlockFaceCulling = true;
+        public boolean useTranslucentFaceSorting = true;
+        public boolean useGreedyMeshing = false;
         public boolean useNoErrorGLContext = true;
     }
 
     public static class AdvancedSettings {
         public boolean enableMemoryTracing = false;
         public boolean useAdvancedStagingBuffers = true;
+        public boolean useGeometryDefragmentation = true;
+        public boolean useSharedGeometryPool = false;
 
         public int cpuRenderAheadLimit = 3;
+        public int sectionCacheMemoryLimit = 32;
     }
 
     public static class QualitySettings {
@@ -1,55 +1,120 @@
 package me.jellysquid.mods.sodium.client.model.light.data;
 
+import it.unimi.dsi.fastutil.longs.Long2ReferenceLinkedOpenHashMap;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSection;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.BlockRenderView;
 
 import java.util.Arrays;
 
 /**
- * A light data cache which uses a flat-array to store the light data for the blocks in a given chunk and its direct
+ * A light data cache which uses flat arrays to store the light data for the blocks in a given chunk and its direct
  * neighbors. This is considerably faster than using a hash table to lookup values for a given block position and
  * can be re-used by {@link WorldSlice} to avoid allocations.
+ *
+ * <p>The light data of a block only depends on its block state and light levels, which are fixed for a given snapshot
+ * of the section containing it. Each section snapshot is given its own array of light data, which is kept after the
+ * build has finished, so that rebuilding the same section or building one of its neighbours can re-use the light data
+ * which was already computed. Since the snapshot of a section is replaced whenever its blocks or light change, stale
+ * light data is never used.</p>
+ *
+ * <p>The arrays are keyed by the version of each snapshot, rather than the snapshot itself, so that the cache never
+ * keeps snapshots alive after the section cache has evicted them.</p>
+ *
+ * <p>Each worker thread has its own cache, so the arrays are never accessed concurrently.</p>
  */
 public class ArrayLightDataCache extends LightDataAccess {
-    private static final int NEIGHBOR_BLOCK_RADIUS = 2;
-    private static final int BLOCK_LENGTH = 16 + (NEIGHBOR_BLOCK_RADIUS * 2);
+    private static final int NEIGHBOR_SECTION_RADIUS = 1;
+    private static final int SECTION_ARRAY_LENGTH = 1 + (NEIGHBOR_SECTION_RADIUS * 2);
 
-    private final int[] light;
+    private static final int SECTION_BLOCK_COUNT = 16 * 16 * 16;
 
-    private int xOffset, yOffset, zOffset;
+    // The number of section snapshots to keep light data for, which uses 16 KiB of memory for each section. This is
+    // the number of sections used by one build, which is enough for the next build of the same section or one of
+    // its neighbors to find most of the light data it needs.
+    private static final int MAX_CACHED_SECTIONS = SECTION_ARRAY_LENGTH * SECTION_ARRAY_LENGTH * SECTION_ARRAY_LENGTH;
+
+    private final Long2ReferenceLinkedOpenHashMap<int[]> sectionLightData = new Long2ReferenceLinkedOpenHashMap<>();
+
+    // The light data arrays for the sections of the current build, indexed by WorldSlice#getLocalSectionIndex
+    private final int[][] sections = new int[SECTION_ARRAY_LENGTH * SECTION_ARRAY_LENGTH * SECTION_ARRAY_LENGTH][];
+
+    private int minSectionX, minSectionY, minSectionZ;
+
+    // The volume of blocks which have been copied into the world slice, outside which light data can't be cached
+    private int minX, minY, minZ;
+    private int maxX, maxY, maxZ;
 
     public ArrayLightDataCache(BlockRenderView world) {
         this.world = world;
-        this.light = new int[BLOCK_LENGTH * BLOCK_LENGTH * BLOCK_LENGTH];
     }
 
-    public void reset(ChunkSectionPos origin) {
-        this.xOffset = origin.getMinX() - NEIGHBOR_BLOCK_RADIUS;
-        this.yOffset = origin.getMinY() - NEIGHBOR_BLOCK_RADIUS;
-        this.zOffset = origin.getMinZ() - NEIGHBOR_BLOCK_RADIUS;
+    public void reset(ChunkRenderContext context) {
+        ChunkSectionPos origin = context.getOrigin();
+
+        this.minSectionX = origin.getX() - NEIGHBOR_SECTION_RADIUS;
+        this.minSectionY = origin.getY() - NEIGHBOR_SECTION_RADIUS;
+        this.minSectionZ = origin.getZ() - NEIGHBOR_SECTION_RADIUS;
+
+        BlockBox volume = context.getVolume();
+
+        this.minX = volume.getMinX();
+        this.minY = volume.getMinY();
+        this.minZ = volume.getMinZ();
+
+        this.maxX = volume.getMaxX();
+        this.maxY = volume.getMaxY();
+        this.maxZ = volume.getMaxZ();
+
+        ClonedChunkSection[] sections = context.getSections();
 
-        Arrays.fill(this.light, 0);
+        for (int i = 0; i < sections.length; i++) {
+            this.sections[i] = this.getLightDataArray(sections[i]);
+        }
     }
 
-    private int index(int x, int y, int z) {
-        int x2 = x - this.xOffset;
-        int y2 = y - this.yOffset;
-        int z2 = z - this.zOffset;
+    private int[] getLightDataArray(ClonedChunkSection section) {
+        long version = section.getVersion();
+        int[] array = this.sectionLightData.getAndMoveToLast(version);
+
+        if (array == null) {
+            if (this.sectionLightData.size() >= MAX_CACHED_SECTIONS) {
+                array = this.sectionLightData.removeFirst();
+            } else {
+                array = new int[SECTION_BLOCK_COUNT];
+            }
+
+            // Arrays which are re-used still contain the light data of another snapshot
+            Arrays.fill(array, 0);
+
+            this.sectionLightData.putAndMoveToLast(version, array);
+        }
 
-        return (z2 * BLOCK_LENGTH * BLOCK_LENGTH) + (y2 * BLOCK_LENGTH) + x2;
+        return array;
     }
 
     @Override
     public int get(int x, int y, int z) {
-        int l = this.index(x, y, z);
+        // The world slice does not hold the correct blocks outside its volume, so the light data computed for them must
+        // not be kept for other builds
+        if (x < this.minX || y < this.minY || z < this.minZ || x > this.maxX || y > this.maxY || z > this.maxZ) {
+            return this.compute(x, y, z);
+        }
+
+        int[] array = this.sections[WorldSlice.getLocalSectionIndex((x >> 4) - this.minSectionX,
+                (y >> 4) - this.minSectionY, (z >> 4) - this.minSectionZ)];
+
+        int l = WorldSlice.getLocalBlockIndex(x & 15, y & 15, z & 15);
 
-        int word = this.light[l];
+        int word = array[l];
 
         if (word != 0) {
             return word;
         }
 
-        return this.light[l] = this.compute(x, y, z);
+        return array[l] = this.compute(x, y, z);
     }
-}
\ No newline at end of file
+}
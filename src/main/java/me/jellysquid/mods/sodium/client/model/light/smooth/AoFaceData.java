@@ -8,12 +8,24 @@ import net.minecraft.util.math.Direction;
 import static me.jellysquid.mods.sodium.client.model.light.data.ArrayLightDataCache.*;
 
 class AoFaceData {
+    // The two edges of the face which each corner lies between, numbered in the same order as the faces of
+    // AoNeighborInfo. The order of each pair matches the order in which the light values of a corner are summed.
+    private static final int[] CORNER_EDGE_A = { 3, 2, 2, 3 };
+    private static final int[] CORNER_EDGE_B = { 0, 0, 1, 1 };
+
     public final int[] lm = new int[4];
 
     public final float[] ao = new float[4];
     public final float[] bl = new float[4];
     public final float[] sl = new float[4];
 
+    // Scratch arrays for the light data of the blocks beside each edge and corner of the face
+    private final int[] edgeLm = new int[4];
+    private final float[] edgeAo = new float[4];
+
+    private final int[] cornerLm = new int[4];
+    private final float[] cornerAo = new float[4];
+
     private int flags;
 
     public void initLightData(LightDataAccess cache, BlockPos pos, Direction direction, boolean offset) {
@@ -53,104 +65,59 @@ class AoFaceData {
 
         Direction[] faces = AoNeighborInfo.get(direction).faces;
 
-        final int e0 = cache.get(adjX, adjY, adjZ, faces[0]);
-        final int e0lm = getLightmap(e0);
-        final float e0ao = unpackAO(e0);
-        final boolean e0op = unpackOP(e0);
-        final boolean e0em = unpackEM(e0);
-
-        final int e1 = cache.get(adjX, adjY, adjZ, faces[1]);
-        final int e1lm = getLightmap(e1);
-        final float e1ao = unpackAO(e1);
-        final boolean e1op = unpackOP(e1);
-        final boolean e1em = unpackEM(e1);
-
-        final int e2 = cache.get(adjX, adjY, adjZ, faces[2]);
-        final int e2lm = getLightmap(e2);
-        final float e2ao = unpackAO(e2);
-        final boolean e2op = unpackOP(e2);
-        final boolean e2em = unpackEM(e2);
-
-        final int e3 = cache.get(adjX, adjY, adjZ, faces[3]);
-        final int e3lm = getLightmap(e3);
-        final float e3ao = unpackAO(e3);
-        final boolean e3op = unpackOP(e3);
-        final boolean e3em = unpackEM(e3);
-
-        // If neither edge of a corner is occluded, then use the light
-        final int c0lm;
-        final float c0ao;
-        final boolean c0em;
-
-        if (e2op && e0op) {
-            c0lm = e0lm;
-            c0ao = e0ao;
-            c0em = e0em;
-        } else {
-            int d0 = cache.get(adjX, adjY, adjZ, faces[0], faces[2]);
-            c0lm = getLightmap(d0);
-            c0ao = unpackAO(d0);
-            c0em = unpackEM(d0);
-        }
+        // The light data of the blocks beside each edge of the face, and then beside each corner of the face, is
+        // gathered into small arrays first, so that each corner can be computed by the same loop
+        final int[] edgeLm = this.edgeLm;
+        final float[] edgeAo = this.edgeAo;
 
-        final int c1lm;
-        final float c1ao;
-        final boolean c1em;
+        int edgeOp = 0;
+        int edgeEm = 0;
 
-        if (e3op && e0op) {
-            c1lm = e0lm;
-            c1ao = e0ao;
-            c1em = e0em;
-        } else {
-            int d1 = cache.get(adjX, adjY, adjZ, faces[0], faces[3]);
-            c1lm = getLightmap(d1);
-            c1ao = unpackAO(d1);
-            c1em = unpackEM(d1);
-        }
+        for (int i = 0; i < 4; i++) {
+            final int word = cache.get(adjX, adjY, adjZ, faces[i]);
 
-        final int c2lm;
-        final float c2ao;
-        final boolean c2em;
+            edgeLm[i] = getLightmap(word);
+            edgeAo[i] = unpackAO(word);
 
-        if (e2op && e1op) {
-            // FIX: Use e1 instead of e0 to fix lighting errors in some directions
-            c2lm = e1lm;
-            c2ao = e1ao;
-            c2em = e1em;
-        } else {
-            int d2 = cache.get(adjX, adjY, adjZ, faces[1], faces[2]);
-            c2lm = getLightmap(d2);
-            c2ao = unpackAO(d2);
-            c2em = unpackEM(d2);
+            edgeOp |= (unpackOP(word) ? 1 : 0) << i;
+            edgeEm |= (unpackEM(word) ? 1 : 0) << i;
         }
 
-        final int c3lm;
-        final float c3ao;
-        final boolean c3em;
+        final int[] cornerLm = this.cornerLm;
+        final float[] cornerAo = this.cornerAo;
 
-        if (e3op && e1op) {
-            // FIX: Use e1 instead of e0 to fix lighting errors in some directions
-            c3lm = e1lm;
-            c3ao = e1ao;
-            c3em = e1em;
-        } else {
-            int d3 = cache.get(adjX, adjY, adjZ, faces[1], faces[3]);
-            c3lm = getLightmap(d3);
-            c3ao = unpackAO(d3);
-            c3em = unpackEM(d3);
+        int cornerEm = 0;
+
+        for (int i = 0; i < 4; i++) {
+            final int a = CORNER_EDGE_A[i];
+            final int b = CORNER_EDGE_B[i];
+
+            // If both edges of a corner are occluded, then use the light of the edge in place of the corner
+            // FIX: Use e1 instead of e0 for the corners beside e1 to fix lighting errors in some directions
+            if (((edgeOp >> a) & (edgeOp >> b) & 1) != 0) {
+                cornerLm[i] = edgeLm[b];
+                cornerAo[i] = edgeAo[b];
+                cornerEm |= ((edgeEm >> b) & 1) << i;
+            } else {
+                final int word = cache.get(adjX, adjY, adjZ, faces[b], faces[a]);
+
+                cornerLm[i] = getLightmap(word);
+                cornerAo[i] = unpackAO(word);
+                cornerEm |= (unpackEM(word) ? 1 : 0) << i;
+            }
         }
 
-        float[] ao = this.ao;
-        ao[0] = (e3ao + e0ao + c1ao + caao) * 0.25f;
-        ao[1] = (e2ao + e0ao + c0ao + caao) * 0.25f;
-        ao[2] = (e2ao + e1ao + c2ao + caao) * 0.25f;
-        ao[3] = (e3ao + e1ao + c3ao + caao) * 0.25f;
+        final float[] ao = this.ao;
+        final int[] lm = this.lm;
 
-        int[] cb = this.lm;
-        cb[0] = calculateCornerBrightness(e3lm, e0lm, c1lm, calm, e3em, e0em, c1em, caem);
-        cb[1] = calculateCornerBrightness(e2lm, e0lm, c0lm, calm, e2em, e0em, c0em, caem);
-        cb[2] = calculateCornerBrightness(e2lm, e1lm, c2lm, calm, e2em, e1em, c2em, caem);
-        cb[3] = calculateCornerBrightness(e3lm, e1lm, c3lm, calm, e3em, e1em, c3em, caem);
+        for (int i = 0; i < 4; i++) {
+            final int a = CORNER_EDGE_A[i];
+            final int b = CORNER_EDGE_B[i];
+
+            ao[i] = (edgeAo[a] + edgeAo[b] + cornerAo[i] + caao) * 0.25f;
+            lm[i] = calculateCornerBrightness(edgeLm[a], edgeLm[b], cornerLm[i], calm,
+                    ((edgeEm >> a) & 1) != 0, ((edgeEm >> b) & 1) != 0, ((cornerEm >> i) & 1) != 0, caem);
+        }
 
         this.flags |= AoCompletionFlags.HAS_LIGHT_DATA;
     }
@@ -161,15 +128,10 @@ class AoFaceData {
         float[] bl = this.bl;
         float[] sl = this.sl;
 
-        bl[0] = unpackBlockLight(lm[0]);
-        bl[1] = unpackBlockLight(lm[1]);
-        bl[2] = unpackBlockLight(lm[2]);
-        bl[3] = unpackBlockLight(lm[3]);
-
-        sl[0] = unpackSkyLight(lm[0]);
-        sl[1] = unpackSkyLight(lm[1]);
-        sl[2] = unpackSkyLight(lm[2]);
-        sl[3] = unpackSkyLight(lm[3]);
+        for (int i = 0; i < 4; i++) {
+            bl[i] = unpackBlockLight(lm[i]);
+            sl[i] = unpackSkyLight(lm[i]);
+        }
 
         this.flags |= AoCompletionFlags.HAS_UNPACKED_LIGHT_DATA;
     }
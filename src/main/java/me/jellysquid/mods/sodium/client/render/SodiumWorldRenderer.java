@@ -7,6 +7,7 @@ import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderMatrices;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSectionManager;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionMeshCells;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderList;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.SortedRenderLists;
 import me.jellysquid.mods.sodium.client.render.chunk.map.ChunkTracker;
@@ -426,10 +427,24 @@ public class SodiumWorldRenderer {
     }
 
     /**
-     * Schedules chunk rebuilds for all chunks in the specified block region.
+     * Schedules chunk rebuilds for all chunks in the specified block region. Only the cells of each chunk which intersect
+     * the region are marked as changed, which allows chunks to be partially rebuilt.
      */
     public void scheduleRebuildForBlockArea(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean important) {
-        this.scheduleRebuildForChunks(minX >> 4, minY >> 4, minZ >> 4, maxX >> 4, maxY >> 4, maxZ >> 4, important);
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkY = minY >> 4; chunkY <= maxY >> 4; chunkY++) {
+                for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                    int originX = chunkX << 4;
+                    int originY = chunkY << 4;
+                    int originZ = chunkZ << 4;
+
+                    long cells = SectionMeshCells.getCellMask(minX - originX, minY - originY, minZ - originZ,
+                            maxX - originX, maxY - originY, maxZ - originZ);
+
+                    this.renderSectionManager.scheduleRebuild(chunkX, chunkY, chunkZ, cells, important);
+                }
+            }
+        }
     }
 
     /**
@@ -1,14 +1,16 @@
 package me.jellysquid.mods.sodium.client.render.chunk;
 
 public enum ChunkUpdateType {
-    INITIAL_BUILD(128),
-    REBUILD(Integer.MAX_VALUE),
-    IMPORTANT_REBUILD(Integer.MAX_VALUE);
+    INITIAL_BUILD(128, 1),
+    REBUILD(Integer.MAX_VALUE, 1),
+    IMPORTANT_REBUILD(Integer.MAX_VALUE, 0);
 
     private final int maximumQueueSize;
+    private final int priority;
 
-    ChunkUpdateType(int maximumQueueSize) {
+    ChunkUpdateType(int maximumQueueSize, int priority) {
         this.maximumQueueSize = maximumQueueSize;
+        this.priority = priority;
     }
 
     public static boolean canPromote(ChunkUpdateType prev, ChunkUpdateType next) {
@@ -18,4 +20,12 @@ public enum ChunkUpdateType {
     public int getMaximumQueueSize() {
         return this.maximumQueueSize;
     }
+
+    /**
+     * @return The priority level used when scheduling build tasks for this update type. Lower values are built first,
+     * and updates with the same priority are built in order of their distance to the camera.
+     */
+    public int getPriority() {
+        return this.priority;
+    }
 }
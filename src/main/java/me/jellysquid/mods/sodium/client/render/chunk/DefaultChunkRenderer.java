@@ -56,28 +56,48 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
 
         Iterator<ChunkRenderList> iterator = renderLists.iterator(renderPass.isReverseOrder());
 
-        while (iterator.hasNext()) {
-            ChunkRenderList renderList = iterator.next();
+        // When regions share a geometry buffer, the tessellation is only bound again once a region from a different
+        // buffer is drawn
+        GlTessellation activeTessellation = null;
+        DrawCommandList drawCommandList = null;
 
-            var region = renderList.getRegion();
-            var storage = region.getStorage(renderPass);
+        try {
+            while (iterator.hasNext()) {
+                ChunkRenderList renderList = iterator.next();
 
-            if (storage == null) {
-                continue;
-            }
+                var region = renderList.getRegion();
+                var storage = region.getStorage(renderPass);
 
-            fillCommandBuffer(this.batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+                if (storage == null) {
+                    continue;
+                }
 
-            if (this.batch.isEmpty()) {
-                continue;
-            }
+                fillCommandBuffer(this.batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+
+                if (this.batch.isEmpty()) {
+                    continue;
+                }
+
+                this.sharedIndexBuffer.ensureCapacity(commandList, this.batch.getIndexBufferSize());
+
+                var tessellation = this.prepareTessellation(commandList, region);
 
-            this.sharedIndexBuffer.ensureCapacity(commandList, this.batch.getIndexBufferSize());
+                if (tessellation != activeTessellation) {
+                    if (drawCommandList != null) {
+                        drawCommandList.close();
+                    }
 
-            var tessellation = this.prepareTessellation(commandList, region);
+                    drawCommandList = commandList.beginTessellating(tessellation);
+                    activeTessellation = tessellation;
+                }
 
-            setModelMatrixUniforms(shader, region, camera);
-            executeDrawBatch(commandList, tessellation, this.batch);
+                setModelMatrixUniforms(shader, region, camera);
+                drawCommandList.multiDrawElementsBaseVertex(this.batch, GlIndexType.UNSIGNED_INT);
+            }
+        } finally {
+            if (drawCommandList != null) {
+                drawCommandList.close();
+            }
         }
 
         super.end(renderPass);
@@ -236,12 +256,6 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
         });
     }
 
-    private static void executeDrawBatch(CommandList commandList, GlTessellation tessellation, MultiDrawBatch batch) {
-        try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
-            drawCommandList.multiDrawElementsBaseVertex(batch, GlIndexType.UNSIGNED_INT);
-        }
-    }
-
     @Override
     public void delete(CommandList commandList) {
         super.delete(commandList);
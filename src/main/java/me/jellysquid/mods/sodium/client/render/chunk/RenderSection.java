@@ -1,8 +1,9 @@
 package me.jellysquid.mods.sodium.client.render.chunk;
 
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
-import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirection;
-import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirectionSet;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionMeshCells;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadData;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.SectionGraphStorage;
 import me.jellysquid.mods.sodium.client.render.chunk.occlusion.VisibilityEncoding;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import me.jellysquid.mods.sodium.client.util.task.CancellationToken;
@@ -25,29 +26,22 @@ public class RenderSection {
     // Chunk Section State
     private final int chunkX, chunkY, chunkZ;
 
-    // Occlusion Culling State
-    private long visibilityData = VisibilityEncoding.NULL;
-
-    private int incomingDirections;
-    private int lastVisibleFrame = -1;
-
-    private int adjacentMask;
-    public RenderSection
-            adjacentDown,
-            adjacentUp,
-            adjacentNorth,
-            adjacentSouth,
-            adjacentWest,
-            adjacentEast;
+    // Occlusion Culling State (stored in dense arrays by the region)
+    private final SectionGraphStorage graph;
 
 
     // Rendering State
     private boolean built = false; // merge with the flags?
-    private int flags = RenderSectionFlags.NONE;
     private BlockEntity @Nullable[] globalBlockEntities;
     private BlockEntity @Nullable[] culledBlockEntities;
     private Sprite @Nullable[] animatedSprites;
 
+    @Nullable
+    private TranslucentQuadData translucentData;
+
+    @Nullable
+    private SectionMeshCells meshCells;
+
 
     // Pending Update State
     @Nullable
@@ -59,6 +53,16 @@ public class RenderSection {
     private int lastBuiltFrame = -1;
     private int lastSubmittedFrame = -1;
 
+    // The cells which have changed since the build which produced the current mesh cells was submitted
+    private long dirtyCells = SectionMeshCells.ALL_CELLS;
+
+    // The cells which have changed since the last build was submitted
+    private long dirtyCellsSinceSubmit = SectionMeshCells.ALL_CELLS;
+
+    // True if only some of the blocks in the section have been updated at least once, which makes it a candidate for
+    // partial rebuilds
+    private boolean receivedBlockUpdates;
+
     // Lifetime state
     private boolean disposed;
 
@@ -74,40 +78,23 @@ public class RenderSection {
         this.sectionIndex = LocalSectionIndex.pack(rX, rY, rZ);
 
         this.region = region;
+        this.graph = region.getGraph();
     }
 
     public RenderSection getAdjacent(int direction) {
-        return switch (direction) {
-            case GraphDirection.DOWN -> this.adjacentDown;
-            case GraphDirection.UP -> this.adjacentUp;
-            case GraphDirection.NORTH -> this.adjacentNorth;
-            case GraphDirection.SOUTH -> this.adjacentSouth;
-            case GraphDirection.WEST -> this.adjacentWest;
-            case GraphDirection.EAST -> this.adjacentEast;
-            default -> null;
-        };
+        return this.graph.getAdjacent(this.sectionIndex, direction);
     }
 
+    /**
+     * Updates whether there is a section next to this one in the given direction. The section itself is found through
+     * the graph storage of the region, so only its presence needs to be tracked.
+     */
     public void setAdjacentNode(int direction, RenderSection node) {
-        if (node == null) {
-            this.adjacentMask &= ~GraphDirectionSet.of(direction);
-        } else {
-            this.adjacentMask |= GraphDirectionSet.of(direction);
-        }
-
-        switch (direction) {
-            case GraphDirection.DOWN -> this.adjacentDown = node;
-            case GraphDirection.UP -> this.adjacentUp = node;
-            case GraphDirection.NORTH -> this.adjacentNorth = node;
-            case GraphDirection.SOUTH -> this.adjacentSouth = node;
-            case GraphDirection.WEST -> this.adjacentWest = node;
-            case GraphDirection.EAST -> this.adjacentEast = node;
-            default -> { }
-        }
+        this.graph.setAdjacent(this.sectionIndex, direction, node != null);
     }
 
     public int getAdjacentMask() {
-        return this.adjacentMask;
+        return this.graph.getAdjacentMask(this.sectionIndex);
     }
 
     /**
@@ -122,6 +109,8 @@ public class RenderSection {
         }
 
         this.clearRenderState();
+        this.translucentData = null;
+        this.meshCells = null;
         this.disposed = true;
     }
 
@@ -135,8 +124,9 @@ public class RenderSection {
 
     private void setRenderState(@NotNull BuiltSectionInfo info) {
         this.built = true;
-        this.flags = info.flags;
-        this.visibilityData = info.visibilityData;
+        this.graph.setFlags(this.sectionIndex, info.flags);
+        this.graph.setVisibilityData(this.sectionIndex, info.visibilityData);
+        this.graph.setFluidVisibilityData(this.sectionIndex, info.fluidVisibilityData);
         this.globalBlockEntities = info.globalBlockEntities;
         this.culledBlockEntities = info.culledBlockEntities;
         this.animatedSprites = info.animatedSprites;
@@ -144,8 +134,9 @@ public class RenderSection {
 
     private void clearRenderState() {
         this.built = false;
-        this.flags = RenderSectionFlags.NONE;
-        this.visibilityData = VisibilityEncoding.NULL;
+        this.graph.setFlags(this.sectionIndex, RenderSectionFlags.NONE);
+        this.graph.setVisibilityData(this.sectionIndex, VisibilityEncoding.NULL);
+        this.graph.setFluidVisibilityData(this.sectionIndex, VisibilityEncoding.NULL);
         this.globalBlockEntities = null;
         this.culledBlockEntities = null;
         this.animatedSprites = null;
@@ -231,6 +222,67 @@ public class RenderSection {
         return this.chunkZ;
     }
 
+    /**
+     * @return The translucent geometry which was kept to be sorted again as the camera moves, or null if none was kept
+     */
+    public @Nullable TranslucentQuadData getTranslucentData() {
+        return this.translucentData;
+    }
+
+    public void setTranslucentData(@Nullable TranslucentQuadData translucentData) {
+        this.translucentData = translucentData;
+    }
+
+    /**
+     * @return The geometry grouped by cells which was kept so that the section can be partially rebuilt, or null if
+     * none was kept
+     */
+    public @Nullable SectionMeshCells getMeshCells() {
+        return this.meshCells;
+    }
+
+    public void setMeshCells(@Nullable SectionMeshCells meshCells) {
+        this.meshCells = meshCells;
+    }
+
+    /**
+     * Marks the given cells as having changed, so that they are meshed again by the next build.
+     */
+    public void markCellsDirty(long cells) {
+        this.dirtyCells |= cells;
+        this.dirtyCellsSinceSubmit |= cells;
+
+        if (cells != SectionMeshCells.ALL_CELLS) {
+            this.receivedBlockUpdates = true;
+        }
+    }
+
+    /**
+     * @return The cells which have changed since the build which produced the current mesh cells was submitted
+     */
+    public long getDirtyCells() {
+        return this.dirtyCells;
+    }
+
+    /**
+     * Called when a build is submitted, after which any further changes are tracked separately.
+     */
+    public void onBuildSubmitted() {
+        this.dirtyCellsSinceSubmit = SectionMeshCells.NO_CELLS;
+    }
+
+    /**
+     * Called when the result of the most recently submitted build has been applied, which replaces the mesh cells.
+     */
+    public void onBuildCompleted(@Nullable SectionMeshCells meshCells) {
+        this.meshCells = meshCells;
+        this.dirtyCells = this.dirtyCellsSinceSubmit;
+    }
+
+    public boolean hasReceivedBlockUpdates() {
+        return this.receivedBlockUpdates;
+    }
+
     public boolean isDisposed() {
         return this.disposed;
     }
@@ -256,37 +308,53 @@ public class RenderSection {
     }
 
     public void setLastVisibleFrame(int frame) {
-        this.lastVisibleFrame = frame;
+        this.graph.setLastVisibleFrame(this.sectionIndex, frame);
     }
 
     public int getLastVisibleFrame() {
-        return this.lastVisibleFrame;
+        return this.graph.getLastVisibleFrame(this.sectionIndex);
     }
 
     public int getIncomingDirections() {
-        return this.incomingDirections;
+        return this.graph.getIncomingDirections(this.sectionIndex);
     }
 
     public void addIncomingDirections(int directions) {
-        this.incomingDirections |= directions;
+        this.graph.addIncomingDirections(this.sectionIndex, directions);
     }
 
     public void setIncomingDirections(int directions) {
-        this.incomingDirections = directions;
+        this.graph.setIncomingDirections(this.sectionIndex, directions);
+    }
+
+    public boolean isOutsideViewport() {
+        return this.graph.isOutsideViewport(this.sectionIndex);
+    }
+
+    public void setOutsideViewport(boolean outsideViewport) {
+        this.graph.setOutsideViewport(this.sectionIndex, outsideViewport);
     }
 
     /**
      * Returns a bitfield containing the {@link RenderSectionFlags} for this built section.
      */
     public int getFlags() {
-        return this.flags;
+        return this.graph.getFlags(this.sectionIndex);
     }
 
     /**
      * Returns the occlusion culling data which determines this chunk's connectedness on the visibility graph.
      */
     public long getVisibilityData() {
-        return this.visibilityData;
+        return this.graph.getVisibilityData(this.sectionIndex);
+    }
+
+    /**
+     * Returns the occlusion culling data in which fluids are treated as opaque, which is the same as
+     * {@link #getVisibilityData()} unless fluid occlusion is enabled and this section contains fluids.
+     */
+    public long getFluidVisibilityData() {
+        return this.graph.getFluidVisibilityData(this.sectionIndex);
     }
 
     /**
@@ -4,6 +4,7 @@ public class RenderSectionFlags {
     public static final int HAS_BLOCK_GEOMETRY      = 0;
     public static final int HAS_BLOCK_ENTITIES      = 1;
     public static final int HAS_ANIMATED_SPRITES    = 2;
+    public static final int HAS_TRANSLUCENT_GEOMETRY = 3;
 
     public static final int NONE = 0;
 }
@@ -12,10 +12,14 @@ import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.executor.ChunkBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.executor.ChunkJobResult;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderMeshingTask;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderSortingTask;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionMeshCells;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadData;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderList;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.SortedRenderLists;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.VisibleChunkCollector;
@@ -35,11 +39,13 @@ import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.Camera;
+import net.minecraft.client.render.CameraSubmersionType;
 import net.minecraft.client.texture.Sprite;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkSection;
 import org.apache.commons.lang3.ArrayUtils;
@@ -50,6 +56,28 @@ import java.util.*;
 import java.util.concurrent.ConcurrentLinkedDeque;
 
 public class RenderSectionManager {
+    // The distance (in sections) from the camera within which translucent geometry is sorted again as the camera moves
+    private static final int TRANSLUCENT_SORT_DISTANCE = 2;
+
+    // The distance (in sections) from the camera within which a copy of translucent geometry is kept for sorting, which
+    // is slightly larger than the sorting distance so that small movements don't cause sections to be rebuilt
+    private static final int TRANSLUCENT_RETAIN_DISTANCE = 4;
+
+    // The distance (in blocks) which the camera needs to move before translucent geometry is sorted again
+    private static final double TRANSLUCENT_SORT_THRESHOLD = 1.0;
+
+    // The distance (in sections) from the camera within which a copy of the geometry grouped by cells is kept for sections
+    // which receive block updates, so that they can be partially rebuilt
+    private static final int MESH_CELLS_RETAIN_DISTANCE = 6;
+
+    // The number of queued sections whose neighbourhoods are copied into the section cache ahead of time each frame
+    private static final int PREWARM_SECTION_COUNT = 8;
+
+    // The order in which the rebuild queues are visited when pre-warming, which matches the order they are submitted in
+    private static final ChunkUpdateType[] PREWARM_ORDER = new ChunkUpdateType[] {
+            ChunkUpdateType.IMPORTANT_REBUILD, ChunkUpdateType.REBUILD, ChunkUpdateType.INITIAL_BUILD
+    };
+
     private final ChunkBuilder builder;
 
     private final RenderRegionManager regions;
@@ -58,12 +86,15 @@ public class RenderSectionManager {
     private final Long2ReferenceMap<RenderSection> sectionByPosition = new Long2ReferenceOpenHashMap<>();
 
     private final ConcurrentLinkedDeque<ChunkJobResult<ChunkBuildOutput>> buildResults = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<ChunkJobResult<ChunkSortOutput>> sortResults = new ConcurrentLinkedDeque<>();
 
     private final ChunkRenderer chunkRenderer;
 
     private final ClientWorld world;
 
     private final ReferenceSet<RenderSection> sectionsWithGlobalEntities = new ReferenceOpenHashSet<>();
+    private final ReferenceSet<RenderSection> sectionsWithTranslucentData = new ReferenceOpenHashSet<>();
+    private final ReferenceSet<RenderSection> sectionsWithMeshCells = new ReferenceOpenHashSet<>();
 
     private final OcclusionCuller occlusionCuller;
 
@@ -77,8 +108,14 @@ public class RenderSectionManager {
 
     private int lastUpdatedFrame;
 
+    private Vec3d cameraPosition = Vec3d.ZERO;
+    private Vec3d lastSortedCameraPosition = null;
+
     private boolean needsUpdate;
 
+    // True if the camera or fog may have changed since the render lists were last updated
+    private boolean viewportChanged;
+
     public RenderSectionManager(ClientWorld world, int renderDistance, CommandList commandList) {
         this.chunkRenderer = new DefaultChunkRenderer(RenderDevice.INSTANCE, ChunkMeshFormats.COMPACT);
 
@@ -86,13 +123,16 @@ public class RenderSectionManager {
         this.builder = new ChunkBuilder(world, ChunkMeshFormats.COMPACT);
 
         this.needsUpdate = true;
+        this.viewportChanged = true;
         this.renderDistance = renderDistance;
 
         this.regions = new RenderRegionManager(commandList);
-        this.sectionCache = new ClonedChunkSectionCache(this.world);
+        this.sectionCache = new ClonedChunkSectionCache(this.world,
+                SodiumClientMod.options().advanced.sectionCacheMemoryLimit * 1024L * 1024L);
 
         this.renderLists = SortedRenderLists.empty();
-        this.occlusionCuller = new OcclusionCuller(Long2ReferenceMaps.unmodifiable(this.sectionByPosition), this.world);
+        this.occlusionCuller = new OcclusionCuller(Long2ReferenceMaps.unmodifiable(this.sectionByPosition),
+                Collections.unmodifiableCollection(this.regions.getLoadedRegions()), this.world);
 
         this.rebuildLists = new EnumMap<>(ChunkUpdateType.class);
 
@@ -102,6 +142,7 @@ public class RenderSectionManager {
     }
 
     public void updateRenderLists(Camera camera, Viewport viewport, int frame, boolean spectator) {
+        this.cameraPosition = camera.getPos();
         this.createTerrainRenderList(camera, viewport, frame, spectator);
 
         this.needsUpdate = false;
@@ -111,12 +152,27 @@ public class RenderSectionManager {
     private void createTerrainRenderList(Camera camera, Viewport viewport, int frame, boolean spectator) {
         this.resetRenderLists();
 
+        BlockPos cameraPos = camera.getBlockPos();
+        this.builder.setCameraPosition(ChunkSectionPos.getSectionCoord(cameraPos.getX()),
+                ChunkSectionPos.getSectionCoord(cameraPos.getY()),
+                ChunkSectionPos.getSectionCoord(cameraPos.getZ()));
+
         final var searchDistance = this.getSearchDistance();
         final var useOcclusionCulling = this.shouldUseOcclusionCulling(camera, spectator);
 
         var visitor = new VisibleChunkCollector(frame);
 
-        this.occlusionCuller.findVisible(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+        this.occlusionCuller.setUseParallelSearch(SodiumClientMod.options().performance.useParallelOcclusionCulling);
+        this.occlusionCuller.setFluidOcclusionLimit(this.getFluidOcclusionLimit(camera));
+
+        if (SodiumClientMod.options().performance.useIncrementalOcclusionCulling) {
+            this.occlusionCuller.findVisibleIncremental(visitor, viewport, searchDistance, useOcclusionCulling,
+                    this.viewportChanged, frame);
+        } else {
+            this.occlusionCuller.findVisible(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+        }
+
+        this.viewportChanged = false;
 
         this.renderLists = visitor.createRenderLists();
         this.rebuildLists = visitor.getRebuildLists();
@@ -134,6 +190,19 @@ public class RenderSectionManager {
         return distance;
     }
 
+    /**
+     * Returns the section y-coordinate below which fluids should hide the sections beneath them. Fluids can only be
+     * treated as opaque while the camera is above them, since the sections around the camera are visible from within
+     * the fluid.
+     */
+    private int getFluidOcclusionLimit(Camera camera) {
+        if (!SodiumClientMod.options().performance.useFluidOcclusion || camera.getSubmersionType() != CameraSubmersionType.NONE) {
+            return Integer.MIN_VALUE;
+        }
+
+        return ChunkSectionPos.getSectionCoord(camera.getBlockPos().getY());
+    }
+
     private boolean shouldUseOcclusionCulling(Camera camera, boolean spectator) {
         final boolean useOcclusionCulling;
         BlockPos origin = camera.getBlockPos();
@@ -180,6 +249,7 @@ public class RenderSectionManager {
         }
 
         this.connectNeighborNodes(renderSection);
+        this.occlusionCuller.markDirty(renderSection);
 
         this.needsUpdate = true;
     }
@@ -197,8 +267,12 @@ public class RenderSectionManager {
             region.removeSection(section);
         }
 
+        this.occlusionCuller.onSectionRemoved(section);
+
         this.disconnectNeighborNodes(section);
         this.updateSectionInfo(section, null);
+        this.sectionsWithTranslucentData.remove(section);
+        this.sectionsWithMeshCells.remove(section);
 
         section.delete();
 
@@ -248,13 +322,8 @@ public class RenderSectionManager {
     }
 
     public boolean isSectionVisible(int x, int y, int z) {
-        RenderSection render = this.getRenderSection(x, y, z);
-
-        if (render == null) {
-            return false;
-        }
-
-        return render.getLastVisibleFrame() == this.lastUpdatedFrame;
+        return this.occlusionCuller.getVisibilityVolume()
+                .contains(x, y, z);
     }
 
     public void updateChunks(boolean updateImmediately) {
@@ -264,6 +333,25 @@ public class RenderSectionManager {
         this.submitRebuildTasks(ChunkUpdateType.IMPORTANT_REBUILD, false);
         this.submitRebuildTasks(ChunkUpdateType.REBUILD, !updateImmediately);
         this.submitRebuildTasks(ChunkUpdateType.INITIAL_BUILD, !updateImmediately);
+
+        this.prewarmSectionCache();
+        this.releaseDistantMeshCells();
+
+        if (SodiumClientMod.options().performance.useTranslucentFaceSorting) {
+            this.submitSortTasks();
+        }
+
+        this.builder.updateActiveThreads(this.getPendingRebuildCount());
+    }
+
+    private int getPendingRebuildCount() {
+        int count = 0;
+
+        for (var queue : this.rebuildLists.values()) {
+            count += queue.size();
+        }
+
+        return count;
     }
 
     public void uploadChunks() {
@@ -280,6 +368,16 @@ public class RenderSectionManager {
 
             this.needsUpdate = true;
         }
+
+        var sortResults = this.collectChunkSortResults();
+
+        if (!sortResults.isEmpty()) {
+            this.processChunkSortResults(sortResults);
+
+            for (var result : sortResults) {
+                result.delete();
+            }
+        }
     }
 
     private void processChunkBuildResults(ArrayList<ChunkBuildOutput> results) {
@@ -297,12 +395,167 @@ public class RenderSectionManager {
             }
 
             result.render.setLastBuiltFrame(result.buildTime);
+
+            this.setTranslucentData(result.render, result.translucentData);
+
+            // The mesh cells can only be used by a later build if no other build has been submitted since this one
+            this.setMeshCells(result.render, result.buildTime >= result.render.getLastSubmittedFrame() ? result.meshCells : null);
         }
     }
 
+    private void processChunkSortResults(ArrayList<ChunkSortOutput> results) {
+        var filtered = new ArrayList<ChunkBuildOutput>();
+
+        for (var result : results) {
+            var data = result.translucentData;
+
+            // The section has been rebuilt or unloaded since the sort was started, so the sorted mesh is out of date
+            if (result.render.isDisposed() || result.render.getTranslucentData() != data) {
+                continue;
+            }
+
+            data.setSortOrigin(result.cameraX, result.cameraY, result.cameraZ);
+            data.setSortPending(false);
+
+            filtered.add(result);
+        }
+
+        this.regions.uploadMeshes(RenderDevice.INSTANCE.createCommandList(), filtered);
+    }
+
+    private void setTranslucentData(RenderSection render, @Nullable TranslucentQuadData data) {
+        render.setTranslucentData(data);
+
+        if (data != null) {
+            this.sectionsWithTranslucentData.add(render);
+        } else {
+            this.sectionsWithTranslucentData.remove(render);
+        }
+    }
+
+    private void setMeshCells(RenderSection render, @Nullable SectionMeshCells meshCells) {
+        render.onBuildCompleted(meshCells);
+
+        if (meshCells != null) {
+            this.sectionsWithMeshCells.add(render);
+        } else {
+            this.sectionsWithMeshCells.remove(render);
+        }
+    }
+
+    /**
+     * Releases the copies of geometry grouped by cells for any sections which are now too far away for their partial
+     * rebuilds to be worth keeping the memory around for.
+     */
+    private void releaseDistantMeshCells() {
+        var camera = this.cameraPosition;
+
+        int cameraX = ChunkSectionPos.getSectionCoord(camera.x);
+        int cameraY = ChunkSectionPos.getSectionCoord(camera.y);
+        int cameraZ = ChunkSectionPos.getSectionCoord(camera.z);
+
+        this.sectionsWithMeshCells.removeIf(section -> {
+            if (getSectionDistance(section, cameraX, cameraY, cameraZ) > MESH_CELLS_RETAIN_DISTANCE) {
+                section.setMeshCells(null);
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * Sorts the translucent geometry of sections near the camera again once the camera has moved far enough since they
+     * were last sorted. Sections which have no copy of their translucent geometry are rebuilt instead, which also keeps
+     * a copy for any later sorts.
+     */
+    private void submitSortTasks() {
+        var camera = this.cameraPosition;
+
+        if (camera.equals(this.lastSortedCameraPosition)) {
+            return;
+        }
+
+        this.lastSortedCameraPosition = camera;
+
+        int cameraX = ChunkSectionPos.getSectionCoord(camera.x);
+        int cameraY = ChunkSectionPos.getSectionCoord(camera.y);
+        int cameraZ = ChunkSectionPos.getSectionCoord(camera.z);
+
+        // Release the copies of any geometry which is now too far away to be sorted again soon
+        this.sectionsWithTranslucentData.removeIf(section -> {
+            if (getSectionDistance(section, cameraX, cameraY, cameraZ) > TRANSLUCENT_RETAIN_DISTANCE) {
+                section.setTranslucentData(null);
+                return true;
+            }
+
+            return false;
+        });
+
+        for (int x = cameraX - TRANSLUCENT_SORT_DISTANCE; x <= cameraX + TRANSLUCENT_SORT_DISTANCE; x++) {
+            for (int y = cameraY - TRANSLUCENT_SORT_DISTANCE; y <= cameraY + TRANSLUCENT_SORT_DISTANCE; y++) {
+                for (int z = cameraZ - TRANSLUCENT_SORT_DISTANCE; z <= cameraZ + TRANSLUCENT_SORT_DISTANCE; z++) {
+                    var section = this.getRenderSection(x, y, z);
+
+                    if (section == null || (section.getFlags() & (1 << RenderSectionFlags.HAS_TRANSLUCENT_GEOMETRY)) == 0) {
+                        continue;
+                    }
+
+                    this.submitSortTask(section, camera);
+                }
+            }
+        }
+    }
+
+    private void submitSortTask(RenderSection section, Vec3d camera) {
+        var data = section.getTranslucentData();
+
+        if (data == null) {
+            // A rebuild is already on its way, which will keep a copy of the geometry
+            if (section.getBuildCancellationToken() != null) {
+                return;
+            }
+
+            if (ChunkUpdateType.canPromote(section.getPendingUpdate(), ChunkUpdateType.REBUILD)) {
+                section.setPendingUpdate(ChunkUpdateType.REBUILD);
+                this.needsUpdate = true;
+            }
+
+            return;
+        }
+
+        if (data.isSortPending() || data.getSquaredDistanceFromSortOrigin(camera.x, camera.y, camera.z) <
+                TRANSLUCENT_SORT_THRESHOLD * TRANSLUCENT_SORT_THRESHOLD) {
+            return;
+        }
+
+        data.setSortPending(true);
+
+        var task = new ChunkBuilderSortingTask(section, data, camera.x, camera.y, camera.z, this.lastUpdatedFrame);
+
+        // Sorting is cheap compared to building, and only happens close to the camera, so it is always done first
+        this.builder.scheduleTask(task, true, ChunkUpdateType.IMPORTANT_REBUILD.getPriority(),
+                ChunkSectionPos.asLong(section.getChunkX(), section.getChunkY(), section.getChunkZ()),
+                this.sortResults::add);
+    }
+
+    private static int getSectionDistance(RenderSection section, int x, int y, int z) {
+        return Math.max(Math.abs(section.getChunkX() - x),
+                Math.max(Math.abs(section.getChunkY() - y), Math.abs(section.getChunkZ() - z)));
+    }
+
     private void updateSectionInfo(RenderSection render, BuiltSectionInfo info) {
+        long prevVisibilityData = render.getVisibilityData();
+        long prevFluidVisibilityData = render.getFluidVisibilityData();
+
         render.setInfo(info);
 
+        // The search may use either set of connections for the section, so it must be re-visited if either changes
+        if (render.getVisibilityData() != prevVisibilityData ||
+                render.getFluidVisibilityData() != prevFluidVisibilityData) {
+            this.occlusionCuller.markDirty(render);
+        }
+
         if (info == null || ArrayUtils.isEmpty(info.globalBlockEntities)) {
             this.sectionsWithGlobalEntities.remove(render);
         } else {
@@ -340,6 +593,17 @@ public class RenderSectionManager {
         return results;
     }
 
+    private ArrayList<ChunkSortOutput> collectChunkSortResults() {
+        ArrayList<ChunkSortOutput> results = new ArrayList<>();
+        ChunkJobResult<ChunkSortOutput> result;
+
+        while ((result = this.sortResults.poll()) != null) {
+            results.add(result.unwrap());
+        }
+
+        return results;
+    }
+
     private void waitForBlockingTasks() {
         boolean shouldContinue;
 
@@ -362,14 +626,21 @@ public class RenderSectionManager {
             int frame = this.lastUpdatedFrame;
             ChunkBuilderMeshingTask task = this.createRebuildTask(section, frame);
 
+            section.onBuildSubmitted();
+
             if (task != null) {
-                CancellationToken token = this.builder.scheduleTask(task, asynchronous, this.buildResults::add);
+                CancellationToken token = this.builder.scheduleTask(task, asynchronous, type.getPriority(),
+                        ChunkSectionPos.asLong(section.getChunkX(), section.getChunkY(), section.getChunkZ()),
+                        this.buildResults::add);
                 section.setBuildCancellationToken(token);
             } else {
                 var result = ChunkJobResult.successfully(new ChunkBuildOutput(section, BuiltSectionInfo.EMPTY, Collections.emptyMap(), frame));
                 this.buildResults.add(result);
 
                 section.setBuildCancellationToken(null);
+
+                this.sectionsWithMeshCells.remove(section);
+                section.setMeshCells(null);
             }
 
             section.setLastSubmittedFrame(frame);
@@ -379,6 +650,29 @@ public class RenderSectionManager {
         }
     }
 
+    /**
+     * Copies the neighbourhoods of the sections which are next in line to be rebuilt into the section cache, so that
+     * they are likely to already be present once the rebuild tasks are created. The queues are visited in the same
+     * order as they are submitted in.
+     */
+    private void prewarmSectionCache() {
+        int remaining = PREWARM_SECTION_COUNT;
+
+        for (var type : PREWARM_ORDER) {
+            for (var section : this.rebuildLists.get(type)) {
+                if (remaining <= 0) {
+                    return;
+                }
+
+                if (!section.isDisposed()) {
+                    WorldSlice.prewarm(this.world, section.getChunkPos(), this.sectionCache);
+                }
+
+                remaining--;
+            }
+        }
+    }
+
     public @Nullable ChunkBuilderMeshingTask createRebuildTask(RenderSection render, int frame) {
         ChunkRenderContext context = WorldSlice.prepare(this.world, render.getChunkPos(), this.sectionCache);
 
@@ -386,11 +680,39 @@ public class RenderSectionManager {
             return null;
         }
 
-        return new ChunkBuilderMeshingTask(render, context, frame);
+        var camera = this.cameraPosition;
+        int distance = getSectionDistance(render, ChunkSectionPos.getSectionCoord(camera.x),
+                ChunkSectionPos.getSectionCoord(camera.y), ChunkSectionPos.getSectionCoord(camera.z));
+
+        var options = SodiumClientMod.options();
+
+        // Only the cells which have changed need to be meshed again if the mesh cells of the previous build were kept,
+        // but the previous build is unknown while another build is still in progress
+        long dirtyCells = render.getDirtyCells();
+        SectionMeshCells previousMeshCells = null;
+
+        if (render.getBuildCancellationToken() == null && dirtyCells != SectionMeshCells.ALL_CELLS) {
+            previousMeshCells = render.getMeshCells();
+        }
+
+        // Merged faces can span many cells, so partial rebuilds are not possible with greedy meshing
+        boolean retainMeshCells = render.hasReceivedBlockUpdates() && distance <= MESH_CELLS_RETAIN_DISTANCE &&
+                !options.performance.useGreedyMeshing;
+
+        if (!options.performance.useTranslucentFaceSorting) {
+            return new ChunkBuilderMeshingTask(render, context, frame, null, false,
+                    previousMeshCells, dirtyCells, retainMeshCells);
+        }
+
+        boolean retainTranslucentData = distance <= TRANSLUCENT_RETAIN_DISTANCE;
+
+        return new ChunkBuilderMeshingTask(render, context, frame, camera, retainTranslucentData,
+                previousMeshCells, dirtyCells, retainMeshCells);
     }
 
     public void markGraphDirty() {
         this.needsUpdate = true;
+        this.viewportChanged = true;
     }
 
     public boolean needsUpdate() {
@@ -408,6 +730,13 @@ public class RenderSectionManager {
             result.delete(); // delete resources for any pending tasks (including those that were cancelled)
         }
 
+        for (var result : this.collectChunkSortResults()) {
+            result.delete();
+        }
+
+        this.sectionsWithTranslucentData.clear();
+        this.sectionsWithMeshCells.clear();
+
         this.sectionsWithGlobalEntities.clear();
         this.resetRenderLists();
 
@@ -434,10 +763,24 @@ public class RenderSectionManager {
     }
 
     public void scheduleRebuild(int x, int y, int z, boolean important) {
+        this.scheduleRebuild(x, y, z, SectionMeshCells.ALL_CELLS, important);
+    }
+
+    /**
+     * Schedules a rebuild of the section at the given position, in which only the given cells have changed. If the
+     * section kept a copy of its geometry grouped by cells, only those cells will be meshed again.
+     *
+     * @param cells The mask of cells which have changed, see {@link SectionMeshCells}
+     */
+    public void scheduleRebuild(int x, int y, int z, long cells, boolean important) {
         this.sectionCache.invalidate(x, y, z);
 
         RenderSection section = this.sectionByPosition.get(ChunkSectionPos.asLong(x, y, z));
 
+        if (section != null) {
+            section.markCellsDirty(cells);
+        }
+
         if (section != null && section.isBuilt()) {
             ChunkUpdateType pendingUpdate;
 
@@ -504,13 +847,7 @@ public class RenderSectionManager {
         long deviceUsed = 0;
         long deviceAllocated = 0;
 
-        for (var region : this.regions.getLoadedRegions()) {
-            var resources = region.getResources();
-
-            if (resources == null) {
-                continue;
-            }
-
+        for (var resources : this.getGeometryResources()) {
             var buffer = resources.getGeometryArena();
 
             deviceUsed += buffer.getDeviceUsedMemory();
@@ -522,8 +859,14 @@ public class RenderSectionManager {
         list.add(String.format("Geometry Pool: %d/%d MiB (%d buffers)", MathUtil.toMib(deviceUsed), MathUtil.toMib(deviceAllocated), count));
         list.add(String.format("Transfer Queue: %s", this.regions.getStagingBuffer().toString()));
 
-        list.add(String.format("Chunk Builder: Permits=%02d | Busy=%02d | Total=%02d",
-                this.builder.getScheduledJobCount(), this.builder.getBusyThreadCount(), this.builder.getTotalThreadCount())
+        var cache = this.sectionCache;
+        list.add(String.format("Section Cache: %d/%d MiB (%d entries) | H=%d M=%d R=%d E=%d",
+                MathUtil.toMib(cache.getMemoryUsage()), MathUtil.toMib(cache.getMemoryBudget()), cache.getEntryCount(),
+                cache.getHitCount(), cache.getMissCount(), cache.getRefreshCount(), cache.getEvictionCount()));
+
+        list.add(String.format("Chunk Builder: Permits=%02d | Busy=%02d | Active=%02d | Total=%02d",
+                this.builder.getScheduledJobCount(), this.builder.getBusyThreadCount(), this.builder.getActiveThreadCount(),
+                this.builder.getTotalThreadCount())
         );
 
         list.add(String.format("Chunk Queues: U=%02d (P0=%03d | P1=%03d | P2=%03d)",
@@ -536,6 +879,27 @@ public class RenderSectionManager {
         return list;
     }
 
+    private Collection<RenderRegion.DeviceResources> getGeometryResources() {
+        var sharedPool = this.regions.getSharedPool();
+
+        // When the geometry pool is shared, many regions use the same resources, which should only be counted once
+        if (sharedPool != null) {
+            return sharedPool.getBuffers();
+        }
+
+        List<RenderRegion.DeviceResources> list = new ArrayList<>();
+
+        for (var region : this.regions.getLoadedRegions()) {
+            var resources = region.getResources();
+
+            if (resources != null) {
+                list.add(resources);
+            }
+        }
+
+        return list;
+    }
+
     public @NotNull SortedRenderLists getRenderLists() {
         return this.renderLists;
     }
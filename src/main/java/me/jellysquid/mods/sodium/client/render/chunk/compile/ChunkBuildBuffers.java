@@ -7,12 +7,15 @@ import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.BakedChunkM
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionMeshCells;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.Material;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.builder.ChunkMeshBufferBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import net.minecraft.client.texture.Sprite;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -28,6 +31,9 @@ public class ChunkBuildBuffers {
 
     private final ChunkVertexType vertexType;
 
+    // The number of vertices in each scratch buffer at the end of each cell, see SectionMeshCells
+    private final int[][][] cellEnds = new int[DefaultTerrainRenderPasses.ALL.length][ModelQuadFacing.COUNT][SectionMeshCells.CELL_COUNT];
+
     public ChunkBuildBuffers(ChunkVertexType vertexType) {
         this.vertexType = vertexType;
 
@@ -94,6 +100,124 @@ public class ChunkBuildBuffers {
         return new BuiltSectionMeshParts(mergedBuffer, vertexRanges);
     }
 
+    /**
+     * Marks the end of the geometry for the given cell. This must be called for each cell in order when the geometry
+     * is grouped by cells, including the cells for which no geometry was built.
+     */
+    public void endCell(int cell) {
+        for (int passIndex = 0; passIndex < DefaultTerrainRenderPasses.ALL.length; passIndex++) {
+            var builder = this.builders.get(DefaultTerrainRenderPasses.ALL[passIndex]);
+
+            for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+                this.cellEnds[passIndex][facing][cell] = builder.getVertexBuffer(ModelQuadFacing.VALUES[facing])
+                        .count();
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the geometry in the scratch buffers which is grouped by cells. The geometry of the cells which
+     * were not meshed again is taken from the previous copy instead.
+     *
+     * @param previous The geometry of the previous build, or null if every cell was meshed
+     * @param meshedCells The mask of cells which were meshed, if there is a previous copy
+     * @param animatedSprites The animated sprites used by the geometry of every cell
+     */
+    public SectionMeshCells createMeshCells(@Nullable SectionMeshCells previous, long meshedCells,
+                                            Sprite[] animatedSprites) {
+        int stride = this.vertexType.getVertexFormat().getStride();
+
+        var vertexData = SectionMeshCells.createVertexDataArrays();
+        var cellOffsets = SectionMeshCells.createCellOffsetArrays();
+
+        for (int passIndex = 0; passIndex < DefaultTerrainRenderPasses.ALL.length; passIndex++) {
+            var builder = this.builders.get(DefaultTerrainRenderPasses.ALL[passIndex]);
+
+            for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+                var buffer = builder.getVertexBuffer(ModelQuadFacing.VALUES[facing]);
+
+                int[] ends = this.cellEnds[passIndex][facing];
+                int[] offsets = cellOffsets[passIndex][facing];
+
+                int vertexCount = 0;
+
+                for (int cell = 0; cell < SectionMeshCells.CELL_COUNT; cell++) {
+                    offsets[cell] = vertexCount;
+
+                    if (previous == null || (meshedCells & (1L << cell)) != 0) {
+                        vertexCount += ends[cell] - (cell == 0 ? 0 : ends[cell - 1]);
+                    } else {
+                        vertexCount += previous.getCellEnd(passIndex, facing, cell) - previous.getCellStart(passIndex, facing, cell);
+                    }
+                }
+
+                offsets[SectionMeshCells.CELL_COUNT] = vertexCount;
+
+                byte[] data = new byte[vertexCount * stride];
+                ByteBuffer built = buffer.isEmpty() ? null : buffer.slice();
+
+                for (int cell = 0; cell < SectionMeshCells.CELL_COUNT; cell++) {
+                    int length = (offsets[cell + 1] - offsets[cell]) * stride;
+
+                    if (length == 0) {
+                        continue;
+                    }
+
+                    if (previous == null || (meshedCells & (1L << cell)) != 0) {
+                        int start = cell == 0 ? 0 : ends[cell - 1];
+                        built.get(start * stride, data, offsets[cell] * stride, length);
+                    } else {
+                        int start = previous.getCellStart(passIndex, facing, cell);
+                        System.arraycopy(previous.getVertexData(passIndex, facing), start * stride, data, offsets[cell] * stride, length);
+                    }
+                }
+
+                vertexData[passIndex][facing] = data;
+            }
+        }
+
+        return new SectionMeshCells(vertexData, cellOffsets, stride, animatedSprites);
+    }
+
+    /**
+     * Creates a mesh for the given render pass from geometry which is grouped by cells, see {@link #createMesh(TerrainRenderPass)}.
+     */
+    public BuiltSectionMeshParts createMesh(SectionMeshCells cells, int passIndex) {
+        VertexRange[] vertexRanges = new VertexRange[ModelQuadFacing.COUNT];
+
+        int vertexCount = 0;
+
+        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+            int count = cells.getVertexCount(passIndex, facing);
+
+            if (count == 0) {
+                continue;
+            }
+
+            vertexRanges[facing] = new VertexRange(vertexCount, count);
+            vertexCount += count;
+        }
+
+        if (vertexCount == 0) {
+            return null;
+        }
+
+        var mergedBuffer = new NativeBuffer(vertexCount * cells.getStride());
+        var mergedBufferBuilder = mergedBuffer.getDirectBuffer();
+
+        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+            mergedBufferBuilder.put(cells.getVertexData(passIndex, facing));
+        }
+
+        mergedBufferBuilder.flip();
+
+        return new BuiltSectionMeshParts(mergedBuffer, vertexRanges);
+    }
+
+    public ChunkVertexType getVertexType() {
+        return this.vertexType;
+    }
+
     public void destroy() {
         for (var builder : this.builders.values()) {
             builder.destroy();
@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockModelQuadCache;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderCache;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.world.ClientWorld;
@@ -10,9 +11,13 @@ public class ChunkBuildContext {
     public final ChunkBuildBuffers buffers;
     public final BlockRenderCache cache;
 
-    public ChunkBuildContext(ClientWorld world, ChunkVertexType vertexType) {
-        this.buffers = new ChunkBuildBuffers(vertexType);
-        this.cache = new BlockRenderCache(MinecraftClient.getInstance(), world);
+    public ChunkBuildContext(ClientWorld world, ChunkVertexType vertexType, BlockModelQuadCache quadCache) {
+        this(new ChunkBuildBuffers(vertexType), new BlockRenderCache(MinecraftClient.getInstance(), world, quadCache));
+    }
+
+    public ChunkBuildContext(ChunkBuildBuffers buffers, BlockRenderCache cache) {
+        this.buffers = buffers;
+        this.cache = cache;
     }
 
     public void cleanup() {
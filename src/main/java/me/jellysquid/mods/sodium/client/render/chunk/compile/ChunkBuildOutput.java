@@ -4,6 +4,9 @@ import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionMeshCells;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadData;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 
@@ -18,12 +21,30 @@ public class ChunkBuildOutput {
     public final BuiltSectionInfo info;
     public final Map<TerrainRenderPass, BuiltSectionMeshParts> meshes;
 
+    // The translucent geometry which was kept so that it can be sorted again later, or null if none was kept
+    public final @Nullable TranslucentQuadData translucentData;
+
+    // The geometry grouped by cells which was kept so that the section can be partially rebuilt, or null if none was kept
+    public final @Nullable SectionMeshCells meshCells;
+
     public final int buildTime;
 
     public ChunkBuildOutput(RenderSection render, BuiltSectionInfo info, Map<TerrainRenderPass, BuiltSectionMeshParts> meshes, int buildTime) {
+        this(render, info, meshes, null, buildTime);
+    }
+
+    public ChunkBuildOutput(RenderSection render, BuiltSectionInfo info, Map<TerrainRenderPass, BuiltSectionMeshParts> meshes,
+                            @Nullable TranslucentQuadData translucentData, int buildTime) {
+        this(render, info, meshes, translucentData, null, buildTime);
+    }
+
+    public ChunkBuildOutput(RenderSection render, BuiltSectionInfo info, Map<TerrainRenderPass, BuiltSectionMeshParts> meshes,
+                            @Nullable TranslucentQuadData translucentData, @Nullable SectionMeshCells meshCells, int buildTime) {
         this.render = render;
         this.info = info;
         this.meshes = meshes;
+        this.translucentData = translucentData;
+        this.meshCells = meshCells;
 
         this.buildTime = buildTime;
     }
@@ -32,6 +53,14 @@ public class ChunkBuildOutput {
         return this.meshes.get(pass);
     }
 
+    /**
+     * @return True if this output replaces the meshes of the section for the given render pass, in which case any
+     * previous meshes for the pass are removed, even if this output does not contain a new mesh for it
+     */
+    public boolean replacesMeshes(TerrainRenderPass pass) {
+        return true;
+    }
+
     public void delete() {
         for (BuiltSectionMeshParts data : this.meshes.values()) {
             data.getVertexData()
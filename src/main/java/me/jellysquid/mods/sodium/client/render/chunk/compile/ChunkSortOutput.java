@@ -0,0 +1,32 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadData;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+
+import java.util.Map;
+
+/**
+ * The result of sorting the translucent geometry of a section again, which only replaces the translucent mesh of the
+ * section. If the translucent data of the section has changed since the sort was started, the result is discarded.
+ */
+public class ChunkSortOutput extends ChunkBuildOutput {
+    // The camera position which the mesh was sorted for
+    public final double cameraX, cameraY, cameraZ;
+
+    public ChunkSortOutput(RenderSection render, TranslucentQuadData translucentData, BuiltSectionMeshParts mesh,
+                           double cameraX, double cameraY, double cameraZ, int buildTime) {
+        super(render, null, Map.of(DefaultTerrainRenderPasses.TRANSLUCENT, mesh), translucentData, buildTime);
+
+        this.cameraX = cameraX;
+        this.cameraY = cameraY;
+        this.cameraZ = cameraZ;
+    }
+
+    @Override
+    public boolean replacesMeshes(TerrainRenderPass pass) {
+        return pass == DefaultTerrainRenderPasses.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,93 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.gl.util.VertexRange;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshAttribute;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import me.jellysquid.mods.sodium.client.util.sorting.MergeSort;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sorts the quads of translucent meshes from back to front, so that they blend correctly when drawn in order. Rather
+ * than creating an index buffer for each mesh, the quads are re-ordered within the vertex data itself, which allows
+ * the sorted meshes to be drawn with the shared index buffer like any other mesh.
+ *
+ * <p>Since the quads of a sorted mesh can no longer be grouped by their facing, all of them are placed into the
+ * {@link ModelQuadFacing#UNASSIGNED} slice, which is never culled.</p>
+ */
+public class TranslucentQuadSorter {
+    private static final int VERTICES_PER_QUAD = 4;
+
+    /**
+     * Creates a mesh with the quads in the given vertex data sorted by their distance to the camera, with the furthest
+     * quads first. The camera position is relative to the origin of the chunk section.
+     */
+    public static BuiltSectionMeshParts createSortedMesh(ByteBuffer vertexData, ChunkVertexType vertexType,
+                                                         float cameraX, float cameraY, float cameraZ) {
+        var format = vertexType.getVertexFormat();
+
+        int stride = format.getStride();
+        int quadStride = stride * VERTICES_PER_QUAD;
+        int quadCount = vertexData.remaining() / quadStride;
+
+        float[] keys = getQuadDistances(vertexData, vertexType, quadCount, cameraX, cameraY, cameraZ);
+
+        // The merge sort orders the keys from largest to smallest, which gives the back-to-front order
+        int[] order = MergeSort.mergeSort(keys);
+
+        var sortedData = new NativeBuffer(quadCount * quadStride);
+        var sortedBuffer = sortedData.getDirectBuffer();
+
+        int start = vertexData.position();
+
+        for (int i = 0; i < quadCount; i++) {
+            sortedBuffer.put(i * quadStride, vertexData, start + (order[i] * quadStride), quadStride);
+        }
+
+        var ranges = new VertexRange[ModelQuadFacing.COUNT];
+        ranges[ModelQuadFacing.UNASSIGNED.ordinal()] = new VertexRange(0, quadCount * VERTICES_PER_QUAD);
+
+        return new BuiltSectionMeshParts(sortedData, ranges);
+    }
+
+    private static float[] getQuadDistances(ByteBuffer vertexData, ChunkVertexType vertexType, int quadCount,
+                                            float cameraX, float cameraY, float cameraZ) {
+        var format = vertexType.getVertexFormat();
+
+        int stride = format.getStride();
+        int quadStride = stride * VERTICES_PER_QUAD;
+        int positionOffset = format.getAttribute(ChunkMeshAttribute.POSITION_MATERIAL_MESH)
+                .getPointer();
+
+        // The positions of the four vertices are summed before being decoded, so the scale also takes the average
+        float positionScale = vertexType.getPositionScale() / VERTICES_PER_QUAD;
+        float positionOffsetValue = vertexType.getPositionOffset();
+
+        float[] keys = new float[quadCount];
+
+        int start = vertexData.position();
+
+        for (int quadIndex = 0; quadIndex < quadCount; quadIndex++) {
+            int sumX = 0, sumY = 0, sumZ = 0;
+
+            for (int vertexIndex = 0; vertexIndex < VERTICES_PER_QUAD; vertexIndex++) {
+                int ptr = start + (quadIndex * quadStride) + (vertexIndex * stride) + positionOffset;
+
+                sumX += Short.toUnsignedInt(vertexData.getShort(ptr + 0));
+                sumY += Short.toUnsignedInt(vertexData.getShort(ptr + 2));
+                sumZ += Short.toUnsignedInt(vertexData.getShort(ptr + 4));
+            }
+
+            float dx = ((sumX * positionScale) + positionOffsetValue) - cameraX;
+            float dy = ((sumY * positionScale) + positionOffsetValue) - cameraY;
+            float dz = ((sumZ * positionScale) + positionOffsetValue) - cameraZ;
+
+            keys[quadIndex] = (dx * dx) + (dy * dy) + (dz * dz);
+        }
+
+        return keys;
+    }
+}
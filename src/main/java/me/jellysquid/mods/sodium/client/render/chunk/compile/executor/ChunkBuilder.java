@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.render.chunk.compile.executor;
 
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockModelQuadCache;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderTask;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.util.task.CancellationToken;
@@ -10,10 +11,12 @@ import net.minecraft.util.math.MathHelper;
 import org.apache.commons.lang3.Validate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 public class ChunkBuilder {
@@ -21,22 +24,35 @@ public class ChunkBuilder {
 
     private volatile boolean isRunning;
 
-    private final ChunkJobQueue queue = new ChunkJobQueue();
+    private final ChunkJobScheduler scheduler;
 
     private final List<Thread> threads = new ArrayList<>();
 
     private final AtomicInteger busyThreadCount = new AtomicInteger();
 
+    // Null if the number of active threads is fixed
+    private final @Nullable ChunkBuilderThreadController threadController;
+
+    // Workers with an index greater than or equal to this are parked until more threads are needed
+    private volatile int activeThreadCount;
+
     private final ChunkBuildContext localContext;
 
     public ChunkBuilder(ClientWorld world, ChunkVertexType vertexType) {
         int count = getThreadCount();
 
         this.isRunning = true;
+        this.scheduler = new ChunkJobScheduler(count);
+
+        this.activeThreadCount = count;
+        this.threadController = SodiumClientMod.options().performance.useAdaptiveChunkBuilderThreads ?
+                new ChunkBuilderThreadController(count) : null;
+
+        var quadCache = new BlockModelQuadCache();
 
         for (int i = 0; i < count; i++) {
-            ChunkBuildContext context = new ChunkBuildContext(world, vertexType);
-            WorkerRunnable worker = new WorkerRunnable(context);
+            ChunkBuildContext context = new ChunkBuildContext(world, vertexType, quadCache);
+            WorkerRunnable worker = new WorkerRunnable(i, context);
 
             Thread thread = new Thread(worker, "Chunk Render Task Executor #" + i);
             thread.setPriority(Math.max(0, Thread.NORM_PRIORITY - 2));
@@ -47,7 +63,7 @@ public class ChunkBuilder {
 
         LOGGER.info("Started {} worker threads", this.threads.size());
 
-        this.localContext = new ChunkBuildContext(world, vertexType);
+        this.localContext = new ChunkBuildContext(world, vertexType, quadCache);
     }
 
     /**
@@ -55,7 +71,34 @@ public class ChunkBuilder {
      * spawn more tasks than the budget allows, it will block until resources become available.
      */
     public int getSchedulingBudget() {
-        return Math.max(0, this.threads.size() - this.queue.size());
+        return Math.max(0, this.activeThreadCount - this.scheduler.size());
+    }
+
+    /**
+     * Grows or shrinks the number of active worker threads, based on the amount of outstanding work and how long jobs
+     * and frames have been taking. This should be called once per frame from the render thread. If the number of
+     * threads is fixed, this method does nothing.
+     *
+     * @param pendingJobs The number of jobs which are waiting to be scheduled
+     */
+    public void updateActiveThreads(int pendingJobs) {
+        if (this.threadController == null) {
+            return;
+        }
+
+        int count = this.threadController.update(pendingJobs + this.scheduler.size());
+
+        if (count == this.activeThreadCount) {
+            return;
+        }
+
+        this.activeThreadCount = count;
+        this.scheduler.setActiveWorkerCount(count);
+
+        // Wake up any workers which are now active, the others will park themselves after finishing their current job
+        for (int i = 0; i < count; i++) {
+            LockSupport.unpark(this.threads.get(i));
+        }
     }
 
     /**
@@ -74,7 +117,7 @@ public class ChunkBuilder {
         this.shutdownThreads();
 
         // Delete any queued tasks and resources attached to them
-        var jobs = this.queue.removeAll();
+        var jobs = this.scheduler.removeAll();
 
         for (var job : jobs) {
             job.setCancelled();
@@ -101,7 +144,18 @@ public class ChunkBuilder {
         this.threads.clear();
     }
 
+    /**
+     * Schedules a task for execution on the worker threads.
+     *
+     * @param task The task to execute
+     * @param asynchronous False if the render thread will wait for the task to complete, otherwise true
+     * @param priority The priority level of the task, where lower values are executed first
+     * @param sectionPos The packed position of the section which the task belongs to, used to execute tasks which are
+     *                   closer to the camera first
+     * @param consumer The consumer which will receive the result of the task
+     */
     public <TASK extends ChunkBuilderTask<OUTPUT>, OUTPUT> CancellationToken scheduleTask(TASK task, boolean asynchronous,
+                                                                                          int priority, long sectionPos,
                                                                                           Consumer<ChunkJobResult<OUTPUT>> consumer)
     {
         Validate.notNull(task, "Task must be non-null");
@@ -112,7 +166,7 @@ public class ChunkBuilder {
 
         var job = new ChunkJobTyped<>(task, consumer);
 
-        this.queue.add(job, asynchronous);
+        this.scheduler.add(job, asynchronous, priority, sectionPos);
 
         return job;
     }
@@ -142,7 +196,7 @@ public class ChunkBuilder {
      * @return True if it was able to steal a task, otherwise false
      */
     public boolean stealBlockingTask() {
-        var job = this.queue.stealSynchronousJob();
+        var job = this.scheduler.stealSynchronousJob();
 
         if (job == null) {
             return false;
@@ -159,12 +213,20 @@ public class ChunkBuilder {
         return true;
     }
 
+    /**
+     * Updates the section which the camera is in. Queued tasks are re-prioritised if the camera has moved into a
+     * different section since the last call.
+     */
+    public void setCameraPosition(int sectionX, int sectionY, int sectionZ) {
+        this.scheduler.setCameraPosition(sectionX, sectionY, sectionZ);
+    }
+
     public boolean isBuildQueueEmpty() {
-        return this.queue.isEmpty();
+        return this.scheduler.isEmpty();
     }
 
     public int getScheduledJobCount() {
-        return this.queue.size();
+        return this.scheduler.size();
     }
 
     public int getBusyThreadCount() {
@@ -175,12 +237,19 @@ public class ChunkBuilder {
         return this.threads.size();
     }
 
+    public int getActiveThreadCount() {
+        return this.activeThreadCount;
+    }
+
     private class WorkerRunnable implements Runnable {
         // Making this thread-local provides a small boost to performance by avoiding the overhead in synchronizing
         // caches between different CPU cores
         private final ChunkBuildContext context;
 
-        public WorkerRunnable(ChunkBuildContext context) {
+        private final int index;
+
+        public WorkerRunnable(int index, ChunkBuildContext context) {
+            this.index = index;
             this.context = context;
         }
 
@@ -188,10 +257,16 @@ public class ChunkBuilder {
         public void run() {
             // Run until the chunk builder shuts down
             while (ChunkBuilder.this.isRunning) {
+                if (this.index >= ChunkBuilder.this.activeThreadCount) {
+                    // Wait until this worker is needed again, or the chunk builder is shut down (which interrupts us)
+                    LockSupport.park(this);
+                    continue;
+                }
+
                 ChunkJob job;
 
                 try {
-                    job = ChunkBuilder.this.queue.waitForNextJob();
+                    job = ChunkBuilder.this.scheduler.waitForNextJob(this.index);
                 } catch (InterruptedException ignored) {
                     continue;
                 }
@@ -202,12 +277,18 @@ public class ChunkBuilder {
 
                 ChunkBuilder.this.busyThreadCount.getAndIncrement();
 
+                long start = System.nanoTime();
+
                 try {
                     job.execute(this.context);
                 } finally {
                     this.context.cleanup();
 
                     ChunkBuilder.this.busyThreadCount.decrementAndGet();
+
+                    if (ChunkBuilder.this.threadController != null) {
+                        ChunkBuilder.this.threadController.recordJobTime(System.nanoTime() - start);
+                    }
                 }
             }
         }
@@ -0,0 +1,144 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.executor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides how many of the chunk builder's worker threads should be active, based on feedback measured while the game
+ * is running. The remaining workers are parked, which frees up CPU time for the integrated server and other programs
+ * sharing the machine.
+ *
+ * <p>The controller uses the average time spent on each job to estimate how many workers are needed to drain the
+ * current backlog within {@link #TARGET_DRAIN_TIME}. If that is more than are active, all of the needed workers are
+ * woken up at once, so that a sudden burst of work (such as when joining a world or teleporting) is picked up
+ * immediately. Workers are only parked one at a time: either once the backlog has been empty for {@link #IDLE_TIME},
+ * or when the render thread is falling behind while the active workers can keep up with less help, so that they
+ * don't compete with the render thread for CPU time.</p>
+ */
+class ChunkBuilderThreadController {
+    // The minimum amount of time between parking each worker, so that the measurements can catch up with the change
+    private static final long ADJUSTMENT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(250);
+
+    // The amount of time which the backlog should be drained in, when all workers are busy
+    private static final long TARGET_DRAIN_TIME = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // The amount of time which the backlog must be empty for before parking all but one worker
+    private static final long IDLE_TIME = TimeUnit.SECONDS.toNanos(1);
+
+    // The frame time above which the render thread is considered to be falling behind (~30 FPS)
+    private static final long SLOW_FRAME_TIME = TimeUnit.MILLISECONDS.toNanos(33);
+
+    // The job time which is assumed before any jobs have been measured
+    private static final long DEFAULT_JOB_TIME = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final int maxThreads;
+
+    private final LongAdder jobTime = new LongAdder();
+    private final LongAdder jobCount = new LongAdder();
+
+    private long averageJobTime = DEFAULT_JOB_TIME;
+    private long averageFrameTime;
+
+    private long lastFrameTimestamp = Long.MIN_VALUE;
+    private long lastAdjustmentTimestamp;
+    private long lastBusyTimestamp;
+
+    private int activeThreads;
+
+    ChunkBuilderThreadController(int maxThreads) {
+        this.maxThreads = maxThreads;
+        this.activeThreads = maxThreads;
+
+        long now = System.nanoTime();
+
+        this.lastAdjustmentTimestamp = now;
+        this.lastBusyTimestamp = now;
+    }
+
+    /**
+     * Records the time spent executing a job. This can be called from any thread.
+     */
+    public void recordJobTime(long nanos) {
+        this.jobTime.add(nanos);
+        this.jobCount.increment();
+    }
+
+    /**
+     * Called once per frame from the render thread.
+     *
+     * @param backlog The number of jobs which are waiting to be executed, including any which haven't been submitted
+     *                to the scheduler yet
+     * @return The number of worker threads which should be active
+     */
+    public int update(int backlog) {
+        long now = System.nanoTime();
+
+        this.updateFrameTime(now);
+
+        if (backlog > 0) {
+            this.lastBusyTimestamp = now;
+        }
+
+        int neededThreads = this.getNeededThreads(backlog);
+
+        if (neededThreads > this.activeThreads) {
+            this.activeThreads = neededThreads;
+            this.lastAdjustmentTimestamp = now;
+
+            return this.activeThreads;
+        }
+
+        if (now - this.lastAdjustmentTimestamp < ADJUSTMENT_INTERVAL) {
+            return this.activeThreads;
+        }
+
+        this.lastAdjustmentTimestamp = now;
+        this.updateJobTime();
+
+        // Only park a worker for slow frames if the others could still drain the backlog in time, otherwise it would
+        // be woken up again on the next frame
+        boolean idle = now - this.lastBusyTimestamp > IDLE_TIME;
+        boolean slow = this.averageFrameTime > SLOW_FRAME_TIME && neededThreads < this.activeThreads;
+
+        if (idle || slow) {
+            this.activeThreads = Math.max(this.activeThreads - 1, 1);
+        }
+
+        return this.activeThreads;
+    }
+
+    /**
+     * @return The number of workers which are needed to drain the backlog within {@link #TARGET_DRAIN_TIME}, clamped
+     * to the number of workers which exist
+     */
+    private int getNeededThreads(int backlog) {
+        long drainTime = backlog * this.averageJobTime;
+        long neededThreads = (drainTime + TARGET_DRAIN_TIME - 1) / TARGET_DRAIN_TIME;
+
+        return (int) Math.max(1, Math.min(neededThreads, this.maxThreads));
+    }
+
+    private void updateFrameTime(long now) {
+        if (this.lastFrameTimestamp != Long.MIN_VALUE) {
+            long frameTime = now - this.lastFrameTimestamp;
+
+            // Exponential moving average, so that a single slow frame (such as from a GC pause) is mostly ignored
+            this.averageFrameTime += (frameTime - this.averageFrameTime) / 8;
+        }
+
+        this.lastFrameTimestamp = now;
+    }
+
+    private void updateJobTime() {
+        long count = this.jobCount.sumThenReset();
+        long time = this.jobTime.sumThenReset();
+
+        if (count > 0) {
+            this.averageJobTime = Math.max(1, time / count);
+        }
+    }
+
+    public int getActiveThreads() {
+        return this.activeThreads;
+    }
+}
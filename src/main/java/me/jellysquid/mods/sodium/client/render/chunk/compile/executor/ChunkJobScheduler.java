@@ -0,0 +1,255 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.executor;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A priority-aware job scheduler with a local queue for each worker thread. Workers take the most important job from
+ * their own queue, and once it runs dry, steal the most important job from whichever other queue has the best one.
+ * This keeps workers from contending on a single queue head, while still building the nearest sections first.
+ *
+ * <p>Jobs are ordered by their priority level first (lower is more important), and then by their distance to the
+ * camera. When the camera moves into a different section, all queued jobs are re-prioritised, so that work which was
+ * queued from a stale position isn't drained in the wrong order.</p>
+ *
+ * <p>Synchronous jobs are kept in a separate shared queue, since the render thread needs to be able to steal them
+ * while it waits for them to complete. Workers always check this queue before their own.</p>
+ */
+class ChunkJobScheduler {
+    private static final Comparator<ScheduledJob> COMPARATOR = Comparator.comparingLong(ScheduledJob::key);
+
+    private final JobHeap synchronousJobs = new JobHeap();
+    private final JobHeap[] workerJobs;
+
+    // The number of permits is always equal to the number of jobs across all queues, which have not yet been claimed
+    private final Semaphore semaphore = new Semaphore(0);
+
+    private final AtomicInteger nextWorker = new AtomicInteger();
+
+    // New jobs are only given to active workers, since parked workers would leave them to be stolen
+    private volatile int activeWorkerCount;
+
+    private volatile long cameraSectionPos;
+
+    ChunkJobScheduler(int workerCount) {
+        this.workerJobs = new JobHeap[Math.max(1, workerCount)];
+
+        for (int i = 0; i < this.workerJobs.length; i++) {
+            this.workerJobs[i] = new JobHeap();
+        }
+
+        this.activeWorkerCount = this.workerJobs.length;
+    }
+
+    public void setActiveWorkerCount(int count) {
+        this.activeWorkerCount = Math.max(1, Math.min(count, this.workerJobs.length));
+    }
+
+    public void add(ChunkJob job, boolean asynchronous, int priority, long sectionPos) {
+        var entry = new ScheduledJob(job, priority, sectionPos);
+        entry.updateKey(this.cameraSectionPos);
+
+        if (asynchronous) {
+            // Spread jobs across the worker queues so that each worker starts out with a mix of near and far jobs
+            int worker = Math.floorMod(this.nextWorker.getAndIncrement(), this.activeWorkerCount);
+            this.workerJobs[worker].add(entry);
+        } else {
+            this.synchronousJobs.add(entry);
+        }
+
+        this.semaphore.release(1);
+    }
+
+    /**
+     * Blocks until a job is available, and then returns the most important job for the given worker.
+     */
+    public ChunkJob waitForNextJob(int worker) throws InterruptedException {
+        this.semaphore.acquire();
+
+        ScheduledJob entry;
+
+        // Holding a permit guarantees that at least one job is still queued, but another worker might be taking jobs
+        // from the queues as we scan over them, so it can take a few attempts to find it.
+        while ((entry = this.findNextJob(worker)) == null) {
+            Thread.onSpinWait();
+        }
+
+        return entry.job();
+    }
+
+    @Nullable
+    public ChunkJob stealSynchronousJob() {
+        if (!this.semaphore.tryAcquire()) {
+            return null;
+        }
+
+        var entry = this.synchronousJobs.poll();
+
+        if (entry == null) {
+            // If there was nothing in the synchronous queue, that means the permit belongs to an asynchronous job,
+            // and we need to return it
+            this.semaphore.release(1);
+            return null;
+        }
+
+        return entry.job();
+    }
+
+    @Nullable
+    private ScheduledJob findNextJob(int worker) {
+        ScheduledJob entry;
+
+        if ((entry = this.synchronousJobs.poll()) != null) {
+            return entry;
+        }
+
+        var local = this.workerJobs[worker % this.workerJobs.length];
+
+        if ((entry = local.poll()) != null) {
+            return entry;
+        }
+
+        return this.steal(local);
+    }
+
+    @Nullable
+    private ScheduledJob steal(JobHeap thief) {
+        JobHeap victim = null;
+        long victimKey = Long.MAX_VALUE;
+
+        // Pick the queue with the most important job, rather than the first non-empty one, so that stealing
+        // doesn't undo the ordering between queues
+        for (var heap : this.workerJobs) {
+            if (heap == thief) {
+                continue;
+            }
+
+            long key = heap.peekKey();
+
+            if (key < victimKey) {
+                victim = heap;
+                victimKey = key;
+            }
+        }
+
+        return victim != null ? victim.poll() : null;
+    }
+
+    /**
+     * Updates the position of the camera which is used to order jobs. If the camera has moved into a different
+     * section, every queued job will be re-prioritised.
+     */
+    public void setCameraPosition(int x, int y, int z) {
+        long sectionPos = ChunkSectionPos.asLong(x, y, z);
+
+        if (this.cameraSectionPos == sectionPos) {
+            return;
+        }
+
+        this.cameraSectionPos = sectionPos;
+
+        this.synchronousJobs.reprioritize(sectionPos);
+
+        for (var heap : this.workerJobs) {
+            heap.reprioritize(sectionPos);
+        }
+    }
+
+    public Collection<ChunkJob> removeAll() {
+        var list = new ArrayDeque<ChunkJob>();
+
+        while (this.semaphore.tryAcquire()) {
+            ScheduledJob entry;
+
+            while ((entry = this.findNextJob(0)) == null) {
+                Thread.onSpinWait();
+            }
+
+            list.add(entry.job());
+        }
+
+        return list;
+    }
+
+    public int size() {
+        return this.semaphore.availablePermits();
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    private static class JobHeap {
+        private ObjectHeapPriorityQueue<ScheduledJob> queue = new ObjectHeapPriorityQueue<>(COMPARATOR);
+
+        public synchronized void add(ScheduledJob entry) {
+            this.queue.enqueue(entry);
+        }
+
+        @Nullable
+        public synchronized ScheduledJob poll() {
+            return this.queue.isEmpty() ? null : this.queue.dequeue();
+        }
+
+        public synchronized long peekKey() {
+            return this.queue.isEmpty() ? Long.MAX_VALUE : this.queue.first().key();
+        }
+
+        public synchronized void reprioritize(long cameraSectionPos) {
+            if (this.queue.isEmpty()) {
+                return;
+            }
+
+            var entries = new ObjectArrayList<ScheduledJob>(this.queue.size());
+
+            while (!this.queue.isEmpty()) {
+                var entry = this.queue.dequeue();
+                entry.updateKey(cameraSectionPos);
+                entries.add(entry);
+            }
+
+            // Building the heap from an array is linear, rather than O(n log n) for adding each element
+            this.queue = new ObjectHeapPriorityQueue<>(entries.elements(), entries.size(), COMPARATOR);
+        }
+    }
+
+    private static final class ScheduledJob {
+        private final ChunkJob job;
+        private final int priority;
+        private final long sectionPos;
+
+        private long key;
+
+        private ScheduledJob(ChunkJob job, int priority, long sectionPos) {
+            this.job = job;
+            this.priority = priority;
+            this.sectionPos = sectionPos;
+        }
+
+        private void updateKey(long cameraSectionPos) {
+            long dx = ChunkSectionPos.unpackX(this.sectionPos) - ChunkSectionPos.unpackX(cameraSectionPos);
+            long dy = ChunkSectionPos.unpackY(this.sectionPos) - ChunkSectionPos.unpackY(cameraSectionPos);
+            long dz = ChunkSectionPos.unpackZ(this.sectionPos) - ChunkSectionPos.unpackZ(cameraSectionPos);
+
+            long distance = Math.min((dx * dx) + (dy * dy) + (dz * dz), 0xFFFFFFFFL);
+
+            this.key = ((long) this.priority << 32) | distance;
+        }
+
+        public ChunkJob job() {
+            return this.job;
+        }
+
+        public long key() {
+            return this.key;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline;
+
+import me.jellysquid.mods.sodium.client.model.quad.BakedQuadView;
+import me.jellysquid.mods.sodium.client.util.DirectionUtil;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.BasicBakedModel;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.random.Random;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the quads of block models which always produce the same geometry, so that the block renderer doesn't have to
+ * query the model (and re-seed its random source) for every face of every block. The quads for each face are stored
+ * as arrays, which avoids iterating over the lists returned by the model.
+ *
+ * <p>Only models which are known to ignore both the block state and the random source are cached. Weighted and
+ * multipart models (and any model added by a mod) are always queried directly, since they may return different quads
+ * for each position. Since the cached models ignore the block state, the quads are keyed by the model itself, which
+ * lets every block state sharing a model share one entry.</p>
+ *
+ * <p>The cache is shared between all the worker threads of the chunk builder, and is discarded along with the chunk
+ * builder when resource packs are reloaded, so it never holds the quads of models which were replaced.</p>
+ */
+public class BlockModelQuadCache {
+    // The quads without a cull face are stored after the quads of each direction
+    public static final int UNCULLED_INDEX = DirectionUtil.ALL_DIRECTIONS.length;
+
+    // The maximum number of models to cache, after which the quads of any other models are not cached
+    private static final int MAX_ENTRIES = 16384;
+
+    private static final BakedQuadView[] EMPTY = new BakedQuadView[0];
+
+    // Baked models don't override equals, so they are compared by identity
+    private final ConcurrentHashMap<BakedModel, BakedQuadView[][]> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the quads of the model for each face, indexed by the ordinal of the cull face, with the quads that have
+     * no cull face at {@link #UNCULLED_INDEX}. The returned arrays must not be modified.
+     *
+     * @param random The random source to query the model with if the quads are not yet cached
+     * @return The quads of the model, or null if the model's quads can't be cached, in which case the model should be
+     * queried directly
+     */
+    public @Nullable BakedQuadView[][] getQuads(BlockState state, BakedModel model, Random random) {
+        if (!isCacheable(model)) {
+            return null;
+        }
+
+        BakedQuadView[][] quads = this.entries.get(model);
+
+        if (quads == null) {
+            // Creating the arrays for a model which can't be kept would only add work for every block using it
+            if (this.entries.size() >= MAX_ENTRIES) {
+                return null;
+            }
+
+            quads = createQuadArrays(state, model, random);
+
+            // Another thread may have cached the same model in the meantime, in which case either copy can be used
+            this.entries.putIfAbsent(model, quads);
+        }
+
+        return quads;
+    }
+
+    private static boolean isCacheable(BakedModel model) {
+        // Subclasses may override getQuads, so only the exact class is known to return the same quads for every block
+        // state and random seed
+        return model.getClass() == BasicBakedModel.class;
+    }
+
+    private static BakedQuadView[][] createQuadArrays(BlockState state, BakedModel model, Random random) {
+        BakedQuadView[][] quads = new BakedQuadView[UNCULLED_INDEX + 1][];
+
+        for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
+            quads[face.ordinal()] = toArray(model.getQuads(state, face, random));
+        }
+
+        quads[UNCULLED_INDEX] = toArray(model.getQuads(state, null, random));
+
+        return quads;
+    }
+
+    private static BakedQuadView[] toArray(List<BakedQuad> list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+
+        BakedQuadView[] array = new BakedQuadView[list.size()];
+
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (BakedQuadView) list.get(i);
+        }
+
+        return array;
+    }
+}
@@ -1,14 +1,17 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline;
 
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.model.color.ColorProviderRegistry;
 import me.jellysquid.mods.sodium.client.model.light.LightPipelineProvider;
 import me.jellysquid.mods.sodium.client.model.light.data.ArrayLightDataCache;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.color.block.BlockColors;
 import net.minecraft.client.render.block.BlockModels;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
 public class BlockRenderCache {
     private final ArrayLightDataCache lightDataCache;
@@ -16,21 +19,49 @@ public class BlockRenderCache {
     private final BlockRenderer blockRenderer;
     private final FluidRenderer fluidRenderer;
 
+    private final @Nullable GreedyFaceMesher greedyMesher;
+
+    private final boolean useFluidOcclusion;
+
     private final BlockModels blockModels;
     private final WorldSlice worldSlice;
 
-    public BlockRenderCache(MinecraftClient client, ClientWorld world) {
-        this.worldSlice = new WorldSlice(world);
+    /**
+     * @param quadCache The cache of block model quads, which is shared by every worker thread of the chunk builder
+     */
+    public BlockRenderCache(MinecraftClient client, ClientWorld world, BlockModelQuadCache quadCache) {
+        this(new WorldSlice(world), client.getBlockColors(), client.getBakedModelManager().getBlockModels(), quadCache,
+                MinecraftClient.isAmbientOcclusionEnabled(), SodiumClientMod.options().performance.useGreedyMeshing,
+                SodiumClientMod.options().performance.useFluidOcclusion);
+    }
+
+    public BlockRenderCache(WorldSlice worldSlice, BlockColors blockColors, BlockModels blockModels, boolean useAmbientOcclusion) {
+        this(worldSlice, blockColors, blockModels, new BlockModelQuadCache(), useAmbientOcclusion, false, false);
+    }
+
+    /**
+     * Creates a render cache which does not depend on the global client instance. All the resources which would
+     * otherwise be fetched from the client must be provided by the caller.
+     *
+     * @param useGreedyMeshing True if the coplanar faces of full-cube opaque blocks should be merged into larger quads
+     * @param useFluidOcclusion True if the occlusion data in which fluids are treated as opaque should also be created
+     */
+    public BlockRenderCache(WorldSlice worldSlice, BlockColors blockColors, BlockModels blockModels, BlockModelQuadCache quadCache,
+                            boolean useAmbientOcclusion, boolean useGreedyMeshing, boolean useFluidOcclusion) {
+        this.worldSlice = worldSlice;
         this.lightDataCache = new ArrayLightDataCache(this.worldSlice);
 
         LightPipelineProvider lightPipelineProvider = new LightPipelineProvider(this.lightDataCache);
 
-        var colorRegistry = new ColorProviderRegistry(client.getBlockColors());
+        var colorRegistry = new ColorProviderRegistry(blockColors);
 
-        this.blockRenderer = new BlockRenderer(colorRegistry, lightPipelineProvider);
-        this.fluidRenderer = new FluidRenderer(colorRegistry, lightPipelineProvider);
+        this.greedyMesher = useGreedyMeshing ? new GreedyFaceMesher() : null;
+        this.useFluidOcclusion = useFluidOcclusion;
 
-        this.blockModels = client.getBakedModelManager().getBlockModels();
+        this.blockRenderer = new BlockRenderer(colorRegistry, lightPipelineProvider, quadCache, useAmbientOcclusion, this.greedyMesher);
+        this.fluidRenderer = new FluidRenderer(colorRegistry, lightPipelineProvider, useAmbientOcclusion);
+
+        this.blockModels = blockModels;
     }
 
     public BlockModels getBlockModels() {
@@ -45,9 +76,29 @@ public class BlockRenderCache {
         return this.fluidRenderer;
     }
 
+    /**
+     * @return The mesher which merges the faces of full-cube opaque blocks, or null if greedy meshing is disabled
+     */
+    public @Nullable GreedyFaceMesher getGreedyMesher() {
+        return this.greedyMesher;
+    }
+
+    /**
+     * @return True if the occlusion data in which fluids are treated as opaque should be created for each section
+     */
+    public boolean useFluidOcclusion() {
+        return this.useFluidOcclusion;
+    }
+
     public void init(ChunkRenderContext context) {
-        this.lightDataCache.reset(context.getOrigin());
+        this.lightDataCache.reset(context);
+        this.fluidRenderer.reset(context.getOrigin());
         this.worldSlice.copyData(context);
+
+        if (this.greedyMesher != null) {
+            // Discard any faces left over from a build which was cancelled
+            this.greedyMesher.reset();
+        }
     }
 
     public WorldSlice getWorldSlice() {
@@ -17,7 +17,6 @@ import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEn
 import me.jellysquid.mods.sodium.client.util.DirectionUtil;
 import net.caffeinemc.mods.sodium.api.util.ColorABGR;
 import net.minecraft.block.BlockState;
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.client.render.model.BakedQuad;
 import net.minecraft.client.texture.Sprite;
@@ -25,6 +24,7 @@ import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.random.LocalRandom;
 import net.minecraft.util.math.random.Random;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.List;
@@ -35,6 +35,9 @@ public class BlockRenderer {
     private final ColorProviderRegistry colorProviderRegistry;
     private final BlockOcclusionCache occlusionCache;
 
+    // Shared with the other worker threads
+    private final BlockModelQuadCache quadCache;
+
     private final QuadLightData quadLightData = new QuadLightData();
 
     private final LightPipelineProvider lighters;
@@ -43,14 +46,26 @@ public class BlockRenderer {
 
     private final boolean useAmbientOcclusion;
 
+    // The mesher which the faces of full-cube opaque blocks are passed to, or null if faces should not be merged
+    private final @Nullable GreedyFaceMesher greedyMesher;
+
     private final int[] quadColors = new int[4];
 
-    public BlockRenderer(ColorProviderRegistry colorRegistry, LightPipelineProvider lighters) {
+    // The number of quads which will be drawn for each facing of the current block, used to decide which can be merged
+    private final int[] facingQuadCounts = new int[ModelQuadFacing.COUNT];
+
+    @SuppressWarnings("unchecked")
+    private final List<BakedQuad>[] faceQuads = new List[DirectionUtil.ALL_DIRECTIONS.length];
+
+    public BlockRenderer(ColorProviderRegistry colorRegistry, LightPipelineProvider lighters, BlockModelQuadCache quadCache,
+                         boolean useAmbientOcclusion, @Nullable GreedyFaceMesher greedyMesher) {
         this.colorProviderRegistry = colorRegistry;
         this.lighters = lighters;
+        this.quadCache = quadCache;
 
         this.occlusionCache = new BlockOcclusionCache();
-        this.useAmbientOcclusion = MinecraftClient.isAmbientOcclusionEnabled();
+        this.useAmbientOcclusion = useAmbientOcclusion;
+        this.greedyMesher = greedyMesher;
     }
 
     public void renderModel(BlockRenderContext ctx, ChunkBuildBuffers buffers) {
@@ -68,19 +83,122 @@ public class BlockRenderer {
             renderOffset = Vec3d.ZERO;
         }
 
+        boolean mergeFaces = this.greedyMesher != null && material == DefaultMaterials.SOLID &&
+                renderOffset == Vec3d.ZERO && ctx.state().isOpaqueFullCube(ctx.world(), ctx.pos());
+
+        BakedQuadView[][] cachedQuads = this.quadCache.getQuads(ctx.state(), ctx.model(), this.random);
+
+        if (cachedQuads != null) {
+            int visibleFaces = 0;
+
+            for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
+                if (cachedQuads[face.ordinal()].length != 0 && this.isFaceVisible(ctx, face)) {
+                    visibleFaces |= 1 << face.ordinal();
+                }
+            }
+
+            int mergeableFacings = ModelQuadFacing.NONE;
+
+            if (mergeFaces) {
+                this.resetFacingCounts();
+
+                for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
+                    if ((visibleFaces & (1 << face.ordinal())) != 0) {
+                        this.countFacings(cachedQuads[face.ordinal()]);
+                    }
+                }
+
+                this.countFacings(cachedQuads[BlockModelQuadCache.UNCULLED_INDEX]);
+
+                mergeableFacings = this.getMergeableFacings();
+            }
+
+            for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
+                if ((visibleFaces & (1 << face.ordinal())) != 0) {
+                    this.renderQuadArray(ctx, material, lighter, colorizer, renderOffset, meshBuilder, cachedQuads[face.ordinal()], face, mergeableFacings);
+                }
+            }
+
+            BakedQuadView[] all = cachedQuads[BlockModelQuadCache.UNCULLED_INDEX];
+
+            if (all.length != 0) {
+                this.renderQuadArray(ctx, material, lighter, colorizer, renderOffset, meshBuilder, all, null, mergeableFacings);
+            }
+
+            return;
+        }
+
+        List<BakedQuad>[] faceQuads = this.faceQuads;
+
         for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
             List<BakedQuad> quads = this.getGeometry(ctx, face);
 
-            if (!quads.isEmpty() && this.isFaceVisible(ctx, face)) {
-                this.renderQuadList(ctx, material, lighter, colorizer, renderOffset, meshBuilder, quads, face);
-            }
+            faceQuads[face.ordinal()] = !quads.isEmpty() && this.isFaceVisible(ctx, face) ? quads : null;
         }
 
         List<BakedQuad> all = this.getGeometry(ctx, null);
 
+        int mergeableFacings = ModelQuadFacing.NONE;
+
+        if (mergeFaces) {
+            this.resetFacingCounts();
+
+            for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
+                if (faceQuads[face.ordinal()] != null) {
+                    this.countFacings(faceQuads[face.ordinal()]);
+                }
+            }
+
+            this.countFacings(all);
+
+            mergeableFacings = this.getMergeableFacings();
+        }
+
+        for (Direction face : DirectionUtil.ALL_DIRECTIONS) {
+            List<BakedQuad> quads = faceQuads[face.ordinal()];
+
+            if (quads != null) {
+                this.renderQuadList(ctx, material, lighter, colorizer, renderOffset, meshBuilder, quads, face, mergeableFacings);
+                faceQuads[face.ordinal()] = null;
+            }
+        }
+
         if (!all.isEmpty()) {
-            this.renderQuadList(ctx, material, lighter, colorizer, renderOffset, meshBuilder, all, null);
+            this.renderQuadList(ctx, material, lighter, colorizer, renderOffset, meshBuilder, all, null, mergeableFacings);
+        }
+    }
+
+    private void resetFacingCounts() {
+        Arrays.fill(this.facingQuadCounts, 0);
+    }
+
+    private void countFacings(BakedQuadView[] quads) {
+        for (BakedQuadView quad : quads) {
+            this.facingQuadCounts[quad.getNormalFace().ordinal()]++;
+        }
+    }
+
+    private void countFacings(List<BakedQuad> quads) {
+        // noinspection ForLoopReplaceableByForEach
+        for (int i = 0, quadsSize = quads.size(); i < quadsSize; i++) {
+            this.facingQuadCounts[((BakedQuadView) quads.get(i)).getNormalFace().ordinal()]++;
+        }
+    }
+
+    /**
+     * Returns the facings which only one quad of the block will be drawn with. When a facing has several quads (such as a
+     * base texture and an overlay) they must be drawn in model order, so none of them can be deferred to the mesher.
+     */
+    private int getMergeableFacings() {
+        int facings = ModelQuadFacing.NONE;
+
+        for (ModelQuadFacing facing : ModelQuadFacing.VALUES) {
+            if (facing != ModelQuadFacing.UNASSIGNED && this.facingQuadCounts[facing.ordinal()] == 1) {
+                facings |= 1 << facing.ordinal();
+            }
         }
+
+        return facings;
     }
 
     private List<BakedQuad> getGeometry(BlockRenderContext ctx, Direction face) {
@@ -95,23 +213,37 @@ public class BlockRenderer {
     }
 
     private void renderQuadList(BlockRenderContext ctx, Material material, LightPipeline lighter, ColorProvider<BlockState> colorizer, Vec3d offset,
-                                ChunkModelBuilder builder, List<BakedQuad> quads, Direction cullFace) {
+                                ChunkModelBuilder builder, List<BakedQuad> quads, Direction cullFace, int mergeableFacings) {
 
         // This is a very hot allocation, iterate over it manually
         // noinspection ForLoopReplaceableByForEach
         for (int i = 0, quadsSize = quads.size(); i < quadsSize; i++) {
-            BakedQuadView quad = (BakedQuadView) quads.get(i);
+            this.renderQuad(ctx, material, lighter, colorizer, offset, builder, (BakedQuadView) quads.get(i), cullFace, mergeableFacings);
+        }
+    }
+
+    private void renderQuadArray(BlockRenderContext ctx, Material material, LightPipeline lighter, ColorProvider<BlockState> colorizer, Vec3d offset,
+                                 ChunkModelBuilder builder, BakedQuadView[] quads, Direction cullFace, int mergeableFacings) {
+        for (BakedQuadView quad : quads) {
+            this.renderQuad(ctx, material, lighter, colorizer, offset, builder, quad, cullFace, mergeableFacings);
+        }
+    }
 
-            final var lightData = this.getVertexLight(ctx, lighter, cullFace, quad);
-            final var vertexColors = this.getVertexColors(ctx, colorizer, quad);
+    private void renderQuad(BlockRenderContext ctx, Material material, LightPipeline lighter, ColorProvider<BlockState> colorizer, Vec3d offset,
+                            ChunkModelBuilder builder, BakedQuadView quad, Direction cullFace, int mergeableFacings) {
+        final var lightData = this.getVertexLight(ctx, lighter, cullFace, quad);
+        final var vertexColors = this.getVertexColors(ctx, colorizer, quad);
 
+        boolean mergeFace = (mergeableFacings & (1 << quad.getNormalFace().ordinal())) != 0;
+
+        if (!mergeFace || !this.greedyMesher.add(ctx, quad, vertexColors, lightData)) {
             this.writeGeometry(ctx, builder, offset, material, quad, vertexColors, lightData);
+        }
 
-            Sprite sprite = quad.getSprite();
+        Sprite sprite = quad.getSprite();
 
-            if (sprite != null) {
-                builder.addSprite(sprite);
-            }
+        if (sprite != null) {
+            builder.addSprite(sprite);
         }
     }
 
@@ -0,0 +1,74 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline;
+
+import net.minecraft.fluid.Fluid;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.Arrays;
+
+/**
+ * Stores the fluid height of each block in a chunk section (and the ring of blocks which surround it horizontally)
+ * for the duration of a build. The height of a block is needed by the block itself and by each of its eight
+ * horizontal neighbors when computing their corner heights, so storing it avoids looking up the same block states
+ * many times over in large bodies of water.
+ *
+ * <p>Since the height of a block depends on which fluid it is compared against, each entry also stores the fluid it
+ * was computed for, and is only used when that fluid is of the same type.</p>
+ */
+public class FluidHeightGrid {
+    private static final int WIDTH = 16 + 2;
+    private static final int HEIGHT = 16;
+
+    private final float[] heights = new float[WIDTH * HEIGHT * WIDTH];
+    private final Fluid[] fluids = new Fluid[WIDTH * HEIGHT * WIDTH];
+
+    private int originX, originY, originZ;
+
+    // True if any entries have been stored since the grid was last cleared
+    private boolean dirty;
+
+    public void reset(ChunkSectionPos origin) {
+        this.originX = origin.getMinX();
+        this.originY = origin.getMinY();
+        this.originZ = origin.getMinZ();
+
+        if (this.dirty) {
+            Arrays.fill(this.fluids, null);
+            this.dirty = false;
+        }
+    }
+
+    /**
+     * @return The index of the block at the given world position, or -1 if the block is outside the grid
+     */
+    public int getIndex(int x, int y, int z) {
+        int lx = x - this.originX + 1;
+        int ly = y - this.originY;
+        int lz = z - this.originZ + 1;
+
+        if ((lx | ly | lz) < 0 || lx >= WIDTH || ly >= HEIGHT || lz >= WIDTH) {
+            return -1;
+        }
+
+        return (((ly * WIDTH) + lz) * WIDTH) + lx;
+    }
+
+    /**
+     * @return True if the height at the given index has been stored for a fluid of the same type
+     */
+    public boolean contains(int index, Fluid fluid) {
+        Fluid stored = this.fluids[index];
+
+        return stored == fluid || (stored != null && stored.matchesType(fluid));
+    }
+
+    public float get(int index) {
+        return this.heights[index];
+    }
+
+    public void set(int index, Fluid fluid, float height) {
+        this.heights[index] = height;
+        this.fluids[index] = fluid;
+
+        this.dirty = true;
+    }
+}
@@ -25,13 +25,13 @@ import net.fabricmc.fabric.api.client.render.fluid.v1.FluidRenderHandler;
 import net.fabricmc.fabric.api.client.render.fluid.v1.FluidRenderHandlerRegistry;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.SideShapeType;
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.texture.Sprite;
 import net.minecraft.fluid.Fluid;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.registry.tag.FluidTags;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
@@ -47,6 +47,7 @@ public class FluidRenderer {
     private static final float EPSILON = 0.001f;
 
     private final BlockPos.Mutable scratchPos = new BlockPos.Mutable();
+    private final BlockPos.Mutable heightPos = new BlockPos.Mutable();
     private final MutableFloat scratchHeight = new MutableFloat(0);
     private final MutableInt scratchSamples = new MutableInt();
 
@@ -60,22 +61,34 @@ public class FluidRenderer {
     private final ChunkVertexEncoder.Vertex[] vertices = ChunkVertexEncoder.Vertex.uninitializedQuad();
     private final ColorProviderRegistry colorProviderRegistry;
 
-    public FluidRenderer(ColorProviderRegistry colorProviderRegistry, LightPipelineProvider lighters) {
+    private final boolean useAmbientOcclusion;
+
+    private final FluidHeightGrid heightGrid = new FluidHeightGrid();
+
+    public FluidRenderer(ColorProviderRegistry colorProviderRegistry, LightPipelineProvider lighters, boolean useAmbientOcclusion) {
         this.quad.setNormal(NormI8.pack(0.0f, 1.0f, 0.0f));
 
         this.lighters = lighters;
         this.colorProviderRegistry = colorProviderRegistry;
+        this.useAmbientOcclusion = useAmbientOcclusion;
     }
 
-    private boolean isFluidOccluded(BlockRenderView world, int x, int y, int z, Direction dir, Fluid fluid) {
-        BlockPos pos = this.scratchPos.set(x, y, z);
-        BlockState blockState = world.getBlockState(pos);
+    /**
+     * Prepares the renderer for meshing the blocks of the given section. This must be called before each build.
+     */
+    public void reset(ChunkSectionPos origin) {
+        this.heightGrid.reset(origin);
+    }
+
+    private boolean isFluidOccluded(BlockRenderView world, BlockState blockState, int x, int y, int z, Direction dir, Fluid fluid) {
         BlockPos adjPos = this.scratchPos.set(x + dir.getOffsetX(), y + dir.getOffsetY(), z + dir.getOffsetZ());
 
-        if (blockState.isOpaque()) {
-            return world.getFluidState(adjPos).getFluid().matchesType(fluid) || blockState.isSideSolid(world, pos, dir, SideShapeType.FULL);
+        if (world.getFluidState(adjPos).getFluid().matchesType(fluid)) {
+            return true;
         }
-        return world.getFluidState(adjPos).getFluid().matchesType(fluid);
+
+        // Most blocks containing fluids are not opaque, in which case only the adjacent fluid needs to be checked
+        return blockState.isOpaque() && blockState.isSideSolid(world, this.scratchPos.set(x, y, z), dir, SideShapeType.FULL);
     }
 
     private boolean isSideExposed(BlockRenderView world, int x, int y, int z, Direction dir, float height) {
@@ -111,13 +124,16 @@ public class FluidRenderer {
 
         Fluid fluid = fluidState.getFluid();
 
-        boolean sfUp = this.isFluidOccluded(world, posX, posY, posZ, Direction.UP, fluid);
-        boolean sfDown = this.isFluidOccluded(world, posX, posY, posZ, Direction.DOWN, fluid) ||
+        // The state of the block containing the fluid only needs to be fetched once for every side
+        BlockState blockState = world.getBlockState(blockPos);
+
+        boolean sfUp = this.isFluidOccluded(world, blockState, posX, posY, posZ, Direction.UP, fluid);
+        boolean sfDown = this.isFluidOccluded(world, blockState, posX, posY, posZ, Direction.DOWN, fluid) ||
                 !this.isSideExposed(world, posX, posY, posZ, Direction.DOWN, 0.8888889F);
-        boolean sfNorth = this.isFluidOccluded(world, posX, posY, posZ, Direction.NORTH, fluid);
-        boolean sfSouth = this.isFluidOccluded(world, posX, posY, posZ, Direction.SOUTH, fluid);
-        boolean sfWest = this.isFluidOccluded(world, posX, posY, posZ, Direction.WEST, fluid);
-        boolean sfEast = this.isFluidOccluded(world, posX, posY, posZ, Direction.EAST, fluid);
+        boolean sfNorth = this.isFluidOccluded(world, blockState, posX, posY, posZ, Direction.NORTH, fluid);
+        boolean sfSouth = this.isFluidOccluded(world, blockState, posX, posY, posZ, Direction.SOUTH, fluid);
+        boolean sfWest = this.isFluidOccluded(world, blockState, posX, posY, posZ, Direction.WEST, fluid);
+        boolean sfEast = this.isFluidOccluded(world, blockState, posX, posY, posZ, Direction.EAST, fluid);
 
         if (sfUp && sfDown && sfEast && sfWest && sfNorth && sfSouth) {
             return;
@@ -130,37 +146,42 @@ public class FluidRenderer {
 
         Sprite[] sprites = handler.getFluidSprites(world, blockPos, fluidState);
 
-        float fluidHeight = this.fluidHeight(world, fluid, blockPos, Direction.UP);
+        float fluidHeight = this.getFluidHeight(world, fluid, posX, posY, posZ);
         float northWestHeight, southWestHeight, southEastHeight, northEastHeight;
+
+        // True if the fluid is part of a flat surface, such as the surface of an ocean or a lake
+        boolean isFlatSurface = false;
+
         if (fluidHeight >= 1.0f) {
             northWestHeight = 1.0f;
             southWestHeight = 1.0f;
             southEastHeight = 1.0f;
             northEastHeight = 1.0f;
+        } else if (this.isFlatSurface(world, fluid, fluidHeight, posX, posY, posZ)) {
+            // Every corner is the average of four equal heights, so only one of them needs to be computed
+            float height = this.flatCornerHeight(fluidHeight);
+
+            northWestHeight = height;
+            southWestHeight = height;
+            southEastHeight = height;
+            northEastHeight = height;
+
+            isFlatSurface = true;
         } else {
-            var scratchPos = new BlockPos.Mutable();
-            float heightNorth = this.fluidHeight(world, fluid, scratchPos.set(blockPos, Direction.NORTH), Direction.NORTH);
-            float heightSouth = this.fluidHeight(world, fluid, scratchPos.set(blockPos, Direction.SOUTH), Direction.SOUTH);
-            float heightEast = this.fluidHeight(world, fluid, scratchPos.set(blockPos, Direction.EAST), Direction.EAST);
-            float heightWest = this.fluidHeight(world, fluid, scratchPos.set(blockPos, Direction.WEST), Direction.WEST);
-            northWestHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightNorth, heightWest, scratchPos.set(blockPos)
-                    .move(Direction.NORTH)
-                    .move(Direction.WEST));
-            southWestHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightSouth, heightWest, scratchPos.set(blockPos)
-                    .move(Direction.SOUTH)
-                    .move(Direction.WEST));
-            southEastHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightSouth, heightEast, scratchPos.set(blockPos)
-                    .move(Direction.SOUTH)
-                    .move(Direction.EAST));
-            northEastHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightNorth, heightEast, scratchPos.set(blockPos)
-                    .move(Direction.NORTH)
-                    .move(Direction.EAST));
+            float heightNorth = this.getFluidHeight(world, fluid, posX, posY, posZ - 1);
+            float heightSouth = this.getFluidHeight(world, fluid, posX, posY, posZ + 1);
+            float heightEast = this.getFluidHeight(world, fluid, posX + 1, posY, posZ);
+            float heightWest = this.getFluidHeight(world, fluid, posX - 1, posY, posZ);
+            northWestHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightNorth, heightWest, posX - 1, posY, posZ - 1);
+            southWestHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightSouth, heightWest, posX - 1, posY, posZ + 1);
+            southEastHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightSouth, heightEast, posX + 1, posY, posZ + 1);
+            northEastHeight = this.fluidCornerHeight(world, fluid, fluidHeight, heightNorth, heightEast, posX + 1, posY, posZ - 1);
         }
         float yOffset = sfDown ? 0.0F : EPSILON;
 
         final ModelQuadViewMutable quad = this.quad;
 
-        LightMode lightMode = isWater && MinecraftClient.isAmbientOcclusionEnabled() ? LightMode.SMOOTH : LightMode.FLAT;
+        LightMode lightMode = isWater && this.useAmbientOcclusion ? LightMode.SMOOTH : LightMode.FLAT;
         LightPipeline lighter = this.lighters.getLighter(lightMode);
 
         quad.setFlags(0);
@@ -171,7 +192,8 @@ public class FluidRenderer {
             southEastHeight -= EPSILON;
             northEastHeight -= EPSILON;
 
-            Vec3d velocity = fluidState.getVelocity(world, blockPos);
+            // The fluid can't be flowing if every neighbor has the same height
+            Vec3d velocity = isFlatSurface ? Vec3d.ZERO : fluidState.getVelocity(world, blockPos);
 
             Sprite sprite;
             ModelQuadFacing facing;
@@ -433,13 +455,13 @@ public class FluidRenderer {
         quad.setTexV(i, v);
     }
 
-    private float fluidCornerHeight(BlockRenderView world, Fluid fluid, float fluidHeight, float fluidHeightX, float fluidHeightY, BlockPos blockPos) {
+    private float fluidCornerHeight(BlockRenderView world, Fluid fluid, float fluidHeight, float fluidHeightX, float fluidHeightY, int x, int y, int z) {
         if (fluidHeightY >= 1.0f || fluidHeightX >= 1.0f) {
             return 1.0f;
         }
 
         if (fluidHeightY > 0.0f || fluidHeightX > 0.0f) {
-            float height = this.fluidHeight(world, fluid, blockPos, Direction.UP);
+            float height = this.getFluidHeight(world, fluid, x, y, z);
 
             if (height >= 1.0f) {
                 return 1.0f;
@@ -459,6 +481,43 @@ public class FluidRenderer {
         return result;
     }
 
+    /**
+     * Returns whether the fluid and each of its eight horizontal neighbors are the same fluid at the same height, with
+     * no fluid above them. This is the case for almost every block on the surface of a still body of fluid, which can
+     * then skip computing the height of each corner and the velocity of the fluid.
+     *
+     * <p>Only the vanilla fluids are checked, since other fluids may compute their velocity differently.</p>
+     */
+    private boolean isFlatSurface(BlockRenderView world, Fluid fluid, float fluidHeight, int x, int y, int z) {
+        if (fluidHeight <= 0.0f || !(fluid.matchesType(Fluids.WATER) || fluid.matchesType(Fluids.LAVA))) {
+            return false;
+        }
+
+        for (int offsetX = -1; offsetX <= 1; offsetX++) {
+            for (int offsetZ = -1; offsetZ <= 1; offsetZ++) {
+                if ((offsetX != 0 || offsetZ != 0) &&
+                        this.getFluidHeight(world, fluid, x + offsetX, y, z + offsetZ) != fluidHeight) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // Gives exactly the same result as fluidCornerHeight when all four heights are equal
+    private float flatCornerHeight(float fluidHeight) {
+        for (int i = 0; i < 4; i++) {
+            this.modifyHeight(this.scratchHeight, this.scratchSamples, fluidHeight);
+        }
+
+        float result = this.scratchHeight.floatValue() / this.scratchSamples.intValue();
+        this.scratchHeight.setValue(0);
+        this.scratchSamples.setValue(0);
+
+        return result;
+    }
+
     private void modifyHeight(MutableFloat totalHeight, MutableInt samples, float target) {
         if (target >= 0.8f) {
             totalHeight.add(target * 10.0f);
@@ -469,12 +528,34 @@ public class FluidRenderer {
         }
     }
 
-    private float fluidHeight(BlockRenderView world, Fluid fluid, BlockPos blockPos, Direction direction) {
-        BlockState blockState = world.getBlockState(blockPos);
+    /**
+     * Returns the height of the fluid in the block at the given position, which is shared by up to nine blocks when
+     * computing corner heights. The heights of blocks in and around the section being built are only computed once.
+     */
+    private float getFluidHeight(BlockRenderView world, Fluid fluid, int x, int y, int z) {
+        FluidHeightGrid grid = this.heightGrid;
+        int index = grid.getIndex(x, y, z);
+
+        if (index < 0) {
+            return this.fluidHeight(world, fluid, x, y, z);
+        }
+
+        if (grid.contains(index, fluid)) {
+            return grid.get(index);
+        }
+
+        float height = this.fluidHeight(world, fluid, x, y, z);
+        grid.set(index, fluid, height);
+
+        return height;
+    }
+
+    private float fluidHeight(BlockRenderView world, Fluid fluid, int x, int y, int z) {
+        BlockState blockState = world.getBlockState(this.heightPos.set(x, y, z));
         FluidState fluidState = blockState.getFluidState();
 
         if (fluid.matchesType(fluidState.getFluid())) {
-            FluidState fluidStateUp = world.getFluidState(blockPos.up());
+            FluidState fluidStateUp = world.getFluidState(this.heightPos.set(x, y + 1, z));
 
             if (fluid.matchesType(fluidStateUp.getFluid())) {
                 return 1.0f;
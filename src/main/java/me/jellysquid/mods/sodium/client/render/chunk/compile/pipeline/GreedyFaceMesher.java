@@ -0,0 +1,373 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline;
+
+import me.jellysquid.mods.sodium.client.model.light.data.QuadLightData;
+import me.jellysquid.mods.sodium.client.model.quad.BakedQuadView;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.DefaultMaterials;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.material.Material;
+import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
+import net.caffeinemc.mods.sodium.api.util.ColorABGR;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+
+/**
+ * Merges the coplanar faces of full-cube opaque blocks into larger quads. Faces are collected while the blocks of a
+ * chunk section are rendered, and are only merged once all the blocks have been visited, at which point the merged
+ * quads are written into the mesh buffers of the solid render pass.
+ *
+ * <p>Two faces can only be merged if they use the same sprite with the same orientation, and if they have the same
+ * color and light values at every vertex. Since the sprite of a merged quad has to be repeated once for every block
+ * which it covers, the quads are written with repeat coordinates which the shader uses to wrap the texture coordinates
+ * around the bounds of the sprite.</p>
+ */
+public class GreedyFaceMesher {
+    private static final Material MATERIAL = DefaultMaterials.SOLID;
+
+    private static final int FACING_COUNT = 6;
+    private static final int LAYER_COUNT = FACING_COUNT * 16;
+    private static final int CELL_COUNT = LAYER_COUNT * 16 * 16;
+
+    // The largest sprite which can be repeated, limited by the number of bits used to encode its size
+    private static final int MAX_SPRITE_SIZE_LOG2 = 14;
+
+    // The mappings from the corners of a face to its texture coordinates, see #getTextureMapping
+    private static final int MAPPING_A = 0, MAPPING_A_FLIPPED = 1, MAPPING_B = 2, MAPPING_B_FLIPPED = 3;
+
+    // The faces in each cell, indexed by facing, layer, and then the position of the cell within the layer
+    private final Sprite[] sprites = new Sprite[CELL_COUNT];
+    private final int[] colors = new int[CELL_COUNT];
+    private final int[] lights = new int[CELL_COUNT];
+    private final int[] layouts = new int[CELL_COUNT];
+
+    // The number of faces in each layer, which allows empty layers to be skipped
+    private final int[] layerCounts = new int[LAYER_COUNT];
+
+    private final ChunkVertexEncoder.Vertex[] vertices = ChunkVertexEncoder.Vertex.uninitializedQuad();
+
+    /**
+     * Attempts to add the face of a full-cube opaque block, so that it can be merged with its neighbours.
+     *
+     * @return True if the face was added, otherwise false if it can not be merged and must be rendered as-is
+     */
+    public boolean add(BlockRenderContext ctx, BakedQuadView quad, int[] colors, QuadLightData light) {
+        ModelQuadFacing facing = quad.getNormalFace();
+
+        if (facing == ModelQuadFacing.UNASSIGNED) {
+            return false;
+        }
+
+        Sprite sprite = quad.getSprite();
+
+        if (sprite == null || !isSpriteRepeatable(sprite)) {
+            return false;
+        }
+
+        int lightmap = light.lm[0];
+        float brightness = light.br[0];
+        int color = colors[0];
+
+        for (int i = 1; i < 4; i++) {
+            if (light.lm[i] != lightmap || light.br[i] != brightness || colors[i] != color) {
+                return false;
+            }
+        }
+
+        // The high bits of each light coordinate are used to encode the repeat coordinates
+        if ((lightmap & 0xFF00FF00) != 0) {
+            return false;
+        }
+
+        int layout = getLayout(quad, facing, sprite);
+
+        if (layout < 0) {
+            return false;
+        }
+
+        float x = ctx.origin().x(), y = ctx.origin().y(), z = ctx.origin().z();
+        int layer = getLayerIndex(facing, x, y, z);
+        int cell = getCellIndex(layer, (int) getPlaneA(facing, x, y, z), (int) getPlaneB(facing, x, y, z));
+
+        // Another face of this block was already added in the same place
+        if (this.sprites[cell] != null) {
+            return false;
+        }
+
+        this.sprites[cell] = sprite;
+        this.colors[cell] = ColorABGR.withAlpha(color, brightness);
+        this.lights[cell] = lightmap;
+        this.layouts[cell] = layout;
+
+        this.layerCounts[layer]++;
+
+        return true;
+    }
+
+    /**
+     * Merges all the faces which were added and writes the resulting quads into the given buffers. Afterwards, the
+     * mesher is empty and can be used for the next chunk section.
+     */
+    public void flush(ChunkBuildBuffers buffers) {
+        var builder = buffers.get(MATERIAL);
+
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            if (this.layerCounts[layer] == 0) {
+                continue;
+            }
+
+            ModelQuadFacing facing = ModelQuadFacing.VALUES[layer >> 4];
+            var vertexBuffer = builder.getVertexBuffer(facing);
+
+            for (int b = 0; b < 16; b++) {
+                for (int a = 0; a < 16; a++) {
+                    int cell = getCellIndex(layer, a, b);
+
+                    if (this.sprites[cell] == null) {
+                        continue;
+                    }
+
+                    int width = 1;
+
+                    while (a + width < 16 && this.canMerge(cell, cell + width)) {
+                        width++;
+                    }
+
+                    int height = 1;
+
+                    expand:
+                    while (b + height < 16) {
+                        int row = cell + (height * 16);
+
+                        for (int i = 0; i < width; i++) {
+                            if (!this.canMerge(cell, row + i)) {
+                                break expand;
+                            }
+                        }
+
+                        height++;
+                    }
+
+                    this.writeQuad(facing, layer & 15, a, b, width, height, cell);
+                    vertexBuffer.push(this.vertices, MATERIAL);
+
+                    for (int j = 0; j < height; j++) {
+                        Arrays.fill(this.sprites, cell + (j * 16), cell + (j * 16) + width, null);
+                    }
+                }
+            }
+
+            this.layerCounts[layer] = 0;
+        }
+    }
+
+    /**
+     * Discards all the faces which were added, such as when the chunk section could not be finished.
+     */
+    public void reset() {
+        for (int layer = 0; layer < LAYER_COUNT; layer++) {
+            if (this.layerCounts[layer] != 0) {
+                Arrays.fill(this.sprites, getCellIndex(layer, 0, 0), getCellIndex(layer + 1, 0, 0), null);
+                this.layerCounts[layer] = 0;
+            }
+        }
+    }
+
+    private boolean canMerge(int cell, int other) {
+        return this.sprites[other] == this.sprites[cell] &&
+                this.colors[other] == this.colors[cell] &&
+                this.lights[other] == this.lights[cell] &&
+                this.layouts[other] == this.layouts[cell];
+    }
+
+    private void writeQuad(ModelQuadFacing facing, int layer, int a, int b, int width, int height, int cell) {
+        Sprite sprite = this.sprites[cell];
+        int layout = this.layouts[cell];
+
+        int tileSize = MathHelper.floorLog2(sprite.getContents().getWidth()) + 1;
+
+        int mappingU = (layout >> 8) & 3;
+        int mappingV = (layout >> 10) & 3;
+
+        float plane = layer + (isPositive(facing) ? 1.0f : 0.0f);
+
+        for (int i = 0; i < 4; i++) {
+            int cornerA = (layout >> (i * 2)) & 1;
+            int cornerB = (layout >> (i * 2 + 1)) & 1;
+
+            float posA = a + (cornerA * width);
+            float posB = b + (cornerB * height);
+
+            var out = this.vertices[i];
+
+            switch (facing) {
+                case POS_X, NEG_X -> { out.x = plane; out.y = posB; out.z = posA; }
+                case POS_Y, NEG_Y -> { out.x = posA; out.y = plane; out.z = posB; }
+                case POS_Z, NEG_Z -> { out.x = posA; out.y = posB; out.z = plane; }
+            }
+
+            out.color = this.colors[cell];
+            out.light = this.lights[cell];
+
+            // The texture coordinates of every vertex point to the origin of the sprite, with the repeat coordinates
+            // giving the offset from that origin in multiples of the sprite's size
+            out.u = sprite.getMinU();
+            out.v = sprite.getMinV();
+
+            out.tileU = getRepeatCoordinate(mappingU, cornerA, cornerB, width, height);
+            out.tileV = getRepeatCoordinate(mappingV, cornerA, cornerB, width, height);
+            out.tileSize = tileSize;
+        }
+    }
+
+    private static int getRepeatCoordinate(int mapping, int cornerA, int cornerB, int width, int height) {
+        return switch (mapping) {
+            case MAPPING_A -> cornerA * width;
+            case MAPPING_A_FLIPPED -> (1 - cornerA) * width;
+            case MAPPING_B -> cornerB * height;
+            case MAPPING_B_FLIPPED -> (1 - cornerB) * height;
+            default -> throw new IllegalArgumentException("Invalid texture mapping: " + mapping);
+        };
+    }
+
+    /**
+     * Determines which corner of the block face each vertex of the quad lies on, and how the texture coordinates of
+     * the quad map onto those corners. The lowest 8 bits contain the corner of each vertex, and the following two pairs
+     * of bits contain the mapping of the u- and v-coordinates.
+     *
+     * @return The layout of the quad, or -1 if the quad does not cover the whole face of the block with the whole sprite
+     */
+    private static int getLayout(BakedQuadView quad, ModelQuadFacing facing, Sprite sprite) {
+        float normal = isPositive(facing) ? 1.0f : 0.0f;
+
+        // Allow the texture coordinates to be off by up to half a texel, since some models shrink them slightly
+        float epsilonU = (sprite.getMaxU() - sprite.getMinU()) / (sprite.getContents().getWidth() * 2);
+        float epsilonV = (sprite.getMaxV() - sprite.getMinV()) / (sprite.getContents().getHeight() * 2);
+
+        int corners = 0, cornersSeen = 0;
+        int texCornersU = 0, texCornersV = 0;
+
+        for (int i = 0; i < 4; i++) {
+            float x = quad.getX(i), y = quad.getY(i), z = quad.getZ(i);
+
+            if (getPlaneNormal(facing, x, y, z) != normal) {
+                return -1;
+            }
+
+            int cornerA = getCorner(getPlaneA(facing, x, y, z));
+            int cornerB = getCorner(getPlaneB(facing, x, y, z));
+
+            int texCornerU = getTextureCorner(quad.getTexU(i), sprite.getMinU(), sprite.getMaxU(), epsilonU);
+            int texCornerV = getTextureCorner(quad.getTexV(i), sprite.getMinV(), sprite.getMaxV(), epsilonV);
+
+            if (cornerA < 0 || cornerB < 0 || texCornerU < 0 || texCornerV < 0) {
+                return -1;
+            }
+
+            corners |= (cornerA | (cornerB << 1)) << (i * 2);
+            cornersSeen |= 1 << (cornerA | (cornerB << 1));
+
+            texCornersU |= texCornerU << i;
+            texCornersV |= texCornerV << i;
+        }
+
+        // Each vertex must lie on a different corner of the face
+        if (cornersSeen != 0b1111) {
+            return -1;
+        }
+
+        int mappingU = getTextureMapping(corners, texCornersU);
+        int mappingV = getTextureMapping(corners, texCornersV);
+
+        // Both texture coordinates must vary along a different axis of the face
+        if (mappingU < 0 || mappingV < 0 || (mappingU >> 1) == (mappingV >> 1)) {
+            return -1;
+        }
+
+        return corners | (mappingU << 8) | (mappingV << 10);
+    }
+
+    private static int getTextureMapping(int corners, int texCorners) {
+        int cornersA = 0, cornersB = 0;
+
+        for (int i = 0; i < 4; i++) {
+            cornersA |= ((corners >> (i * 2)) & 1) << i;
+            cornersB |= ((corners >> (i * 2 + 1)) & 1) << i;
+        }
+
+        if (texCorners == cornersA) {
+            return MAPPING_A;
+        } else if (texCorners == (~cornersA & 0b1111)) {
+            return MAPPING_A_FLIPPED;
+        } else if (texCorners == cornersB) {
+            return MAPPING_B;
+        } else if (texCorners == (~cornersB & 0b1111)) {
+            return MAPPING_B_FLIPPED;
+        }
+
+        return -1;
+    }
+
+    private static int getCorner(float value) {
+        if (value == 0.0f) {
+            return 0;
+        } else if (value == 1.0f) {
+            return 1;
+        }
+
+        return -1;
+    }
+
+    private static int getTextureCorner(float value, float min, float max, float epsilon) {
+        if (Math.abs(value - min) <= epsilon) {
+            return 0;
+        } else if (Math.abs(value - max) <= epsilon) {
+            return 1;
+        }
+
+        return -1;
+    }
+
+    private static boolean isSpriteRepeatable(Sprite sprite) {
+        int width = sprite.getContents().getWidth();
+        int height = sprite.getContents().getHeight();
+
+        // The shader can only derive the bounds of square sprites with a power-of-two size
+        return width == height && MathHelper.isPowerOfTwo(width) && MathHelper.floorLog2(width) <= MAX_SPRITE_SIZE_LOG2;
+    }
+
+    private static boolean isPositive(ModelQuadFacing facing) {
+        return facing == ModelQuadFacing.POS_X || facing == ModelQuadFacing.POS_Y || facing == ModelQuadFacing.POS_Z;
+    }
+
+    private static int getLayerIndex(ModelQuadFacing facing, float x, float y, float z) {
+        return (facing.ordinal() << 4) | (int) getPlaneNormal(facing, x, y, z);
+    }
+
+    private static int getCellIndex(int layer, int a, int b) {
+        return (layer << 8) | (b << 4) | a;
+    }
+
+    private static float getPlaneNormal(ModelQuadFacing facing, float x, float y, float z) {
+        return switch (facing) {
+            case POS_X, NEG_X -> x;
+            case POS_Y, NEG_Y -> y;
+            default -> z;
+        };
+    }
+
+    private static float getPlaneA(ModelQuadFacing facing, float x, float y, float z) {
+        return switch (facing) {
+            case POS_X, NEG_X -> z;
+            default -> x;
+        };
+    }
+
+    private static float getPlaneB(ModelQuadFacing facing, float x, float y, float z) {
+        return switch (facing) {
+            case POS_Y, NEG_Y -> z;
+            default -> y;
+        };
+    }
+}
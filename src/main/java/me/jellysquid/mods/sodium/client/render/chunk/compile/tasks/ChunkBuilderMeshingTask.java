@@ -7,11 +7,16 @@ import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.TranslucentQuadSorter;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderCache;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderContext;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.pipeline.GreedyFaceMesher;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
+import me.jellysquid.mods.sodium.client.render.chunk.data.SectionMeshCells;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadData;
 import me.jellysquid.mods.sodium.client.util.task.CancellationToken;
+import me.jellysquid.mods.sodium.client.world.SectionPaletteFlags;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import net.minecraft.block.BlockRenderType;
@@ -19,14 +24,18 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.block.entity.BlockEntityRenderer;
+import net.minecraft.client.render.chunk.ChunkOcclusionData;
 import net.minecraft.client.render.chunk.ChunkOcclusionDataBuilder;
 import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.texture.Sprite;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.random.Random;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 
@@ -43,10 +52,46 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
 
     private final int buildTime;
 
+    // The camera position which translucent geometry should be sorted for, or null if it should not be sorted
+    private final @Nullable Vec3d cameraPosition;
+    private final boolean retainTranslucentData;
+
+    // The geometry of the previous build which the cells that are not meshed again are taken from, or null if every
+    // cell should be meshed
+    private final @Nullable SectionMeshCells previousMeshCells;
+    private final long dirtyCells;
+    private final boolean retainMeshCells;
+
     public ChunkBuilderMeshingTask(RenderSection render, ChunkRenderContext renderContext, int time) {
+        this(render, renderContext, time, null, false);
+    }
+
+    public ChunkBuilderMeshingTask(RenderSection render, ChunkRenderContext renderContext, int time,
+                                   @Nullable Vec3d cameraPosition, boolean retainTranslucentData) {
+        this(render, renderContext, time, cameraPosition, retainTranslucentData, null, SectionMeshCells.ALL_CELLS, false);
+    }
+
+    /**
+     * @param cameraPosition The camera position which translucent geometry should be sorted for, or null if it should
+     *                       be left in the order it was built in
+     * @param retainTranslucentData True if a copy of the translucent geometry should be kept, so that it can be sorted
+     *                              again without rebuilding the section
+     * @param previousMeshCells The geometry of the previous build, or null if every cell should be meshed
+     * @param dirtyCells The mask of cells which have changed since the previous build, and need to be meshed again
+     * @param retainMeshCells True if a copy of the geometry grouped by cells should be kept, so that the section can
+     *                        be partially rebuilt later
+     */
+    public ChunkBuilderMeshingTask(RenderSection render, ChunkRenderContext renderContext, int time,
+                                   @Nullable Vec3d cameraPosition, boolean retainTranslucentData,
+                                   @Nullable SectionMeshCells previousMeshCells, long dirtyCells, boolean retainMeshCells) {
         this.render = render;
         this.renderContext = renderContext;
         this.buildTime = time;
+        this.cameraPosition = cameraPosition;
+        this.retainTranslucentData = retainTranslucentData;
+        this.previousMeshCells = previousMeshCells;
+        this.dirtyCells = previousMeshCells != null ? dirtyCells : SectionMeshCells.ALL_CELLS;
+        this.retainMeshCells = retainMeshCells;
     }
 
     @Override
@@ -66,68 +111,127 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
         int minY = this.render.getOriginY();
         int minZ = this.render.getOriginZ();
 
-        int maxX = minX + 16;
-        int maxY = minY + 16;
-        int maxZ = minZ + 16;
-
         // Initialise with minX/minY/minZ so initial getBlockState crash context is correct
         BlockPos.Mutable blockPos = new BlockPos.Mutable(minX, minY, minZ);
         BlockPos.Mutable modelOffset = new BlockPos.Mutable();
 
         BlockRenderContext context = new BlockRenderContext(slice);
 
+        // Classify the section using the block states in its palette, which allows any work that the palette proves to
+        // be unnecessary to be skipped for every block
+        var blockData = this.renderContext.getOriginSection()
+                .getBlockData();
+
+        int paletteFlags = SectionPaletteFlags.compute(blockData);
+
+        boolean hasModels = (paletteFlags & (1 << SectionPaletteFlags.HAS_MODELS)) != 0;
+        boolean hasFluids = (paletteFlags & (1 << SectionPaletteFlags.HAS_FLUIDS)) != 0;
+        boolean hasBlockEntities = (paletteFlags & (1 << SectionPaletteFlags.HAS_BLOCK_ENTITIES)) != 0;
+
+        // If every block is known to be either opaque or not, the occlusion data can be created without visiting them
+        boolean hasUniformOpacity = (paletteFlags & ((1 << SectionPaletteFlags.ALL_OPAQUE) | (1 << SectionPaletteFlags.NONE_OPAQUE))) != 0;
+
+        // The block state of every block in the section, if they are all the same
+        BlockState uniformState = (paletteFlags & (1 << SectionPaletteFlags.SINGLE_STATE)) != 0 ?
+                SectionPaletteFlags.getSingleState(blockData) : null;
+
+        GreedyFaceMesher greedyMesher = cache.getGreedyMesher();
+
+        // Merged faces can span many cells, so the geometry can only be grouped by cells without the greedy mesher
+        boolean useMeshCells = greedyMesher == null && (this.retainMeshCells || this.previousMeshCells != null);
+        long dirtyCells = useMeshCells ? this.dirtyCells : SectionMeshCells.ALL_CELLS;
+
+        // The occlusion data in which fluids are opaque is only different when the section contains fluids
+        ChunkOcclusionDataBuilder fluidOccluder = cache.useFluidOcclusion() && hasFluids ? new ChunkOcclusionDataBuilder() : null;
+        boolean allOpaque = (paletteFlags & (1 << SectionPaletteFlags.ALL_OPAQUE)) != 0;
+
         try {
-            for (int y = minY; y < maxY; y++) {
-                if (cancellationToken.isCancelled()) {
-                    return null;
-                }
+            if (hasModels || hasFluids || hasBlockEntities || !hasUniformOpacity || useMeshCells) {
+                // The blocks are visited one cell at a time, so that the geometry of each cell is contiguous
+                for (int cell = 0; cell < SectionMeshCells.CELL_COUNT; cell++) {
+                    if (cancellationToken.isCancelled()) {
+                        return null;
+                    }
 
-                for (int z = minZ; z < maxZ; z++) {
-                    for (int x = minX; x < maxX; x++) {
-                        BlockState blockState = slice.getBlockState(x, y, z);
+                    // The blocks in cells which are not meshed again are still visited for their block entities and
+                    // occlusion, since those are cheap to find compared to building the geometry of each block
+                    boolean meshCell = (dirtyCells & (1L << cell)) != 0;
 
-                        if (blockState.isAir()) {
-                            continue;
-                        }
+                    if ((meshCell && (hasModels || hasFluids)) || hasBlockEntities || !hasUniformOpacity || fluidOccluder != null) {
+                        int cellMinX = minX + (SectionMeshCells.unpackCellX(cell) * SectionMeshCells.CELL_SIZE);
+                        int cellMinY = minY + (SectionMeshCells.unpackCellY(cell) * SectionMeshCells.CELL_SIZE);
+                        int cellMinZ = minZ + (SectionMeshCells.unpackCellZ(cell) * SectionMeshCells.CELL_SIZE);
 
-                        blockPos.set(x, y, z);
-                        modelOffset.set(x & 15, y & 15, z & 15);
+                        int cellMaxX = cellMinX + SectionMeshCells.CELL_SIZE;
+                        int cellMaxY = cellMinY + SectionMeshCells.CELL_SIZE;
+                        int cellMaxZ = cellMinZ + SectionMeshCells.CELL_SIZE;
 
-                        if (blockState.getRenderType() == BlockRenderType.MODEL) {
-                            BakedModel model = cache.getBlockModels()
-                                .getModel(blockState);
+                        for (int y = cellMinY; y < cellMaxY; y++) {
+                            for (int z = cellMinZ; z < cellMaxZ; z++) {
+                                for (int x = cellMinX; x < cellMaxX; x++) {
+                                    BlockState blockState = uniformState != null ? uniformState : slice.getBlockState(x, y, z);
 
-                            long seed = blockState.getRenderingSeed(blockPos);
+                                    if (blockState.isAir()) {
+                                        continue;
+                                    }
 
-                            context.update(blockPos, modelOffset, blockState, model, seed);
-                            cache.getBlockRenderer()
-                                .renderModel(context, buffers);
-                        }
+                                    blockPos.set(x, y, z);
+                                    modelOffset.set(x & 15, y & 15, z & 15);
 
-                        FluidState fluidState = blockState.getFluidState();
+                                    if (meshCell && hasModels && blockState.getRenderType() == BlockRenderType.MODEL) {
+                                        BakedModel model = cache.getBlockModels()
+                                            .getModel(blockState);
 
-                        if (!fluidState.isEmpty()) {
-                            cache.getFluidRenderer().render(slice, fluidState, blockPos, modelOffset, buffers);
-                        }
+                                        long seed = blockState.getRenderingSeed(blockPos);
+
+                                        context.update(blockPos, modelOffset, blockState, model, seed);
+                                        cache.getBlockRenderer()
+                                            .renderModel(context, buffers);
+                                    }
+
+                                    if (meshCell && hasFluids) {
+                                        FluidState fluidState = blockState.getFluidState();
+
+                                        if (!fluidState.isEmpty()) {
+                                            cache.getFluidRenderer().render(slice, fluidState, blockPos, modelOffset, buffers);
+                                        }
+                                    }
+
+                                    if (hasBlockEntities && blockState.hasBlockEntity()) {
+                                        BlockEntity entity = slice.getBlockEntity(blockPos);
+
+                                        if (entity != null) {
+                                            BlockEntityRenderer<BlockEntity> renderer = MinecraftClient.getInstance().getBlockEntityRenderDispatcher().get(entity);
+
+                                            if (renderer != null) {
+                                                renderData.addBlockEntity(entity, !renderer.rendersOutsideBoundingBox(entity));
+                                            }
+                                        }
+                                    }
 
-                        if (blockState.hasBlockEntity()) {
-                            BlockEntity entity = slice.getBlockEntity(blockPos);
+                                    boolean opaque = hasUniformOpacity ? allOpaque : blockState.isOpaqueFullCube(slice, blockPos);
 
-                            if (entity != null) {
-                                BlockEntityRenderer<BlockEntity> renderer = MinecraftClient.getInstance().getBlockEntityRenderDispatcher().get(entity);
+                                    if (!hasUniformOpacity && opaque) {
+                                        occluder.markClosed(blockPos);
+                                    }
 
-                                if (renderer != null) {
-                                    renderData.addBlockEntity(entity, !renderer.rendersOutsideBoundingBox(entity));
+                                    if (fluidOccluder != null && (opaque || !blockState.getFluidState().isEmpty())) {
+                                        fluidOccluder.markClosed(blockPos);
+                                    }
                                 }
                             }
                         }
+                    }
 
-                        if (blockState.isOpaqueFullCube(slice, blockPos)) {
-                            occluder.markClosed(blockPos);
-                        }
+                    if (useMeshCells) {
+                        buffers.endCell(cell);
                     }
                 }
             }
+
+            if (greedyMesher != null) {
+                greedyMesher.flush(buffers);
+            }
         } catch (CrashException ex) {
             // Propagate existing crashes (add context)
             throw fillCrashInfo(ex.getReport(), slice, blockPos);
@@ -136,20 +240,78 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
             throw fillCrashInfo(CrashReport.create(ex, "Encountered exception while building chunk meshes"), slice, blockPos);
         }
 
+        SectionMeshCells meshCells = null;
+
+        if (useMeshCells) {
+            // The animated sprites of the cells which were not meshed again are not known, so all the sprites of the
+            // previous build are kept until the next time every cell is meshed
+            if (this.previousMeshCells != null) {
+                addSprites(renderData, this.previousMeshCells.getAnimatedSprites());
+            }
+
+            meshCells = buffers.createMeshCells(this.previousMeshCells, dirtyCells, renderData.getAnimatedSprites());
+        }
+
         Map<TerrainRenderPass, BuiltSectionMeshParts> meshes = new Reference2ReferenceOpenHashMap<>();
+        TranslucentQuadData translucentData = null;
 
-        for (TerrainRenderPass pass : DefaultTerrainRenderPasses.ALL) {
-            BuiltSectionMeshParts mesh = buffers.createMesh(pass);
+        for (int passIndex = 0; passIndex < DefaultTerrainRenderPasses.ALL.length; passIndex++) {
+            TerrainRenderPass pass = DefaultTerrainRenderPasses.ALL[passIndex];
+            BuiltSectionMeshParts mesh = meshCells != null ? buffers.createMesh(meshCells, passIndex) : buffers.createMesh(pass);
 
             if (mesh != null) {
+                if (pass == DefaultTerrainRenderPasses.TRANSLUCENT && this.cameraPosition != null) {
+                    if (this.retainTranslucentData) {
+                        translucentData = TranslucentQuadData.copyOf(mesh.getVertexData().getDirectBuffer(),
+                                this.cameraPosition.x, this.cameraPosition.y, this.cameraPosition.z);
+                    }
+
+                    mesh = this.sortMesh(mesh, buffers);
+                }
+
                 meshes.put(pass, mesh);
                 renderData.addRenderPass(pass);
             }
         }
 
-        renderData.setOcclusionData(occluder.build());
+        renderData.setOcclusionData(hasUniformOpacity ? createUniformOcclusionData(paletteFlags) : occluder.build());
 
-        return new ChunkBuildOutput(this.render, renderData.build(), meshes, this.buildTime);
+        if (fluidOccluder != null) {
+            renderData.setFluidOcclusionData(fluidOccluder.build());
+        }
+
+        return new ChunkBuildOutput(this.render, renderData.build(), meshes, translucentData,
+                this.retainMeshCells ? meshCells : null, this.buildTime);
+    }
+
+    private static void addSprites(BuiltSectionInfo.Builder renderData, Sprite[] sprites) {
+        for (Sprite sprite : sprites) {
+            renderData.addSprite(sprite);
+        }
+    }
+
+    /**
+     * Creates the occlusion data for a section in which every block is opaque, or every block is not, which is the same
+     * as what {@link ChunkOcclusionDataBuilder} would produce after visiting each block.
+     */
+    private static ChunkOcclusionData createUniformOcclusionData(int paletteFlags) {
+        var data = new ChunkOcclusionData();
+        data.fill((paletteFlags & (1 << SectionPaletteFlags.NONE_OPAQUE)) != 0);
+
+        return data;
+    }
+
+    private BuiltSectionMeshParts sortMesh(BuiltSectionMeshParts mesh, ChunkBuildBuffers buffers) {
+        var vertexData = mesh.getVertexData();
+
+        try {
+            return TranslucentQuadSorter.createSortedMesh(vertexData.getDirectBuffer(), buffers.getVertexType(),
+                    (float) (this.cameraPosition.x - this.render.getOriginX()),
+                    (float) (this.cameraPosition.y - this.render.getOriginY()),
+                    (float) (this.cameraPosition.z - this.render.getOriginZ()));
+        } finally {
+            vertexData.free();
+        }
     }
 
     private CrashException fillCrashInfo(CrashReport report, WorldSlice slice, BlockPos pos) {
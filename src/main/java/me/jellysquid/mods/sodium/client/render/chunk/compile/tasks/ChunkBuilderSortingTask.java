@@ -0,0 +1,46 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.tasks;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.TranslucentQuadSorter;
+import me.jellysquid.mods.sodium.client.render.chunk.data.TranslucentQuadData;
+import me.jellysquid.mods.sodium.client.util.task.CancellationToken;
+
+/**
+ * Sorts the translucent geometry which was kept from the last time a section was built for a new camera position,
+ * without having to rebuild the section.
+ */
+public class ChunkBuilderSortingTask extends ChunkBuilderTask<ChunkSortOutput> {
+    private final RenderSection render;
+    private final TranslucentQuadData translucentData;
+
+    private final double cameraX, cameraY, cameraZ;
+
+    private final int buildTime;
+
+    public ChunkBuilderSortingTask(RenderSection render, TranslucentQuadData translucentData,
+                                   double cameraX, double cameraY, double cameraZ, int time) {
+        this.render = render;
+        this.translucentData = translucentData;
+        this.cameraX = cameraX;
+        this.cameraY = cameraY;
+        this.cameraZ = cameraZ;
+        this.buildTime = time;
+    }
+
+    @Override
+    public ChunkSortOutput execute(ChunkBuildContext context, CancellationToken cancellationToken) {
+        if (cancellationToken.isCancelled()) {
+            return null;
+        }
+
+        var mesh = TranslucentQuadSorter.createSortedMesh(this.translucentData.getVertexData(), context.buffers.getVertexType(),
+                (float) (this.cameraX - this.render.getOriginX()),
+                (float) (this.cameraY - this.render.getOriginY()),
+                (float) (this.cameraZ - this.render.getOriginZ()));
+
+        return new ChunkSortOutput(this.render, this.translucentData, mesh,
+                this.cameraX, this.cameraY, this.cameraZ, this.buildTime);
+    }
+}
@@ -3,6 +3,7 @@ package me.jellysquid.mods.sodium.client.render.chunk.data;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSectionFlags;
 import me.jellysquid.mods.sodium.client.render.chunk.occlusion.VisibilityEncoding;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.texture.SpriteUtil;
 import net.minecraft.block.entity.BlockEntity;
@@ -25,6 +26,9 @@ public class BuiltSectionInfo {
     public final int flags;
     public final long visibilityData;
 
+    // The visibility data with fluids treated as opaque, which is the same as the visibility data if it wasn't created
+    public final long fluidVisibilityData;
+
     public final BlockEntity @Nullable[] globalBlockEntities;
     public final BlockEntity @Nullable[] culledBlockEntities;
     public final Sprite @Nullable[] animatedSprites;
@@ -33,7 +37,8 @@ public class BuiltSectionInfo {
                              @NotNull Collection<BlockEntity> globalBlockEntities,
                              @NotNull Collection<BlockEntity> culledBlockEntities,
                              @NotNull Collection<Sprite> animatedSprites,
-                             @NotNull ChunkOcclusionData occlusionData) {
+                             @NotNull ChunkOcclusionData occlusionData,
+                             @Nullable ChunkOcclusionData fluidOcclusionData) {
         this.globalBlockEntities = toArray(globalBlockEntities, BlockEntity[]::new);
         this.culledBlockEntities = toArray(culledBlockEntities, BlockEntity[]::new);
         this.animatedSprites = toArray(animatedSprites, Sprite[]::new);
@@ -44,6 +49,10 @@ public class BuiltSectionInfo {
             flags |= 1 << RenderSectionFlags.HAS_BLOCK_GEOMETRY;
         }
 
+        if (blockRenderPasses.contains(DefaultTerrainRenderPasses.TRANSLUCENT)) {
+            flags |= 1 << RenderSectionFlags.HAS_TRANSLUCENT_GEOMETRY;
+        }
+
         if (!culledBlockEntities.isEmpty()) {
             flags |= 1 << RenderSectionFlags.HAS_BLOCK_ENTITIES;
         }
@@ -55,6 +64,7 @@ public class BuiltSectionInfo {
         this.flags = flags;
 
         this.visibilityData = VisibilityEncoding.encode(occlusionData);
+        this.fluidVisibilityData = fluidOcclusionData != null ? VisibilityEncoding.encode(fluidOcclusionData) : this.visibilityData;
     }
 
     public static class Builder {
@@ -64,6 +74,7 @@ public class BuiltSectionInfo {
         private final Set<Sprite> animatedSprites = new ObjectOpenHashSet<>();
 
         private ChunkOcclusionData occlusionData;
+        private ChunkOcclusionData fluidOcclusionData;
 
         public void addRenderPass(TerrainRenderPass pass) {
             this.blockRenderPasses.add(pass);
@@ -73,6 +84,14 @@ public class BuiltSectionInfo {
             this.occlusionData = data;
         }
 
+        /**
+         * Sets the occlusion data in which the blocks containing fluids are treated as opaque. If this is never set,
+         * the regular occlusion data is used instead.
+         */
+        public void setFluidOcclusionData(ChunkOcclusionData data) {
+            this.fluidOcclusionData = data;
+        }
+
         /**
          * Adds a sprite to this data container for tracking. If the sprite is tickable, it will be ticked every frame
          * before rendering as necessary.
@@ -84,6 +103,13 @@ public class BuiltSectionInfo {
             }
         }
 
+        /**
+         * @return The animated sprites which have been added so far
+         */
+        public Sprite[] getAnimatedSprites() {
+            return this.animatedSprites.toArray(Sprite[]::new);
+        }
+
         /**
          * Adds a block entity to the data container.
          * @param entity The block entity itself
@@ -94,7 +120,8 @@ public class BuiltSectionInfo {
         }
 
         public BuiltSectionInfo build() {
-            return new BuiltSectionInfo(this.blockRenderPasses, this.globalBlockEntities, this.culledBlockEntities, this.animatedSprites, this.occlusionData);
+            return new BuiltSectionInfo(this.blockRenderPasses, this.globalBlockEntities, this.culledBlockEntities, this.animatedSprites, this.occlusionData,
+                    this.fluidOcclusionData);
         }
     }
 
@@ -1,15 +1,55 @@
 package me.jellysquid.mods.sodium.client.render.chunk.data;
 
+import me.jellysquid.mods.sodium.client.gl.arena.PendingUpload;
 import me.jellysquid.mods.sodium.client.gl.util.VertexRange;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 
+/**
+ * The finished mesh of a chunk section for a single render pass. Everything which can be computed ahead of time is
+ * computed by the worker thread which built the mesh, so that the render thread only needs to copy the vertex data
+ * into the geometry arena and then add the offset of its allocation to the pre-computed layout.
+ */
 public class BuiltSectionMeshParts {
     private final VertexRange[] ranges;
     private final NativeBuffer buffer;
 
+    private final PendingUpload upload;
+
+    private final int sliceMask;
+    private final int[] sliceVertexOffsets = new int[ModelQuadFacing.COUNT];
+    private final int[] sliceElementCounts = new int[ModelQuadFacing.COUNT];
+
     public BuiltSectionMeshParts(NativeBuffer buffer, VertexRange[] ranges) {
         this.ranges = ranges;
         this.buffer = buffer;
+
+        this.upload = new PendingUpload(buffer);
+
+        int sliceMask = 0;
+        int vertexOffset = 0;
+
+        for (int facingIndex = 0; facingIndex < ModelQuadFacing.COUNT; facingIndex++) {
+            VertexRange vertexRange = ranges[facingIndex];
+            int vertexCount;
+
+            if (vertexRange != null) {
+                vertexCount = vertexRange.vertexCount();
+            } else {
+                vertexCount = 0;
+            }
+
+            this.sliceVertexOffsets[facingIndex] = vertexOffset;
+            this.sliceElementCounts[facingIndex] = (vertexCount >> 2) * 6;
+
+            if (vertexCount > 0) {
+                sliceMask |= 1 << facingIndex;
+            }
+
+            vertexOffset += vertexCount;
+        }
+
+        this.sliceMask = sliceMask;
     }
 
     public NativeBuffer getVertexData() {
@@ -19,4 +59,26 @@ public class BuiltSectionMeshParts {
     public VertexRange[] getVertexRanges() {
         return this.ranges;
     }
+
+    /**
+     * @return The upload of the vertex data, which holds the allocation in the geometry arena once it has completed
+     */
+    public PendingUpload getUpload() {
+        return this.upload;
+    }
+
+    public int getSliceMask() {
+        return this.sliceMask;
+    }
+
+    /**
+     * @return The offset (in vertices) of the given slice, relative to the start of the mesh
+     */
+    public int getSliceVertexOffset(int facing) {
+        return this.sliceVertexOffsets[facing];
+    }
+
+    public int getSliceElementCount(int facing) {
+        return this.sliceElementCounts[facing];
+    }
 }
@@ -0,0 +1,128 @@
+package me.jellysquid.mods.sodium.client.render.chunk.data;
+
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
+import net.minecraft.client.texture.Sprite;
+
+/**
+ * A copy of the geometry of a chunk section which is grouped by the cells of the section, where each cell is a
+ * 4x4x4 volume of blocks. When only a few blocks in the section change, the cells containing them can be meshed again
+ * and spliced together with the geometry of every other cell, instead of meshing the whole section again.
+ *
+ * <p>The cells of a section are numbered in XZY order, so that a set of cells can be stored as a 64-bit mask. Like
+ * {@link TranslucentQuadData}, the vertex data is kept on the Java heap and is never modified after it has been
+ * created.</p>
+ */
+public class SectionMeshCells {
+    public static final int CELL_SIZE = 4;
+    public static final int CELLS_PER_AXIS = 16 / CELL_SIZE;
+    public static final int CELL_COUNT = CELLS_PER_AXIS * CELLS_PER_AXIS * CELLS_PER_AXIS;
+
+    public static final long ALL_CELLS = -1L;
+    public static final long NO_CELLS = 0L;
+
+    // The vertex data for each render pass and facing, indexed by the position of the pass in DefaultTerrainRenderPasses.ALL
+    private final byte[][][] vertexData;
+
+    // The offset (in vertices) of the start of each cell for each render pass and facing, with one extra entry which
+    // holds the total number of vertices
+    private final int[][][] cellOffsets;
+
+    private final int stride;
+
+    // The animated sprites used by the geometry, which must be carried over when only some cells are meshed again
+    private final Sprite[] animatedSprites;
+
+    public SectionMeshCells(byte[][][] vertexData, int[][][] cellOffsets, int stride, Sprite[] animatedSprites) {
+        this.vertexData = vertexData;
+        this.cellOffsets = cellOffsets;
+        this.stride = stride;
+        this.animatedSprites = animatedSprites;
+    }
+
+    /**
+     * @return An empty set of arrays for the vertex data of each render pass and facing
+     */
+    public static byte[][][] createVertexDataArrays() {
+        return new byte[DefaultTerrainRenderPasses.ALL.length][ModelQuadFacing.COUNT][];
+    }
+
+    /**
+     * @return An empty set of arrays for the cell offsets of each render pass and facing
+     */
+    public static int[][][] createCellOffsetArrays() {
+        return new int[DefaultTerrainRenderPasses.ALL.length][ModelQuadFacing.COUNT][CELL_COUNT + 1];
+    }
+
+    public byte[] getVertexData(int pass, int facing) {
+        return this.vertexData[pass][facing];
+    }
+
+    /**
+     * @return The offset (in vertices) of the first vertex of the cell
+     */
+    public int getCellStart(int pass, int facing, int cell) {
+        return this.cellOffsets[pass][facing][cell];
+    }
+
+    /**
+     * @return The offset (in vertices) after the last vertex of the cell
+     */
+    public int getCellEnd(int pass, int facing, int cell) {
+        return this.cellOffsets[pass][facing][cell + 1];
+    }
+
+    public int getVertexCount(int pass, int facing) {
+        return this.cellOffsets[pass][facing][CELL_COUNT];
+    }
+
+    public int getStride() {
+        return this.stride;
+    }
+
+    public Sprite[] getAnimatedSprites() {
+        return this.animatedSprites;
+    }
+
+    public static int getCellIndex(int x, int y, int z) {
+        return (y << 4) | (z << 2) | x;
+    }
+
+    public static int unpackCellX(int cell) {
+        return cell & 3;
+    }
+
+    public static int unpackCellY(int cell) {
+        return (cell >> 4) & 3;
+    }
+
+    public static int unpackCellZ(int cell) {
+        return (cell >> 2) & 3;
+    }
+
+    /**
+     * Returns the mask of cells which intersect the given volume of blocks. The coordinates are relative to the origin
+     * of the section, and the parts of the volume which are outside the section are ignored.
+     */
+    public static long getCellMask(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        minZ = Math.max(minZ, 0);
+
+        maxX = Math.min(maxX, 15);
+        maxY = Math.min(maxY, 15);
+        maxZ = Math.min(maxZ, 15);
+
+        long mask = NO_CELLS;
+
+        for (int y = minY / CELL_SIZE; y <= maxY / CELL_SIZE; y++) {
+            for (int z = minZ / CELL_SIZE; z <= maxZ / CELL_SIZE; z++) {
+                for (int x = minX / CELL_SIZE; x <= maxX / CELL_SIZE; x++) {
+                    mask |= 1L << getCellIndex(x, y, z);
+                }
+            }
+        }
+
+        return mask;
+    }
+}
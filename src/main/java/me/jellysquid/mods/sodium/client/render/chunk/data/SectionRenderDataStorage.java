@@ -1,7 +1,6 @@
 package me.jellysquid.mods.sodium.client.render.chunk.data;
 
 import me.jellysquid.mods.sodium.client.gl.arena.GlBufferSegment;
-import me.jellysquid.mods.sodium.client.gl.util.VertexRange;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 
@@ -17,7 +16,7 @@ public class SectionRenderDataStorage {
     }
 
     public void setMeshes(int localSectionIndex,
-                          GlBufferSegment allocation, VertexRange[] ranges) {
+                          GlBufferSegment allocation, BuiltSectionMeshParts mesh) {
         if (this.allocations[localSectionIndex] != null) {
             this.allocations[localSectionIndex].delete();
             this.allocations[localSectionIndex] = null;
@@ -27,30 +26,15 @@ public class SectionRenderDataStorage {
 
         var pMeshData = this.getDataPointer(localSectionIndex);
 
-        int sliceMask = 0;
+        // The layout of the mesh was computed by the worker thread, so only the offset of the allocation is added here
         int vertexOffset = allocation.getOffset();
 
         for (int facingIndex = 0; facingIndex < ModelQuadFacing.COUNT; facingIndex++) {
-            VertexRange vertexRange = ranges[facingIndex];
-            int vertexCount;
-
-            if (vertexRange != null) {
-                vertexCount = vertexRange.vertexCount();
-            } else {
-                vertexCount = 0;
-            }
-
-            SectionRenderDataUnsafe.setVertexOffset(pMeshData, facingIndex, vertexOffset);
-            SectionRenderDataUnsafe.setElementCount(pMeshData, facingIndex, (vertexCount >> 2) * 6);
-
-            if (vertexCount > 0) {
-                sliceMask |= 1 << facingIndex;
-            }
-
-            vertexOffset += vertexCount;
+            SectionRenderDataUnsafe.setVertexOffset(pMeshData, facingIndex, vertexOffset + mesh.getSliceVertexOffset(facingIndex));
+            SectionRenderDataUnsafe.setElementCount(pMeshData, facingIndex, mesh.getSliceElementCount(facingIndex));
         }
 
-        SectionRenderDataUnsafe.setSliceMask(pMeshData, sliceMask);
+        SectionRenderDataUnsafe.setSliceMask(pMeshData, mesh.getSliceMask());
     }
 
     public void removeMeshes(int localSectionIndex) {
@@ -0,0 +1,77 @@
+package me.jellysquid.mods.sodium.client.render.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A copy of the translucent geometry of a chunk section which is kept in memory, so that its quads can be sorted again
+ * as the camera moves without having to rebuild the section. The vertex data is never modified after it has been
+ * created, which allows it to be read by sorting tasks on the worker threads while the render thread holds onto it.
+ *
+ * <p>The vertex data is kept on the Java heap rather than in native memory, since it may be referenced by tasks which
+ * are cancelled before they are ever executed, and would otherwise never be freed.</p>
+ */
+public class TranslucentQuadData {
+    private final byte[] vertexData;
+
+    // The camera position which the uploaded mesh was last sorted for, only accessed by the render thread
+    private double sortX, sortY, sortZ;
+    private boolean sortPending;
+
+    private TranslucentQuadData(byte[] vertexData, double sortX, double sortY, double sortZ) {
+        this.vertexData = vertexData;
+
+        this.sortX = sortX;
+        this.sortY = sortY;
+        this.sortZ = sortZ;
+    }
+
+    /**
+     * Copies the remaining vertex data in the given buffer.
+     *
+     * @param sortX The x-coordinate of the camera position which the mesh was sorted for
+     * @param sortY The y-coordinate of the camera position which the mesh was sorted for
+     * @param sortZ The z-coordinate of the camera position which the mesh was sorted for
+     */
+    public static TranslucentQuadData copyOf(ByteBuffer buffer, double sortX, double sortY, double sortZ) {
+        byte[] vertexData = new byte[buffer.remaining()];
+        buffer.duplicate()
+                .get(vertexData);
+
+        return new TranslucentQuadData(vertexData, sortX, sortY, sortZ);
+    }
+
+    /**
+     * @return A read-only view of the vertex data, in the byte order it was written with
+     */
+    public ByteBuffer getVertexData() {
+        return ByteBuffer.wrap(this.vertexData)
+                .asReadOnlyBuffer()
+                .order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return The squared distance between the given camera position and the position the mesh was last sorted for
+     */
+    public double getSquaredDistanceFromSortOrigin(double x, double y, double z) {
+        double dx = x - this.sortX;
+        double dy = y - this.sortY;
+        double dz = z - this.sortZ;
+
+        return (dx * dx) + (dy * dy) + (dz * dz);
+    }
+
+    public void setSortOrigin(double x, double y, double z) {
+        this.sortX = x;
+        this.sortY = y;
+        this.sortZ = z;
+    }
+
+    public boolean isSortPending() {
+        return this.sortPending;
+    }
+
+    public void setSortPending(boolean sortPending) {
+        this.sortPending = sortPending;
+    }
+}
@@ -1,7 +1,12 @@
 package me.jellysquid.mods.sodium.client.render.chunk.occlusion;
 
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import me.jellysquid.mods.sodium.client.util.collections.DoubleBufferedQueue;
 import me.jellysquid.mods.sodium.client.util.collections.ReadQueue;
 import me.jellysquid.mods.sodium.client.util.collections.WriteQueue;
@@ -11,16 +16,89 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 
 public class OcclusionCuller {
+    // Returned in place of the outgoing connections for sections which are outside the frustum or render distance
+    private static final int OUTSIDE_VIEWPORT = -1;
+
+    // The state of each render region after it has been tested against the viewport, as a set of flags. Regions which
+    // are partly inside the viewport have no flags, and each of their sections must be tested on its own.
+    static final int REGION_UNKNOWN = 0;
+    static final int REGION_OUTSIDE = 1 << 0;
+    static final int REGION_INSIDE_FRUSTUM = 1 << 1;
+    static final int REGION_INSIDE_DISTANCE = 1 << 2;
+
+    // The boxes of regions are grown by a block when they are tested, so that the small differences in rounding
+    // between the box of a region and the boxes of its sections can never change the result for any section
+    private static final float REGION_RADIUS_X = (RenderRegion.REGION_WIDTH * 8.0f) + 1.0f;
+    private static final float REGION_RADIUS_Y = (RenderRegion.REGION_HEIGHT * 8.0f) + 1.0f;
+    private static final float REGION_RADIUS_Z = (RenderRegion.REGION_LENGTH * 8.0f) + 1.0f;
+
+    // The state of each section in the frontier after it has been tested against the viewport
+    private static final byte FRONTIER_OUTSIDE = 0;
+    private static final byte FRONTIER_INSIDE = 1;
+    // The section is inside the frustum, but still needs to be tested against the render distance
+    private static final byte FRONTIER_INSIDE_FRUSTUM = 2;
+
+    // The minimum number of sections in a frontier before it will be processed in parallel, since smaller frontiers
+    // are faster to process than it takes to wake up the worker threads
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    // The number of sections which each parallel task will process
+    private static final int PARALLEL_BATCH_SIZE = 256;
+
     private final Long2ReferenceMap<RenderSection> sections;
+    private final Collection<RenderRegion> regions;
     private final World world;
 
     private final DoubleBufferedQueue<RenderSection> queue = new DoubleBufferedQueue<>();
 
-    public OcclusionCuller(Long2ReferenceMap<RenderSection> sections, World world) {
+    // The results of the last search, which are re-used by incremental searches. Every step through the graph moves
+    // one section further away from the origin, so the visible sections are stored in order of their distance (in
+    // steps) to the origin.
+    private final ReferenceArrayList<RenderSection> visibleSections = new ReferenceArrayList<>();
+    private final ReferenceArrayList<RenderSection> outsideSections = new ReferenceArrayList<>();
+
+    // The sections which have changed since the last search, and need to be re-visited
+    private final ReferenceLinkedOpenHashSet<RenderSection> dirtySections = new ReferenceLinkedOpenHashSet<>();
+
+    private boolean hasSearchResults;
+
+    private long searchOrigin;
+    private float searchDistance;
+    private boolean searchUsedOcclusionCulling;
+    private int searchFrame;
+
+    // Scratch buffers used by incremental searches, indexed by the distance (in steps) from the origin
+    private final ObjectArrayList<ReferenceArrayList<RenderSection>> pendingSections = new ObjectArrayList<>();
+    private final ReferenceOpenHashSet<RenderSection> queuedSections = new ReferenceOpenHashSet<>();
+
+    private final ReferenceArrayList<RenderSection> newlyVisibleSections = new ReferenceArrayList<>();
+    private final ReferenceArrayList<RenderSection> newlyOutsideSections = new ReferenceArrayList<>();
+    private final ReferenceArrayList<RenderSection> mergeBuffer = new ReferenceArrayList<>();
+
+    // The sections which were reached by the last search, which is published for culling entities
+    private final SectionVisibilityVolume visibilityVolume = new SectionVisibilityVolume();
+
+    private boolean useParallelSearch;
+
+    // Sections below this y-coordinate use the visibility data in which fluids are treated as opaque
+    private int fluidOcclusionLimit = Integer.MIN_VALUE;
+    private int searchFluidOcclusionLimit;
+
+    private final FrontierBuffers frontier = new FrontierBuffers(PARALLEL_THRESHOLD);
+
+    /**
+     * @param regions The render regions which contain the sections, which are tested against the viewport before the
+     *                sections within them
+     */
+    public OcclusionCuller(Long2ReferenceMap<RenderSection> sections, Collection<RenderRegion> regions, World world) {
         this.sections = sections;
+        this.regions = regions;
         this.world = world;
     }
 
@@ -30,57 +108,605 @@ public class OcclusionCuller {
                             boolean useOcclusionCulling,
                             int frame)
     {
+        this.visibleSections.clear();
+        this.outsideSections.clear();
+        this.dirtySections.clear();
+
+        this.testRegions(viewport, searchDistance);
+
         final var queues = this.queue;
         queues.reset();
 
         this.init(visitor, queues.write(), viewport, searchDistance, useOcclusionCulling, frame);
 
         while (queues.flip()) {
-            processQueue(visitor, viewport, searchDistance, useOcclusionCulling, frame, queues.read(), queues.write());
+            this.processQueue(visitor, viewport, searchDistance, useOcclusionCulling, frame, queues.read(), queues.write());
         }
+
+        var origin = viewport.getChunkCoord();
+
+        // Searches which start outside the world seed many sections at once, so their results are not ordered by
+        // distance and can't be updated incrementally
+        this.hasSearchResults = this.isWithinWorld(origin);
+
+        this.searchOrigin = origin.asLong();
+        this.searchDistance = searchDistance;
+        this.searchUsedOcclusionCulling = useOcclusionCulling;
+        this.searchFluidOcclusionLimit = this.fluidOcclusionLimit;
+        this.searchFrame = frame;
+
+        this.updateVisibilityVolume(origin, searchDistance);
     }
 
-    private static void processQueue(Consumer<RenderSection> visitor,
-                                     Viewport viewport,
-                                     float searchDistance,
-                                     boolean useOcclusionCulling,
-                                     int frame,
-                                     ReadQueue<RenderSection> readQueue,
-                                     WriteQueue<RenderSection> writeQueue)
+    /**
+     * Finds the visible sections by updating the results of the previous search, rather than searching the whole
+     * graph again. Only the sections which have changed since the last search, and the sections reachable from them,
+     * are re-visited. If the camera has moved into a different section (or the previous results can't be re-used for
+     * any other reason), this falls back to a full search.
+     *
+     * @param viewportChanged True if the frustum or camera position may have changed since the last search, in which
+     *                        case every section found by the last search must be tested against the new viewport
+     */
+    public void findVisibleIncremental(Consumer<RenderSection> visitor,
+                                       Viewport viewport,
+                                       float searchDistance,
+                                       boolean useOcclusionCulling,
+                                       boolean viewportChanged,
+                                       int frame)
     {
-        RenderSection section;
+        var origin = viewport.getChunkCoord();
+        var originSection = this.getRenderSection(origin.getX(), origin.getY(), origin.getZ());
 
-        while ((section = readQueue.dequeue()) != null) {
-            if (isOutsideRenderDistance(viewport, section, searchDistance)) {
+        if (!this.hasSearchResults || this.searchOrigin != origin.asLong() || this.searchDistance != searchDistance ||
+                this.searchUsedOcclusionCulling != useOcclusionCulling ||
+                this.searchFluidOcclusionLimit != this.fluidOcclusionLimit || originSection == null ||
+                originSection.getLastVisibleFrame() != this.searchFrame)
+        {
+            this.findVisible(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+            return;
+        }
+
+        this.testRegions(viewport, searchDistance);
+
+        for (var section : this.dirtySections) {
+            if (!section.isDisposed()) {
+                this.enqueue(origin, section);
+            }
+        }
+
+        if (viewportChanged) {
+            this.enqueueViewportChanges(origin, originSection, this.visibleSections, viewport, searchDistance);
+            this.enqueueViewportChanges(origin, originSection, this.outsideSections, viewport, searchDistance);
+        }
+
+        this.processPendingSections(origin, originSection, viewport, searchDistance, useOcclusionCulling);
+        this.dirtySections.clear();
+
+        this.mergeResults(origin, frame);
+
+        for (var section : this.visibleSections) {
+            visitor.accept(section);
+        }
+
+        this.updateVisibilityVolume(origin, searchDistance);
+    }
+
+    /**
+     * Returns the sections which were reached by the last search, including those which were found to be outside the
+     * viewport. The volume is updated by each search, and must not be modified.
+     */
+    public SectionVisibilityVolume getVisibilityVolume() {
+        return this.visibilityVolume;
+    }
+
+    private void updateVisibilityVolume(ChunkSectionPos origin, float searchDistance) {
+        var volume = this.visibilityVolume;
+
+        // Every visible section is within the search distance, and the search can only step one section further to
+        // reach the sections outside it
+        volume.reset(origin.getX(), origin.getZ(), MathHelper.ceil(searchDistance / 16.0f) + 2,
+                this.world.getBottomSectionCoord(), this.world.getTopSectionCoord());
+
+        for (var section : this.visibleSections) {
+            volume.add(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+        }
+
+        for (var section : this.outsideSections) {
+            volume.add(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+        }
+    }
+
+    /**
+     * Sets whether large frontiers of the graph search should be processed on multiple threads. The results of the
+     * search are the same either way.
+     */
+    public void setUseParallelSearch(boolean useParallelSearch) {
+        this.useParallelSearch = useParallelSearch;
+    }
+
+    /**
+     * Sets the section y-coordinate below which fluids are treated as opaque by the search, so that the sections
+     * beneath a large body of fluid are not reached through it. This is only correct when the camera is above the
+     * surface of the fluid.
+     *
+     * @param sectionY The y-coordinate of the first section which is not affected, or {@link Integer#MIN_VALUE} to
+     *                 never treat fluids as opaque
+     */
+    public void setFluidOcclusionLimit(int sectionY) {
+        this.fluidOcclusionLimit = sectionY;
+    }
+
+    /**
+     * Marks a section as needing to be re-visited by the next incremental search, because its visibility data has
+     * changed or it was just added to the graph.
+     */
+    public void markDirty(RenderSection section) {
+        this.dirtySections.add(section);
+    }
+
+    /**
+     * Marks the neighbors of a section which is about to be removed from the graph as needing to be re-visited.
+     */
+    public void onSectionRemoved(RenderSection section) {
+        this.dirtySections.remove(section);
+
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = section.getAdjacent(direction);
+
+            if (adjacent != null) {
+                this.dirtySections.add(adjacent);
+            }
+        }
+    }
+
+    private void enqueueViewportChanges(ChunkSectionPos origin,
+                                        RenderSection originSection,
+                                        ReferenceArrayList<RenderSection> sections,
+                                        Viewport viewport,
+                                        float searchDistance)
+    {
+        for (var section : sections) {
+            // The section containing the camera is always visible
+            if (section == originSection || section.isDisposed()) {
                 continue;
             }
 
-            if (isOutsideFrustum(viewport, section)) {
+            if (isOutsideViewport(viewport, section, searchDistance) != section.isOutsideViewport()) {
+                this.enqueue(origin, section);
+            }
+        }
+    }
+
+    private void enqueue(ChunkSectionPos origin, RenderSection section) {
+        if (!this.queuedSections.add(section)) {
+            return;
+        }
+
+        int distance = getStepDistance(origin, section);
+
+        while (this.pendingSections.size() <= distance) {
+            this.pendingSections.add(new ReferenceArrayList<>());
+        }
+
+        this.pendingSections.get(distance)
+                .add(section);
+    }
+
+    private void processPendingSections(ChunkSectionPos origin,
+                                        RenderSection originSection,
+                                        Viewport viewport,
+                                        float searchDistance,
+                                        boolean useOcclusionCulling)
+    {
+        // Sections can only be reached from sections closer to the origin, so by processing them in order of their
+        // distance, the sections leading into each section will always have been updated first
+        for (int distance = 0; distance < this.pendingSections.size(); distance++) {
+            var sections = this.pendingSections.get(distance);
+
+            for (int i = 0; i < sections.size(); i++) {
+                this.processPendingSection(origin, originSection, sections.get(i), viewport, searchDistance, useOcclusionCulling);
+            }
+
+            sections.clear();
+        }
+
+        this.queuedSections.clear();
+    }
+
+    private void processPendingSection(ChunkSectionPos origin,
+                                       RenderSection originSection,
+                                       RenderSection section,
+                                       Viewport viewport,
+                                       float searchDistance,
+                                       boolean useOcclusionCulling)
+    {
+        boolean changed = this.dirtySections.contains(section);
+
+        // The state of the section containing the camera never changes, but its connections might have
+        if (section != originSection) {
+            boolean wasReached = section.getLastVisibleFrame() == this.searchFrame;
+            boolean wasOutside = wasReached && section.isOutsideViewport();
+            boolean wasVisible = wasReached && !wasOutside;
+
+            int prevIncoming = section.getIncomingDirections();
+            int incoming = this.getIncomingDirections(origin, originSection, section, useOcclusionCulling);
+
+            boolean reached = incoming != GraphDirectionSet.NONE;
+            boolean outside = reached && isOutsideViewport(viewport, section, searchDistance);
+            boolean visible = reached && !outside;
+
+            if (reached) {
+                section.setLastVisibleFrame(this.searchFrame);
+                section.setIncomingDirections(incoming);
+                section.setOutsideViewport(outside);
+            } else {
+                section.setLastVisibleFrame(-1);
+            }
+
+            if (visible && !wasVisible) {
+                this.newlyVisibleSections.add(section);
+            } else if (outside && !wasOutside) {
+                this.newlyOutsideSections.add(section);
+            }
+
+            changed |= (reached != wasReached) || (visible != wasVisible) || (visible && incoming != prevIncoming);
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        int distance = getStepDistance(origin, section);
+
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = section.getAdjacent(direction);
+
+            if (adjacent != null && getStepDistance(origin, adjacent) > distance) {
+                this.enqueue(origin, adjacent);
+            }
+        }
+    }
+
+    private int getIncomingDirections(ChunkSectionPos origin, RenderSection originSection, RenderSection section,
+                                      boolean useOcclusionCulling)
+    {
+        int distance = getStepDistance(origin, section);
+        int incoming = GraphDirectionSet.NONE;
+
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = section.getAdjacent(direction);
+
+            // Only sections closer to the origin can lead into this one
+            if (adjacent == null || getStepDistance(origin, adjacent) >= distance) {
                 continue;
             }
 
-            visitor.accept(section);
+            if (adjacent.getLastVisibleFrame() != this.searchFrame || adjacent.isOutsideViewport()) {
+                continue;
+            }
+
+            int outgoing;
 
-            int connections;
+            if (!useOcclusionCulling) {
+                outgoing = GraphDirectionSet.ALL;
+            } else if (adjacent == originSection) {
+                outgoing = VisibilityEncoding.getConnections(getVisibilityData(adjacent, this.fluidOcclusionLimit));
+            } else {
+                outgoing = VisibilityEncoding.getConnections(getVisibilityData(adjacent, this.fluidOcclusionLimit),
+                        adjacent.getIncomingDirections());
+            }
+
+            if (GraphDirectionSet.contains(outgoing, GraphDirection.opposite(direction))) {
+                incoming |= GraphDirectionSet.of(direction);
+            }
+        }
+
+        return incoming;
+    }
+
+    private void mergeResults(ChunkSectionPos origin, int frame) {
+        var merged = this.mergeBuffer;
+        merged.clear();
+
+        var previous = this.visibleSections;
+        var added = this.newlyVisibleSections;
 
+        int previousIndex = 0;
+        int addedIndex = 0;
+
+        // Both lists are ordered by their distance to the origin, so they can be merged without sorting
+        while (previousIndex < previous.size() || addedIndex < added.size()) {
+            RenderSection section;
+
+            if (addedIndex >= added.size() || (previousIndex < previous.size() &&
+                    getStepDistance(origin, previous.get(previousIndex)) <= getStepDistance(origin, added.get(addedIndex))))
             {
-                if (useOcclusionCulling) {
-                    // When using occlusion culling, we can only traverse into neighbors for which there is a path of
-                    // visibility through this chunk. This is determined by taking all the incoming paths to this chunk and
-                    // creating a union of the outgoing paths from those.
-                    connections = VisibilityEncoding.getConnections(section.getVisibilityData(), section.getIncomingDirections());
-                } else {
-                    // Not using any occlusion culling, so traversing in any direction is legal.
-                    connections = GraphDirectionSet.ALL;
+                section = previous.get(previousIndex++);
+
+                // Skip sections which are no longer visible
+                if (section.isDisposed() || section.getLastVisibleFrame() != this.searchFrame || section.isOutsideViewport()) {
+                    continue;
                 }
+            } else {
+                section = added.get(addedIndex++);
+            }
+
+            section.setLastVisibleFrame(frame);
+            merged.add(section);
+        }
+
+        this.visibleSections.clear();
+        this.visibleSections.addAll(merged);
+
+        merged.clear();
 
-                // We can only traverse *outwards* from the center of the graph search, so mask off any invalid
-                // directions.
-                connections &= getOutwardDirections(viewport.getChunkCoord(), section);
+        for (var section : this.outsideSections) {
+            if (!section.isDisposed() && section.getLastVisibleFrame() == this.searchFrame && section.isOutsideViewport()) {
+                merged.add(section);
             }
+        }
+
+        merged.addAll(this.newlyOutsideSections);
 
-            visitNeighbors(writeQueue, section, connections, frame);
+        for (var section : merged) {
+            section.setLastVisibleFrame(frame);
         }
+
+        this.outsideSections.clear();
+        this.outsideSections.addAll(merged);
+
+        merged.clear();
+
+        this.newlyVisibleSections.clear();
+        this.newlyOutsideSections.clear();
+
+        this.searchFrame = frame;
+    }
+
+    private static int getStepDistance(ChunkSectionPos origin, RenderSection section) {
+        return Math.abs(section.getChunkX() - origin.getX()) +
+                Math.abs(section.getChunkY() - origin.getY()) +
+                Math.abs(section.getChunkZ() - origin.getZ());
+    }
+
+    private void processQueue(Consumer<RenderSection> visitor,
+                              Viewport viewport,
+                              float searchDistance,
+                              boolean useOcclusionCulling,
+                              int frame,
+                              ReadQueue<RenderSection> readQueue,
+                              WriteQueue<RenderSection> writeQueue)
+    {
+        int count = readQueue.size();
+
+        var frontier = this.frontier;
+        frontier.ensureCapacity(count);
+
+        if (this.useParallelSearch && count >= PARALLEL_THRESHOLD) {
+            this.processQueueParallel(visitor, viewport, searchDistance, useOcclusionCulling, frame, readQueue, writeQueue);
+            return;
+        }
+
+        testFrontier(viewport, readQueue, frontier, 0, count);
+
+        byte[] frontierState = frontier.state;
+
+        RenderSection section;
+        int index = 0;
+
+        while ((section = readQueue.dequeue()) != null) {
+            int connections = getOutgoingConnections(viewport, section, searchDistance, useOcclusionCulling,
+                    this.fluidOcclusionLimit, frontierState[index++]);
+            this.visitSection(visitor, writeQueue, section, connections, frame);
+        }
+    }
+
+    /**
+     * Tests the sections in the range {@code [start, end)} of the frontier against the viewport. Sections in regions
+     * which are entirely outside or inside the viewport take the result of their region, and the remaining sections
+     * are tested against the frustum at once, which is much cheaper than testing each section on its own as it is
+     * visited. The state of each section is written to the same index of {@link FrontierBuffers#state}.
+     *
+     * <p>Only the given range of the buffers is used, so separate ranges of the frontier can be tested by separate
+     * threads.</p>
+     */
+    private static void testFrontier(Viewport viewport, ReadQueue<RenderSection> queue, FrontierBuffers frontier, int start, int end) {
+        int[] frontierX = frontier.x;
+        int[] frontierY = frontier.y;
+        int[] frontierZ = frontier.z;
+        int[] frontierIndex = frontier.index;
+        byte[] frontierState = frontier.state;
+
+        // The sections which need to be tested against the frustum are packed at the start of the range
+        int testEnd = start;
+
+        for (int i = start; i < end; i++) {
+            RenderSection section = queue.peek(i);
+            int regionState = section.getRegion().getGraph().getViewportState();
+
+            if ((regionState & REGION_OUTSIDE) != 0) {
+                frontierState[i] = FRONTIER_OUTSIDE;
+                continue;
+            }
+
+            frontierState[i] = (regionState & REGION_INSIDE_DISTANCE) != 0 ? FRONTIER_INSIDE : FRONTIER_INSIDE_FRUSTUM;
+
+            if ((regionState & REGION_INSIDE_FRUSTUM) == 0) {
+                frontierX[testEnd] = section.getCenterX();
+                frontierY[testEnd] = section.getCenterY();
+                frontierZ[testEnd] = section.getCenterZ();
+                frontierIndex[testEnd] = i;
+
+                testEnd++;
+            }
+        }
+
+        viewport.testBoxes(frontierX, frontierY, frontierZ, start, testEnd, 8.0f, frontier.insideFrustum);
+
+        for (int i = start; i < testEnd; i++) {
+            if (!frontier.insideFrustum[i]) {
+                frontierState[frontierIndex[i]] = FRONTIER_OUTSIDE;
+            }
+        }
+    }
+
+    /**
+     * Tests every render region against the viewport, so that the sections within regions which are entirely outside
+     * or inside the viewport don't need to be tested on their own. This must be done before the sections are visited,
+     * since the results are read by the worker threads of a parallel search.
+     */
+    private void testRegions(Viewport viewport, float searchDistance) {
+        for (var region : this.regions) {
+            region.getGraph()
+                    .setViewportState(getRegionViewportState(viewport, region, searchDistance));
+        }
+    }
+
+    private static int getRegionViewportState(Viewport viewport, RenderRegion region, float searchDistance) {
+        var transform = viewport.getTransform();
+
+        int centerX = region.getOriginX() + (RenderRegion.REGION_WIDTH * 8);
+        int centerY = region.getOriginY() + (RenderRegion.REGION_HEIGHT * 8);
+        int centerZ = region.getOriginZ() + (RenderRegion.REGION_LENGTH * 8);
+
+        // The distance from the camera to the center of the region on each axis
+        float distanceX = Math.abs((centerX - transform.intX) - transform.fracX);
+        float distanceY = Math.abs((centerY - transform.intY) - transform.fracY);
+        float distanceZ = Math.abs((centerZ - transform.intZ) - transform.fracZ);
+
+        // The point of each section which is tested against the render distance is always inside the region, so the
+        // nearest and furthest points of the region bound the distances of all of its sections
+        float nearestX = Math.max(distanceX - REGION_RADIUS_X, 0.0f);
+        float nearestY = Math.max(distanceY - REGION_RADIUS_Y, 0.0f);
+        float nearestZ = Math.max(distanceZ - REGION_RADIUS_Z, 0.0f);
+
+        float distanceLimitSq = MathHelper.square(searchDistance);
+
+        if (getCylindricalDistanceSq(nearestX, nearestY, nearestZ) > distanceLimitSq) {
+            return REGION_OUTSIDE;
+        }
+
+        int state = REGION_UNKNOWN;
+
+        float furthestX = distanceX + REGION_RADIUS_X;
+        float furthestY = distanceY + REGION_RADIUS_Y;
+        float furthestZ = distanceZ + REGION_RADIUS_Z;
+
+        if (getCylindricalDistanceSq(furthestX, furthestY, furthestZ) <= distanceLimitSq) {
+            state |= REGION_INSIDE_DISTANCE;
+        }
+
+        int intersection = viewport.intersectBox(centerX, centerY, centerZ,
+                REGION_RADIUS_X, REGION_RADIUS_Y, REGION_RADIUS_Z);
+
+        if (intersection == Viewport.OUTSIDE) {
+            return REGION_OUTSIDE;
+        } else if (intersection == Viewport.INSIDE) {
+            state |= REGION_INSIDE_FRUSTUM;
+        }
+
+        return state;
+    }
+
+    // vanilla's "cylindrical fog" algorithm
+    // max(length(distance.xz), abs(distance.y))
+    private static float getCylindricalDistanceSq(float distanceX, float distanceY, float distanceZ) {
+        return Math.max((distanceX * distanceX) + (distanceZ * distanceZ), distanceY * distanceY);
+    }
+
+    /**
+     * Processes the sections of a frontier in two passes. The frustum and distance tests for each section, along with
+     * finding their outgoing connections, are independent of each other and are split across the fork/join pool. Each
+     * task tests its own range of the frontier against the frustum as a batch before finding the connections. The
+     * results are then applied on the calling thread in the same order as the queue, so that the next frontier (and
+     * the order in which sections are passed to the visitor) is exactly the same as with a single-threaded search.
+     */
+    private void processQueueParallel(Consumer<RenderSection> visitor,
+                                      Viewport viewport,
+                                      float searchDistance,
+                                      boolean useOcclusionCulling,
+                                      int frame,
+                                      ReadQueue<RenderSection> readQueue,
+                                      WriteQueue<RenderSection> writeQueue)
+    {
+        int count = readQueue.size();
+
+        // The buffers were already grown to fit the frontier by the caller
+        var connections = this.frontier.connections;
+
+        ParallelSearch.POOL.invoke(new FrontierTask(readQueue, this.frontier, viewport, searchDistance,
+                useOcclusionCulling, this.fluidOcclusionLimit, 0, count));
+
+        for (int i = 0; i < count; i++) {
+            this.visitSection(visitor, writeQueue, readQueue.dequeue(), connections[i], frame);
+        }
+    }
+
+    private void visitSection(Consumer<RenderSection> visitor,
+                              WriteQueue<RenderSection> writeQueue,
+                              RenderSection section,
+                              int connections,
+                              int frame)
+    {
+        if (connections == OUTSIDE_VIEWPORT) {
+            section.setOutsideViewport(true);
+            this.outsideSections.add(section);
+
+            return;
+        }
+
+        section.setOutsideViewport(false);
+        this.visibleSections.add(section);
+
+        visitor.accept(section);
+
+        visitNeighbors(writeQueue, section, connections, frame);
+    }
+
+    /**
+     * Returns the directions which the search can continue in from the given section, or {@link #OUTSIDE_VIEWPORT} if
+     * the section is outside the frustum or render distance. This only reads the state of the section, and is safe to
+     * call from multiple threads.
+     *
+     * @param frontierState The result of testing the section against the viewport, which is done for each batch of
+     *                      the frontier beforehand
+     */
+    private static int getOutgoingConnections(Viewport viewport, RenderSection section, float searchDistance, boolean useOcclusionCulling,
+                                              int fluidOcclusionLimit, byte frontierState) {
+        if (frontierState == FRONTIER_OUTSIDE ||
+                (frontierState == FRONTIER_INSIDE_FRUSTUM && isOutsideRenderDistance(viewport, section, searchDistance))) {
+            return OUTSIDE_VIEWPORT;
+        }
+
+        int connections;
+
+        if (useOcclusionCulling) {
+            // When using occlusion culling, we can only traverse into neighbors for which there is a path of
+            // visibility through this chunk. This is determined by taking all the incoming paths to this chunk and
+            // creating a union of the outgoing paths from those.
+            connections = VisibilityEncoding.getConnections(getVisibilityData(section, fluidOcclusionLimit), section.getIncomingDirections());
+        } else {
+            // Not using any occlusion culling, so traversing in any direction is legal.
+            connections = GraphDirectionSet.ALL;
+        }
+
+        // We can only traverse *outwards* from the center of the graph search, so mask off any invalid
+        // directions.
+        connections &= getOutwardDirections(viewport.getChunkCoord(), section);
+
+        return connections;
+    }
+
+    /**
+     * Returns the visibility data which the search should use for the given section, which is the data in which fluids
+     * are treated as opaque if the section is below the fluid occlusion limit.
+     */
+    private static long getVisibilityData(RenderSection section, int fluidOcclusionLimit) {
+        if (section.getChunkY() < fluidOcclusionLimit) {
+            return section.getFluidVisibilityData();
+        }
+
+        return section.getVisibilityData();
     }
 
     private static void visitNeighbors(final WriteQueue<RenderSection> queue, RenderSection section, int outgoing, int frame) {
@@ -98,27 +724,27 @@ public class OcclusionCuller {
         queue.ensureCapacity(6);
 
         if (GraphDirectionSet.contains(outgoing, GraphDirection.DOWN)) {
-            visitNode(queue, section.adjacentDown, GraphDirectionSet.of(GraphDirection.UP), frame);
+            visitNode(queue, section.getAdjacent(GraphDirection.DOWN), GraphDirectionSet.of(GraphDirection.UP), frame);
         }
 
         if (GraphDirectionSet.contains(outgoing, GraphDirection.UP)) {
-            visitNode(queue, section.adjacentUp, GraphDirectionSet.of(GraphDirection.DOWN), frame);
+            visitNode(queue, section.getAdjacent(GraphDirection.UP), GraphDirectionSet.of(GraphDirection.DOWN), frame);
         }
 
         if (GraphDirectionSet.contains(outgoing, GraphDirection.NORTH)) {
-            visitNode(queue, section.adjacentNorth, GraphDirectionSet.of(GraphDirection.SOUTH), frame);
+            visitNode(queue, section.getAdjacent(GraphDirection.NORTH), GraphDirectionSet.of(GraphDirection.SOUTH), frame);
         }
 
         if (GraphDirectionSet.contains(outgoing, GraphDirection.SOUTH)) {
-            visitNode(queue, section.adjacentSouth, GraphDirectionSet.of(GraphDirection.NORTH), frame);
+            visitNode(queue, section.getAdjacent(GraphDirection.SOUTH), GraphDirectionSet.of(GraphDirection.NORTH), frame);
         }
 
         if (GraphDirectionSet.contains(outgoing, GraphDirection.WEST)) {
-            visitNode(queue, section.adjacentWest, GraphDirectionSet.of(GraphDirection.EAST), frame);
+            visitNode(queue, section.getAdjacent(GraphDirection.WEST), GraphDirectionSet.of(GraphDirection.EAST), frame);
         }
 
         if (GraphDirectionSet.contains(outgoing, GraphDirection.EAST)) {
-            visitNode(queue, section.adjacentEast, GraphDirectionSet.of(GraphDirection.WEST), frame);
+            visitNode(queue, section.getAdjacent(GraphDirection.EAST), GraphDirectionSet.of(GraphDirection.WEST), frame);
         }
     }
 
@@ -170,14 +796,23 @@ public class OcclusionCuller {
         float distanceY = (pointY - transform.intY) - transform.fracY;
         float distanceZ = (pointZ - transform.intZ) - transform.fracZ;
 
-        // vanilla's "cylindrical fog" algorithm
-        // max(length(distance.xz), abs(distance.y))
-        var distanceSq = Math.max((distanceX * distanceX) + (distanceZ * distanceZ), distanceY * distanceY);
+        var distanceSq = getCylindricalDistanceSq(distanceX, distanceY, distanceZ);
         var distanceLimitSq = MathHelper.square(maxDistance);
 
         return distanceSq > distanceLimitSq;
     }
 
+    private static boolean isOutsideViewport(Viewport viewport, RenderSection section, float searchDistance) {
+        int regionState = section.getRegion().getGraph().getViewportState();
+
+        if ((regionState & REGION_OUTSIDE) != 0) {
+            return true;
+        }
+
+        return ((regionState & REGION_INSIDE_DISTANCE) == 0 && isOutsideRenderDistance(viewport, section, searchDistance)) ||
+                ((regionState & REGION_INSIDE_FRUSTUM) == 0 && isOutsideFrustum(viewport, section));
+    }
+
     public static boolean isOutsideFrustum(Viewport viewport, RenderSection section) {
         return !viewport.isBoxVisible(section.getCenterX(), section.getCenterY(), section.getCenterZ(), 8.0f);
     }
@@ -214,6 +849,9 @@ public class OcclusionCuller {
 
         section.setLastVisibleFrame(frame);
         section.setIncomingDirections(GraphDirectionSet.NONE);
+        section.setOutsideViewport(false);
+
+        this.visibleSections.add(section);
 
         visitor.accept(section);
 
@@ -222,7 +860,7 @@ public class OcclusionCuller {
         if (useOcclusionCulling) {
             // Since the camera is located inside this chunk, there are no "incoming" directions. So we need to instead
             // find any possible paths out of this chunk and enqueue those neighbors.
-            outgoing = VisibilityEncoding.getConnections(section.getVisibilityData());
+            outgoing = VisibilityEncoding.getConnections(getVisibilityData(section, this.fluidOcclusionLimit));
         } else {
             // Occlusion culling is disabled, so we can traverse into any neighbor.
             outgoing = GraphDirectionSet.ALL;
@@ -296,7 +934,113 @@ public class OcclusionCuller {
         visitNode(queue, section, GraphDirectionSet.of(direction), frame);
     }
 
+    private boolean isWithinWorld(ChunkSectionPos origin) {
+        return origin.getY() >= this.world.getBottomSectionCoord() && origin.getY() < this.world.getTopSectionCoord();
+    }
+
     private RenderSection getRenderSection(int x, int y, int z) {
         return this.sections.get(ChunkSectionPos.asLong(x, y, z));
     }
+
+    private static class FrontierTask extends RecursiveAction {
+        private final ReadQueue<RenderSection> queue;
+        private final FrontierBuffers frontier;
+
+        private final Viewport viewport;
+        private final float searchDistance;
+        private final boolean useOcclusionCulling;
+        private final int fluidOcclusionLimit;
+
+        private final int start, end;
+
+        private FrontierTask(ReadQueue<RenderSection> queue, FrontierBuffers frontier, Viewport viewport, float searchDistance,
+                             boolean useOcclusionCulling, int fluidOcclusionLimit, int start, int end)
+        {
+            this.queue = queue;
+            this.frontier = frontier;
+            this.viewport = viewport;
+            this.searchDistance = searchDistance;
+            this.useOcclusionCulling = useOcclusionCulling;
+            this.fluidOcclusionLimit = fluidOcclusionLimit;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.end - this.start > PARALLEL_BATCH_SIZE) {
+                int mid = (this.start + this.end) >>> 1;
+
+                invokeAll(this.split(this.start, mid), this.split(mid, this.end));
+                return;
+            }
+
+            testFrontier(this.viewport, this.queue, this.frontier, this.start, this.end);
+
+            byte[] frontierState = this.frontier.state;
+            int[] connections = this.frontier.connections;
+
+            for (int i = this.start; i < this.end; i++) {
+                connections[i] = getOutgoingConnections(this.viewport, this.queue.peek(i), this.searchDistance,
+                        this.useOcclusionCulling, this.fluidOcclusionLimit, frontierState[i]);
+            }
+        }
+
+        private FrontierTask split(int start, int end) {
+            return new FrontierTask(this.queue, this.frontier, this.viewport, this.searchDistance,
+                    this.useOcclusionCulling, this.fluidOcclusionLimit, start, end);
+        }
+    }
+
+    /**
+     * The scratch buffers used to test the sections of a frontier against the viewport and find their connections,
+     * which are indexed by the position of each section in the frontier.
+     */
+    private static class FrontierBuffers {
+        // The centers of the sections which need to be tested against the frustum, along with their index in the
+        // frontier and the result of the test, which allows them to be tested at once
+        private int[] x, y, z;
+        private int[] index;
+        private boolean[] insideFrustum;
+
+        // The state of each section in the frontier, as one of the FRONTIER_* constants
+        private byte[] state;
+
+        // The outgoing connections of each section in the frontier, which are found by the tasks of a parallel search
+        private int[] connections;
+
+        private FrontierBuffers(int capacity) {
+            this.allocate(capacity);
+        }
+
+        private void ensureCapacity(int count) {
+            if (this.state.length < count) {
+                this.allocate(Math.max(count, this.state.length * 2));
+            }
+        }
+
+        private void allocate(int capacity) {
+            this.x = new int[capacity];
+            this.y = new int[capacity];
+            this.z = new int[capacity];
+            this.index = new int[capacity];
+            this.insideFrustum = new boolean[capacity];
+            this.state = new byte[capacity];
+            this.connections = new int[capacity];
+        }
+    }
+
+    private static class ParallelSearch {
+        // Leave some cores for the render thread and chunk builders, which are running at the same time
+        private static final ForkJoinPool POOL = new ForkJoinPool(
+                Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 2, 8)),
+                pool -> {
+                    var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("Occlusion Culling Worker #" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+
+                    return thread;
+                },
+                null, false);
+    }
 }
@@ -0,0 +1,208 @@
+package me.jellysquid.mods.sodium.client.render.chunk.occlusion;
+
+import me.jellysquid.mods.sodium.client.render.chunk.LocalSectionIndex;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSectionFlags;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Stores the graph state of every section within a render region, as a set of dense arrays which are indexed by the
+ * local index of each section. The graph search reads and writes this state for every section it visits, and keeping
+ * it packed together means that neighboring sections are usually found in the same cache lines, rather than in
+ * separate objects scattered across the heap.
+ *
+ * <p>Neighboring sections are not linked directly. Instead, their local index is computed from the index of the
+ * section, and only the six neighboring regions need to be linked to cross over the borders of the region.</p>
+ */
+public class SectionGraphStorage {
+    private static final int X_MAX = RenderRegion.REGION_WIDTH - 1;
+    private static final int Y_MAX = RenderRegion.REGION_HEIGHT - 1;
+    private static final int Z_MAX = RenderRegion.REGION_LENGTH - 1;
+
+    private final RenderSection[] sections = new RenderSection[RenderRegion.REGION_SIZE];
+
+    private final SectionGraphStorage[] adjacentRegions = new SectionGraphStorage[GraphDirection.COUNT];
+
+    private final long[] visibilityData = new long[RenderRegion.REGION_SIZE];
+    private final long[] fluidVisibilityData = new long[RenderRegion.REGION_SIZE];
+    private final byte[] adjacentMask = new byte[RenderRegion.REGION_SIZE];
+    private final byte[] incomingDirections = new byte[RenderRegion.REGION_SIZE];
+    private final int[] lastVisibleFrame = new int[RenderRegion.REGION_SIZE];
+    private final int[] flags = new int[RenderRegion.REGION_SIZE];
+
+    // True if the section was reached by the last graph search, but was outside the frustum or render distance
+    private final boolean[] outsideViewport = new boolean[RenderRegion.REGION_SIZE];
+
+    // The result of testing the whole region against the viewport at the start of the last search, which lets the
+    // search skip the tests for each of its sections
+    private int viewportState = OcclusionCuller.REGION_UNKNOWN;
+
+    public SectionGraphStorage() {
+        Arrays.fill(this.visibilityData, VisibilityEncoding.NULL);
+        Arrays.fill(this.fluidVisibilityData, VisibilityEncoding.NULL);
+        Arrays.fill(this.lastVisibleFrame, -1);
+    }
+
+    /**
+     * Links two neighboring regions together, so that the graph search can cross over the border between them.
+     *
+     * @param direction The direction of {@param adjacent} from {@param storage}
+     */
+    public static void connect(SectionGraphStorage storage, int direction, SectionGraphStorage adjacent) {
+        storage.adjacentRegions[direction] = adjacent;
+        adjacent.adjacentRegions[GraphDirection.opposite(direction)] = storage;
+    }
+
+    /**
+     * Unlinks a region from all of its neighbors. This should be called before the region is deleted.
+     */
+    public static void disconnect(SectionGraphStorage storage) {
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = storage.adjacentRegions[direction];
+
+            if (adjacent != null) {
+                adjacent.adjacentRegions[GraphDirection.opposite(direction)] = null;
+                storage.adjacentRegions[direction] = null;
+            }
+        }
+    }
+
+    public @Nullable RenderSection getSection(int index) {
+        return this.sections[index];
+    }
+
+    /**
+     * Sets the section at the given index. When a section is added, the graph state which was left behind by any
+     * previous section at the same index is reset.
+     */
+    public void setSection(int index, @Nullable RenderSection section) {
+        this.sections[index] = section;
+
+        if (section != null) {
+            this.visibilityData[index] = VisibilityEncoding.NULL;
+            this.fluidVisibilityData[index] = VisibilityEncoding.NULL;
+            this.adjacentMask[index] = GraphDirectionSet.NONE;
+            this.incomingDirections[index] = GraphDirectionSet.NONE;
+            this.lastVisibleFrame[index] = -1;
+            this.flags[index] = RenderSectionFlags.NONE;
+            this.outsideViewport[index] = false;
+        }
+    }
+
+    /**
+     * Returns the section which is next to the section at the given index, which may be in a neighboring region.
+     */
+    public @Nullable RenderSection getAdjacent(int index, int direction) {
+        SectionGraphStorage storage = this;
+
+        if (isOnBorder(index, direction)) {
+            storage = this.adjacentRegions[direction];
+
+            if (storage == null) {
+                return null;
+            }
+        }
+
+        // The local index wraps around at the border of the region, which gives the index in the neighboring region
+        return storage.sections[getAdjacentIndex(index, direction)];
+    }
+
+    private static boolean isOnBorder(int index, int direction) {
+        return switch (direction) {
+            case GraphDirection.DOWN -> LocalSectionIndex.unpackY(index) == 0;
+            case GraphDirection.UP -> LocalSectionIndex.unpackY(index) == Y_MAX;
+            case GraphDirection.NORTH -> LocalSectionIndex.unpackZ(index) == 0;
+            case GraphDirection.SOUTH -> LocalSectionIndex.unpackZ(index) == Z_MAX;
+            case GraphDirection.WEST -> LocalSectionIndex.unpackX(index) == 0;
+            case GraphDirection.EAST -> LocalSectionIndex.unpackX(index) == X_MAX;
+            default -> throw new IllegalArgumentException("Invalid direction: " + direction);
+        };
+    }
+
+    private static int getAdjacentIndex(int index, int direction) {
+        return switch (direction) {
+            case GraphDirection.DOWN -> LocalSectionIndex.decY(index);
+            case GraphDirection.UP -> LocalSectionIndex.incY(index);
+            case GraphDirection.NORTH -> LocalSectionIndex.decZ(index);
+            case GraphDirection.SOUTH -> LocalSectionIndex.incZ(index);
+            case GraphDirection.WEST -> LocalSectionIndex.decX(index);
+            case GraphDirection.EAST -> LocalSectionIndex.incX(index);
+            default -> throw new IllegalArgumentException("Invalid direction: " + direction);
+        };
+    }
+
+    public int getAdjacentMask(int index) {
+        return this.adjacentMask[index];
+    }
+
+    public void setAdjacent(int index, int direction, boolean present) {
+        if (present) {
+            this.adjacentMask[index] |= (byte) GraphDirectionSet.of(direction);
+        } else {
+            this.adjacentMask[index] &= (byte) ~GraphDirectionSet.of(direction);
+        }
+    }
+
+    public long getVisibilityData(int index) {
+        return this.visibilityData[index];
+    }
+
+    public void setVisibilityData(int index, long visibilityData) {
+        this.visibilityData[index] = visibilityData;
+    }
+
+    public long getFluidVisibilityData(int index) {
+        return this.fluidVisibilityData[index];
+    }
+
+    public void setFluidVisibilityData(int index, long visibilityData) {
+        this.fluidVisibilityData[index] = visibilityData;
+    }
+
+    public int getIncomingDirections(int index) {
+        return this.incomingDirections[index];
+    }
+
+    public void setIncomingDirections(int index, int directions) {
+        this.incomingDirections[index] = (byte) directions;
+    }
+
+    public void addIncomingDirections(int index, int directions) {
+        this.incomingDirections[index] |= (byte) directions;
+    }
+
+    public int getLastVisibleFrame(int index) {
+        return this.lastVisibleFrame[index];
+    }
+
+    public void setLastVisibleFrame(int index, int frame) {
+        this.lastVisibleFrame[index] = frame;
+    }
+
+    public int getFlags(int index) {
+        return this.flags[index];
+    }
+
+    public void setFlags(int index, int flags) {
+        this.flags[index] = flags;
+    }
+
+    public boolean isOutsideViewport(int index) {
+        return this.outsideViewport[index];
+    }
+
+    public void setOutsideViewport(int index, boolean outsideViewport) {
+        this.outsideViewport[index] = outsideViewport;
+    }
+
+    public int getViewportState() {
+        return this.viewportState;
+    }
+
+    public void setViewportState(int viewportState) {
+        this.viewportState = viewportState;
+    }
+}
@@ -0,0 +1,79 @@
+package me.jellysquid.mods.sodium.client.render.chunk.occlusion;
+
+import java.util.Arrays;
+
+/**
+ * A bit-volume which stores whether each section around the camera was reached by the last graph search. It covers
+ * the full height of the world and a square area centered on the section containing the camera, which is large enough
+ * to hold every section the search can reach.
+ *
+ * <p>This allows entities (and anything else which needs to know if the sections around it are visible) to be culled
+ * with a few bit tests, rather than looking up each section in a hash table and comparing its last visible frame.</p>
+ */
+public class SectionVisibilityVolume {
+    private long[] words = new long[0];
+
+    private int minX, minY, minZ;
+    private int width, height;
+
+    /**
+     * Clears the volume and moves it to cover the given area.
+     *
+     * @param originX The x-coordinate of the section at the center of the volume
+     * @param originZ The z-coordinate of the section at the center of the volume
+     * @param radius The number of sections on each side of the center which are covered by the volume
+     * @param minY The y-coordinate of the bottom section of the world
+     * @param maxY The y-coordinate of the section above the top section of the world
+     */
+    public void reset(int originX, int originZ, int radius, int minY, int maxY) {
+        this.minX = originX - radius;
+        this.minY = minY;
+        this.minZ = originZ - radius;
+
+        this.width = (radius * 2) + 1;
+        this.height = maxY - minY;
+
+        int wordCount = ((this.width * this.width * this.height) + 63) >>> 6;
+
+        if (this.words.length < wordCount) {
+            this.words = new long[wordCount];
+        } else {
+            Arrays.fill(this.words, 0, wordCount, 0L);
+        }
+    }
+
+    /**
+     * Marks the section at the given position as reached. Sections outside the volume are ignored.
+     */
+    public void add(int x, int y, int z) {
+        int index = this.getIndex(x, y, z);
+
+        if (index >= 0) {
+            this.words[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * @return True if the section at the given position was reached by the last search
+     */
+    public boolean contains(int x, int y, int z) {
+        int index = this.getIndex(x, y, z);
+
+        return index >= 0 && (this.words[index >>> 6] & (1L << index)) != 0L;
+    }
+
+    /**
+     * @return The index of the bit for the section at the given position, or -1 if the section is outside the volume
+     */
+    private int getIndex(int x, int y, int z) {
+        int lx = x - this.minX;
+        int ly = y - this.minY;
+        int lz = z - this.minZ;
+
+        if ((lx | ly | lz) < 0 || lx >= this.width || ly >= this.height || lz >= this.width) {
+            return -1;
+        }
+
+        return (((ly * this.width) + lz) * this.width) + lx;
+    }
+}
@@ -1,6 +1,8 @@
 package me.jellysquid.mods.sodium.client.render.chunk.region;
 
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceSet;
 import me.jellysquid.mods.sodium.client.gl.arena.GlBufferArena;
 import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
@@ -9,13 +11,14 @@ import me.jellysquid.mods.sodium.client.gl.tessellation.GlTessellation;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.data.SectionRenderDataStorage;
 import me.jellysquid.mods.sodium.client.render.chunk.lists.ChunkRenderList;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.SectionGraphStorage;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
 import net.minecraft.util.math.ChunkSectionPos;
 import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
 import java.util.Map;
 
 public class RenderRegion {
@@ -40,22 +43,28 @@ public class RenderRegion {
     }
 
     private final StagingBuffer stagingBuffer;
+    private final SharedGeometryPool sharedPool;
     private final int x, y, z;
 
     private final ChunkRenderList renderList;
 
-    private final RenderSection[] sections = new RenderSection[RenderRegion.REGION_SIZE];
+    private final SectionGraphStorage graph = new SectionGraphStorage();
     private int sectionCount;
 
     private final Map<TerrainRenderPass, SectionRenderDataStorage> sectionRenderData = new Reference2ReferenceOpenHashMap<>();
     private DeviceResources resources;
 
-    public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer) {
+    /**
+     * @param sharedPool The pool which the geometry of this region should be allocated from, or null if the region
+     *                   should own its own geometry buffer
+     */
+    public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer, @Nullable SharedGeometryPool sharedPool) {
         this.x = x;
         this.y = y;
         this.z = z;
 
         this.stagingBuffer = stagingBuffer;
+        this.sharedPool = sharedPool;
         this.renderList = new ChunkRenderList(this);
     }
 
@@ -95,11 +104,12 @@ public class RenderRegion {
         this.sectionRenderData.clear();
 
         if (this.resources != null) {
-            this.resources.delete(commandList);
-            this.resources = null;
+            this.releaseResources(commandList);
         }
 
-        Arrays.fill(this.sections, null);
+        for (int sectionIndex = 0; sectionIndex < REGION_SIZE; sectionIndex++) {
+            this.graph.setSection(sectionIndex, null);
+        }
     }
 
     public boolean isEmpty() {
@@ -120,11 +130,17 @@ public class RenderRegion {
         return storage;
     }
 
+    /**
+     * Updates the meshes of every region using the same geometry buffer as this region, after the segments within the
+     * buffer have been moved.
+     */
     public void refresh(CommandList commandList) {
         if (this.resources != null) {
-            this.resources.deleteTessellations(commandList);
+            this.resources.refresh(commandList);
         }
+    }
 
+    private void onBufferResized() {
         for (var storage : this.sectionRenderData.values()) {
             storage.onBufferResized();
         }
@@ -132,19 +148,19 @@ public class RenderRegion {
 
     public void addSection(RenderSection section) {
         var sectionIndex = section.getSectionIndex();
-        var prev = this.sections[sectionIndex];
+        var prev = this.graph.getSection(sectionIndex);
 
         if (prev != null) {
             throw new IllegalStateException("Section has already been added to the region");
         }
 
-        this.sections[sectionIndex] = section;
+        this.graph.setSection(sectionIndex, section);
         this.sectionCount++;
     }
 
     public void removeSection(RenderSection section) {
         var sectionIndex = section.getSectionIndex();
-        var prev = this.sections[sectionIndex];
+        var prev = this.graph.getSection(sectionIndex);
 
         if (prev == null) {
             throw new IllegalStateException("Section was not loaded within the region");
@@ -156,12 +172,16 @@ public class RenderRegion {
             storage.removeMeshes(sectionIndex);
         }
 
-        this.sections[sectionIndex] = null;
+        this.graph.setSection(sectionIndex, null);
         this.sectionCount--;
     }
 
     public RenderSection getSection(int id) {
-        return this.sections[id];
+        return this.graph.getSection(id);
+    }
+
+    public SectionGraphStorage getGraph() {
+        return this.graph;
     }
 
     public DeviceResources getResources() {
@@ -170,16 +190,44 @@ public class RenderRegion {
 
     public DeviceResources createResources(CommandList commandList) {
         if (this.resources == null) {
-            this.resources = new DeviceResources(commandList, this.stagingBuffer);
+            if (this.sharedPool != null) {
+                this.resources = this.sharedPool.acquire(commandList, this);
+            } else {
+                this.resources = new DeviceResources(commandList, this.stagingBuffer, DeviceResources.DEFAULT_CAPACITY);
+                this.resources.addRegion(this);
+            }
         }
 
         return this.resources;
     }
 
-    public void update(CommandList commandList) {
-        if (this.resources != null && this.resources.shouldDelete()) {
+    private void releaseResources(CommandList commandList) {
+        if (this.sharedPool != null) {
+            this.sharedPool.release(commandList, this, this.resources);
+        } else {
             this.resources.delete(commandList);
-            this.resources = null;
+        }
+
+        this.resources = null;
+    }
+
+    /**
+     * Performs one step of defragmenting the geometry arena of this region, see {@link GlBufferArena#defragment}.
+     *
+     * @return The number of bytes which were copied
+     */
+    public int defragment(CommandList commandList, int maxBytes) {
+        if (this.resources == null) {
+            return 0;
+        }
+
+        return this.resources.defragment(commandList, maxBytes);
+    }
+
+    public void update(CommandList commandList) {
+        // Shared buffers are only released once the region is deleted, as other regions may still be using them
+        if (this.sharedPool == null && this.resources != null && this.resources.shouldDelete()) {
+            this.releaseResources(commandList);
         }
     }
 
@@ -187,13 +235,64 @@ public class RenderRegion {
         return this.renderList;
     }
 
+    /**
+     * The geometry buffer and vertex state used to draw one or more regions. Unless the shared geometry pool is in use,
+     * each region has its own resources.
+     */
     public static class DeviceResources {
+        // The initial capacity (in vertices) of the geometry buffer used by a single region
+        public static final int DEFAULT_CAPACITY = REGION_SIZE * 756;
+
         private final GlBufferArena geometryArena;
         private GlTessellation tessellation;
 
-        public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer) {
+        private final ReferenceSet<RenderRegion> regions = new ReferenceOpenHashSet<>();
+
+        public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer, int initialCapacity) {
             int stride = ChunkMeshFormats.COMPACT.getVertexFormat().getStride();
-            this.geometryArena = new GlBufferArena(commandList, REGION_SIZE * 756, stride, stagingBuffer);
+            this.geometryArena = new GlBufferArena(commandList, initialCapacity, stride, stagingBuffer);
+        }
+
+        void addRegion(RenderRegion region) {
+            this.regions.add(region);
+        }
+
+        void removeRegion(RenderRegion region) {
+            this.regions.remove(region);
+        }
+
+        public ReferenceSet<RenderRegion> getRegions() {
+            return this.regions;
+        }
+
+        /**
+         * Invalidates the tessellation and updates the meshes of every region using these resources. This must be
+         * called whenever the geometry buffer has been re-allocated or the segments within it have been moved.
+         */
+        public void refresh(CommandList commandList) {
+            this.deleteTessellations(commandList);
+
+            for (var region : this.regions) {
+                region.onBufferResized();
+            }
+        }
+
+        /**
+         * Performs one step of defragmenting the geometry arena, see {@link GlBufferArena#defragment}.
+         *
+         * @return The number of bytes which were copied
+         */
+        public int defragment(CommandList commandList, int maxBytes) {
+            GlBuffer buffer = this.geometryArena.getBufferObject();
+            int copiedBytes = this.geometryArena.defragment(commandList, maxBytes);
+
+            // The segments in the arena have moved or the arena has been copied into a smaller buffer, so the offsets
+            // of each mesh need to be updated. Nothing changes while the arena is still being copied.
+            if (this.geometryArena.getBufferObject() != buffer || (copiedBytes > 0 && !this.geometryArena.isShrinking())) {
+                this.refresh(commandList);
+            }
+
+            return copiedBytes;
         }
 
         public void updateTessellation(CommandList commandList, GlTessellation tessellation) {
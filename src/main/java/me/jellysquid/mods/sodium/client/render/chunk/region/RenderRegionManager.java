@@ -10,9 +10,10 @@ import me.jellysquid.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
-import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
 import me.jellysquid.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.GraphDirection;
+import me.jellysquid.mods.sodium.client.render.chunk.occlusion.SectionGraphStorage;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import me.jellysquid.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import org.jetbrains.annotations.NotNull;
@@ -20,12 +21,24 @@ import org.jetbrains.annotations.NotNull;
 import java.util.*;
 
 public class RenderRegionManager {
+    // The maximum number of bytes which will be copied each frame to defragment the geometry arenas
+    private static final int DEFRAGMENTATION_BUDGET = 4 * 1024 * 1024;
+
     private final Long2ReferenceOpenHashMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
 
     private final StagingBuffer stagingBuffer;
 
+    // The pool which all regions allocate their geometry from, or null if each region owns its own geometry buffer
+    private final SharedGeometryPool sharedPool;
+
     public RenderRegionManager(CommandList commandList) {
         this.stagingBuffer = createStagingBuffer(commandList);
+
+        if (SodiumClientMod.options().advanced.useSharedGeometryPool) {
+            this.sharedPool = new SharedGeometryPool(this.stagingBuffer);
+        } else {
+            this.sharedPool = null;
+        }
     }
 
     public void update() {
@@ -40,11 +53,33 @@ public class RenderRegionManager {
                 region.update(commandList);
 
                 if (region.isEmpty()) {
+                    SectionGraphStorage.disconnect(region.getGraph());
                     region.delete(commandList);
 
                     it.remove();
                 }
             }
+
+            if (SodiumClientMod.options().advanced.useGeometryDefragmentation) {
+                this.defragmentRegions(commandList);
+            }
+        }
+    }
+
+    private void defragmentRegions(CommandList commandList) {
+        if (this.sharedPool != null) {
+            this.sharedPool.defragment(commandList, DEFRAGMENTATION_BUDGET);
+            return;
+        }
+
+        int remainingBytes = DEFRAGMENTATION_BUDGET;
+
+        for (RenderRegion region : this.regions.values()) {
+            remainingBytes -= region.defragment(commandList, remainingBytes);
+
+            if (remainingBytes <= 0) {
+                break;
+            }
         }
     }
 
@@ -55,10 +90,18 @@ public class RenderRegionManager {
     }
 
     private void uploadMeshes(CommandList commandList, RenderRegion region, Collection<ChunkBuildOutput> results) {
-        var uploads = new ArrayList<PendingSectionUpload>();
+        // The layout of each mesh (and its pending upload) is created by the worker thread which built it, but the
+        // results are still filtered and grouped by region on this thread before they are uploaded. Whether a result
+        // is still current depends on section state which only this thread updates, and a result can only be grouped
+        // once it is known to be current, so neither step can be done by the workers
+        var uploads = new ArrayList<PendingUpload>();
 
         for (ChunkBuildOutput result : results) {
             for (TerrainRenderPass pass : DefaultTerrainRenderPasses.ALL) {
+                if (!result.replacesMeshes(pass)) {
+                    continue;
+                }
+
                 var storage = region.getStorage(pass);
 
                 if (storage != null) {
@@ -68,8 +111,7 @@ public class RenderRegionManager {
                 BuiltSectionMeshParts mesh = result.getMesh(pass);
 
                 if (mesh != null) {
-                    uploads.add(new PendingSectionUpload(result.render, mesh, pass,
-                            new PendingUpload(mesh.getVertexData())));
+                    uploads.add(mesh.getUpload());
                 }
             }
         }
@@ -82,20 +124,23 @@ public class RenderRegionManager {
         var resources = region.createResources(commandList);
         var arena = resources.getGeometryArena();
 
-        boolean bufferChanged = arena.upload(commandList, uploads.stream()
-                .map(upload -> upload.vertexUpload));
+        boolean bufferChanged = arena.upload(commandList, uploads.stream());
 
         // If any of the buffers changed, the tessellation will need to be updated
         // Once invalidated the tessellation will be re-created on the next attempted use
+        // When the buffer is shared, this also updates the other regions which are using it
         if (bufferChanged) {
             region.refresh(commandList);
         }
 
         // Collect the upload results
-        for (PendingSectionUpload upload : uploads) {
-            var storage = region.createStorage(upload.pass);
-            storage.setMeshes(upload.section.getSectionIndex(),
-                    upload.vertexUpload.getResult(), upload.meshData.getVertexRanges());
+        for (ChunkBuildOutput result : results) {
+            for (var entry : result.meshes.entrySet()) {
+                var mesh = entry.getValue();
+
+                var storage = region.createStorage(entry.getKey());
+                storage.setMeshes(result.render.getSectionIndex(), mesh.getUpload().getResult(), mesh);
+            }
         }
     }
 
@@ -116,6 +161,11 @@ public class RenderRegionManager {
         }
 
         this.regions.clear();
+
+        if (this.sharedPool != null) {
+            this.sharedPool.delete(commandList);
+        }
+
         this.stagingBuffer.delete(commandList);
     }
 
@@ -127,6 +177,10 @@ public class RenderRegionManager {
         return this.stagingBuffer;
     }
 
+    public SharedGeometryPool getSharedPool() {
+        return this.sharedPool;
+    }
+
     public RenderRegion createForChunk(int chunkX, int chunkY, int chunkZ) {
         return this.create(chunkX >> RenderRegion.REGION_WIDTH_SH,
                 chunkY >> RenderRegion.REGION_HEIGHT_SH,
@@ -139,13 +193,23 @@ public class RenderRegionManager {
         var instance = this.regions.get(key);
 
         if (instance == null) {
-            this.regions.put(key, instance = new RenderRegion(x, y, z, this.stagingBuffer));
+            this.regions.put(key, instance = new RenderRegion(x, y, z, this.stagingBuffer, this.sharedPool));
+            this.connectAdjacentRegions(instance, x, y, z);
         }
 
         return instance;
     }
 
-    private record PendingSectionUpload(RenderSection section, BuiltSectionMeshParts meshData, TerrainRenderPass pass, PendingUpload vertexUpload) {
+    private void connectAdjacentRegions(RenderRegion region, int x, int y, int z) {
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            var adjacent = this.regions.get(RenderRegion.key(x + GraphDirection.x(direction),
+                    y + GraphDirection.y(direction),
+                    z + GraphDirection.z(direction)));
+
+            if (adjacent != null) {
+                SectionGraphStorage.connect(region.getGraph(), direction, adjacent.getGraph());
+            }
+        }
     }
 
 
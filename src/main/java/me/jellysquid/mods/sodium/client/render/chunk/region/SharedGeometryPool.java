@@ -0,0 +1,102 @@
+package me.jellysquid.mods.sodium.client.render.chunk.region;
+
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+
+import java.util.List;
+
+/**
+ * A small set of large geometry buffers which are shared between many render regions, instead of each region owning
+ * its own buffer. Regions which are drawn one after another from the same buffer do not need to re-bind any vertex
+ * state, and the slack left over for growth and fragmentation is only paid once per buffer rather than once per region.
+ *
+ * <p>Regions are assigned to the first buffer which has not yet exceeded {@link #MAX_BUFFER_SIZE}, so that most regions
+ * end up sharing a buffer, and a new buffer is only created once all the others are full. Buffers can still grow past
+ * this limit if the regions which were already assigned to them need more space.</p>
+ */
+public class SharedGeometryPool {
+    // The number of regions which the initial capacity of each buffer is sized for
+    private static final int INITIAL_REGION_COUNT = 8;
+
+    // The size in bytes above which no more regions will be assigned to a buffer
+    private static final long MAX_BUFFER_SIZE = 256L * 1024L * 1024L;
+
+    private final StagingBuffer stagingBuffer;
+
+    private final ReferenceArrayList<RenderRegion.DeviceResources> buffers = new ReferenceArrayList<>();
+
+    public SharedGeometryPool(StagingBuffer stagingBuffer) {
+        this.stagingBuffer = stagingBuffer;
+    }
+
+    /**
+     * Assigns the region to one of the shared buffers, creating a new buffer if all the others are full.
+     */
+    public RenderRegion.DeviceResources acquire(CommandList commandList, RenderRegion region) {
+        RenderRegion.DeviceResources resources = null;
+
+        for (var buffer : this.buffers) {
+            if (buffer.getGeometryArena().getDeviceAllocatedMemory() < MAX_BUFFER_SIZE) {
+                resources = buffer;
+                break;
+            }
+        }
+
+        if (resources == null) {
+            resources = new RenderRegion.DeviceResources(commandList, this.stagingBuffer,
+                    RenderRegion.DeviceResources.DEFAULT_CAPACITY * INITIAL_REGION_COUNT);
+
+            this.buffers.add(resources);
+        }
+
+        resources.addRegion(region);
+
+        return resources;
+    }
+
+    /**
+     * Removes the region from the shared buffer it was assigned to. The buffer is deleted once no other regions are
+     * using it. The region must have already released all of its geometry in the buffer.
+     */
+    public void release(CommandList commandList, RenderRegion region, RenderRegion.DeviceResources resources) {
+        resources.removeRegion(region);
+
+        if (resources.getRegions().isEmpty()) {
+            resources.delete(commandList);
+
+            this.buffers.remove(resources);
+        }
+    }
+
+    /**
+     * Performs one step of defragmenting each shared buffer, see {@link RenderRegion.DeviceResources#defragment}.
+     *
+     * @return The number of bytes which were copied
+     */
+    public int defragment(CommandList commandList, int maxBytes) {
+        int remainingBytes = maxBytes;
+
+        for (var buffer : this.buffers) {
+            remainingBytes -= buffer.defragment(commandList, remainingBytes);
+
+            if (remainingBytes <= 0) {
+                break;
+            }
+        }
+
+        return maxBytes - remainingBytes;
+    }
+
+    public List<RenderRegion.DeviceResources> getBuffers() {
+        return this.buffers;
+    }
+
+    public void delete(CommandList commandList) {
+        for (var buffer : this.buffers) {
+            buffer.delete(commandList);
+        }
+
+        this.buffers.clear();
+    }
+}
@@ -14,6 +14,12 @@ public interface ChunkVertexEncoder {
         public float v;
         public int light;
 
+        // The coordinates of the vertex in repeats of the sprite, and the base-2 logarithm of the sprite's size in
+        // texels plus one, or zero if the sprite is not repeated across the quad
+        public int tileU;
+        public int tileV;
+        public int tileSize;
+
         public static Vertex[] uninitializedQuad() {
             Vertex[] vertices = new Vertex[4];
 
@@ -36,6 +36,16 @@ public class CompactChunkVertex implements ChunkVertexType {
         return (short) ((MODEL_ORIGIN + v) * MODEL_SCALE_INV);
     }
 
+    private static int encodeLight(ChunkVertexEncoder.Vertex vertex) {
+        int tileSize = vertex.tileSize;
+
+        // The light coordinates only use the low byte of each component, so the high bytes are used to store the
+        // repeat coordinates (6 bits each) and the size (2 bits each) of sprites which are repeated across the quad
+        return vertex.light |
+                ((vertex.tileU & 0x3F) << 8) | ((tileSize & 0x3) << 14) |
+                ((vertex.tileV & 0x3F) << 24) | (((tileSize >> 2) & 0x3) << 30);
+    }
+
     @Override
     public float getTextureScale() {
         return TEXTURE_SCALE;
@@ -72,7 +82,7 @@ public class CompactChunkVertex implements ChunkVertexType {
             MemoryUtil.memPutShort(ptr + 12, encodeBlockTexture(vertex.u));
             MemoryUtil.memPutShort(ptr + 14, encodeBlockTexture(vertex.v));
 
-            MemoryUtil.memPutInt(ptr + 16, vertex.light);
+            MemoryUtil.memPutInt(ptr + 16, encodeLight(vertex));
 
             return ptr + STRIDE;
         };
@@ -3,16 +3,42 @@ package me.jellysquid.mods.sodium.client.render.viewport;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkSectionPos;
 import org.joml.FrustumIntersection;
+import org.joml.Matrix4fc;
 
 public final class Viewport {
+    // The results of testing a box with #intersectBox
+    public static final int OUTSIDE = 0;
+    public static final int INTERSECT = 1;
+    public static final int INSIDE = 2;
+
+    private static final int PLANE_COUNT = 6;
+
     private final FrustumIntersection frustum;
     private final CameraTransform transform;
 
     private final ChunkSectionPos chunkCoords;
     private final BlockPos blockCoords;
 
-    public Viewport(FrustumIntersection frustum, double x, double y, double z) {
-        this.frustum = frustum;
+    // The planes of the frustum, stored as separate arrays for each component of the plane equations. These are
+    // extracted in the same order and with the same normalization as FrustumIntersection, so that testing a batch of
+    // boxes gives exactly the same results as testing each box with FrustumIntersection#testAab.
+    private final float[] planeX = new float[PLANE_COUNT];
+    private final float[] planeY = new float[PLANE_COUNT];
+    private final float[] planeZ = new float[PLANE_COUNT];
+    private final float[] planeW = new float[PLANE_COUNT];
+
+    // The sign of each component of the plane normals, which selects the corner of a box which is furthest along the
+    // normal, and the negated distance of each plane
+    private final float[] signX = new float[PLANE_COUNT];
+    private final float[] signY = new float[PLANE_COUNT];
+    private final float[] signZ = new float[PLANE_COUNT];
+    private final float[] limit = new float[PLANE_COUNT];
+
+    /**
+     * @param matrix The combined projection and model-view matrix of the camera
+     */
+    public Viewport(Matrix4fc matrix, double x, double y, double z) {
+        this.frustum = new FrustumIntersection(matrix);
         this.transform = new CameraTransform(x, y, z);
 
         this.chunkCoords = ChunkSectionPos.from(
@@ -22,6 +48,27 @@ public final class Viewport {
         );
 
         this.blockCoords = BlockPos.ofFloored(x, y, z);
+
+        this.setPlane(0, matrix.m03() + matrix.m00(), matrix.m13() + matrix.m10(), matrix.m23() + matrix.m20(), matrix.m33() + matrix.m30());
+        this.setPlane(1, matrix.m03() - matrix.m00(), matrix.m13() - matrix.m10(), matrix.m23() - matrix.m20(), matrix.m33() - matrix.m30());
+        this.setPlane(2, matrix.m03() + matrix.m01(), matrix.m13() + matrix.m11(), matrix.m23() + matrix.m21(), matrix.m33() + matrix.m31());
+        this.setPlane(3, matrix.m03() - matrix.m01(), matrix.m13() - matrix.m11(), matrix.m23() - matrix.m21(), matrix.m33() - matrix.m31());
+        this.setPlane(4, matrix.m03() + matrix.m02(), matrix.m13() + matrix.m12(), matrix.m23() + matrix.m22(), matrix.m33() + matrix.m32());
+        this.setPlane(5, matrix.m03() - matrix.m02(), matrix.m13() - matrix.m12(), matrix.m23() - matrix.m22(), matrix.m33() - matrix.m32());
+    }
+
+    private void setPlane(int index, float x, float y, float z, float w) {
+        float invLength = 1.0f / (float) Math.sqrt((x * x) + (y * y) + (z * z));
+
+        this.planeX[index] = x * invLength;
+        this.planeY[index] = y * invLength;
+        this.planeZ[index] = z * invLength;
+        this.planeW[index] = w * invLength;
+
+        this.signX[index] = this.planeX[index] < 0.0f ? -1.0f : 1.0f;
+        this.signY[index] = this.planeY[index] < 0.0f ? -1.0f : 1.0f;
+        this.signZ[index] = this.planeZ[index] < 0.0f ? -1.0f : 1.0f;
+        this.limit[index] = -this.planeW[index];
     }
 
     public boolean isBoxVisible(int intX, int intY, int intZ, float radius) {
@@ -40,6 +87,92 @@ public final class Viewport {
         );
     }
 
+    /**
+     * Tests a box against the frustum, and finds whether it is entirely inside the frustum, entirely outside it, or
+     * crosses one of its planes.
+     *
+     * @return One of {@link #OUTSIDE}, {@link #INTERSECT} or {@link #INSIDE}
+     */
+    public int intersectBox(int intX, int intY, int intZ, float radiusX, float radiusY, float radiusZ) {
+        float floatX = (intX - this.transform.intX) - this.transform.fracX;
+        float floatY = (intY - this.transform.intY) - this.transform.fracY;
+        float floatZ = (intZ - this.transform.intZ) - this.transform.fracZ;
+
+        int result = this.frustum.intersectAab(
+                floatX - radiusX,
+                floatY - radiusY,
+                floatZ - radiusZ,
+
+                floatX + radiusX,
+                floatY + radiusY,
+                floatZ + radiusZ
+        );
+
+        return switch (result) {
+            case FrustumIntersection.INSIDE -> INSIDE;
+            case FrustumIntersection.INTERSECT -> INTERSECT;
+            // Otherwise, the result is the index of the plane which the box is outside of
+            default -> OUTSIDE;
+        };
+    }
+
+    /**
+     * Tests a batch of boxes which all have the same radius against the frustum. The result for each box is the same
+     * as {@link #isBoxVisible(int, int, int, float)} would return, but the work which only depends on the planes of the
+     * frustum is done once for the whole batch, and the loop over the boxes has no branches.
+     *
+     * @param intX The x-coordinates of the center of each box
+     * @param intY The y-coordinates of the center of each box
+     * @param intZ The z-coordinates of the center of each box
+     * @param count The number of boxes to test
+     * @param radius The distance from the center to the faces of each box
+     * @param results The array which the visibility of each box is written to
+     */
+    public void testBoxes(int[] intX, int[] intY, int[] intZ, int count, float radius, boolean[] results) {
+        this.testBoxes(intX, intY, intZ, 0, count, radius, results);
+    }
+
+    /**
+     * Tests the boxes in the range {@code [start, end)} of the given arrays against the frustum, in the same way as
+     * {@link #testBoxes(int[], int[], int[], int, float, boolean[])}. The result for each box is written to the same
+     * index of the results array, which allows several threads to test separate ranges of the same arrays.
+     */
+    public void testBoxes(int[] intX, int[] intY, int[] intZ, int start, int end, float radius, boolean[] results) {
+        float[] planeX = this.planeX;
+        float[] planeY = this.planeY;
+        float[] planeZ = this.planeZ;
+
+        float[] signX = this.signX;
+        float[] signY = this.signY;
+        float[] signZ = this.signZ;
+        float[] limit = this.limit;
+
+        int cameraX = this.transform.intX;
+        int cameraY = this.transform.intY;
+        int cameraZ = this.transform.intZ;
+
+        float fracX = this.transform.fracX;
+        float fracY = this.transform.fracY;
+        float fracZ = this.transform.fracZ;
+
+        for (int i = start; i < end; i++) {
+            float x = (intX[i] - cameraX) - fracX;
+            float y = (intY[i] - cameraY) - fracY;
+            float z = (intZ[i] - cameraZ) - fracZ;
+
+            boolean visible = true;
+
+            // Multiplying the radius by the sign is exact, so the corner is the same as the one FrustumIntersection uses
+            for (int plane = 0; plane < PLANE_COUNT; plane++) {
+                visible &= (planeX[plane] * (x + (signX[plane] * radius))) +
+                        (planeY[plane] * (y + (signY[plane] * radius))) +
+                        (planeZ[plane] * (z + (signZ[plane] * radius))) >= limit[plane];
+            }
+
+            results[i] = visible;
+        }
+    }
+
     public CameraTransform getTransform() {
         return this.transform;
     }
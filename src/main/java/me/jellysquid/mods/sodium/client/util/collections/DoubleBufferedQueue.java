@@ -71,6 +71,11 @@ public final class DoubleBufferedQueue<E> {
             return this.elements[this.readIndex++];
         }
 
+        @Override
+        public E peek(int offset) {
+            return this.elements[this.readIndex + offset];
+        }
+
         @Override
         public void enqueue(@NotNull E e) {
             if (this.writeIndex >= this.elements.length) {
@@ -90,6 +95,7 @@ public final class DoubleBufferedQueue<E> {
             this.writeIndex = 0;
         }
 
+        @Override
         public int size() {
             return this.writeIndex - this.readIndex;
         }
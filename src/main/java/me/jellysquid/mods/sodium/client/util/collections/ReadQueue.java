@@ -4,4 +4,15 @@ import org.jetbrains.annotations.Nullable;
 
 public interface ReadQueue<E> {
     @Nullable E dequeue();
+
+    /**
+     * @return The number of elements which have not been dequeued yet
+     */
+    int size();
+
+    /**
+     * Returns the element at the given offset from the head of the queue, without dequeuing it. This is safe to call
+     * from multiple threads, as long as the queue isn't being modified at the same time.
+     */
+    E peek(int offset);
 }
@@ -0,0 +1,15 @@
+package me.jellysquid.mods.sodium.client.world;
+
+import net.minecraft.world.chunk.ChunkSection;
+
+public interface ChunkSectionExtended {
+    static ChunkSectionExtended of(ChunkSection section) {
+        return (ChunkSectionExtended) section;
+    }
+
+    /**
+     * @return A counter which is incremented whenever the block or biome data of the section is modified, so that
+     * copies of the section can tell whether they are still up-to-date
+     */
+    int sodium$getModificationCount();
+}
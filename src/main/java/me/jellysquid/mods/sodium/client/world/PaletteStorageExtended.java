@@ -1,7 +1,11 @@
 package me.jellysquid.mods.sodium.client.world;
 
-import net.minecraft.world.chunk.Palette;
-
 public interface PaletteStorageExtended {
-    <T> void sodium$unpack(T[] out, Palette<T> palette);
+    /**
+     * Unpacks every value in the storage, mapping each of them through the given table.
+     *
+     * @param out The array to write the mapped values into, which must be the same size as the storage
+     * @param remap The table which maps each value in the storage to the value to write
+     */
+    void sodium$unpack(short[] out, short[] remap);
 }
@@ -1,6 +1,10 @@
 package me.jellysquid.mods.sodium.client.world;
 
+import net.minecraft.world.chunk.Palette;
 import net.minecraft.world.chunk.ReadableContainer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.ToIntFunction;
 
 public interface ReadableContainerExtended<T> {
     @SuppressWarnings("unchecked")
@@ -16,8 +20,33 @@ public interface ReadableContainerExtended<T> {
         return of(container).sodium$copy();
     }
 
-    void sodium$unpack(T[] values);
-    void sodium$unpack(T[] values, int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+    /**
+     * Unpacks every value in the container into the given array, as the indices which the given function assigns to
+     * each value.
+     */
+    void sodium$unpack(short[] values, ToIntFunction<T> indexer);
+
+    /**
+     * Unpacks the values within the given bounds (inclusive) into the given array, as the indices which the given
+     * function assigns to each value. The rest of the array is left untouched.
+     */
+    void sodium$unpack(short[] values, ToIntFunction<T> indexer, int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
 
     ReadableContainer<T> sodium$copy();
+
+    /**
+     * Returns the palette of the container, which contains every value that the container holds. The palette may also
+     * contain values which are no longer held by the container, since entries are not removed from it until the
+     * container is resized.
+     *
+     * @return The palette of the container, or null if the container uses the global palette, in which case nothing
+     * can be learned about its contents from the palette
+     */
+    @Nullable Palette<T> sodium$getPalette();
+
+    /**
+     * @return An estimate of the number of bytes used by the storage and palette of the container, excluding the
+     * global palette which is shared by every container
+     */
+    long sodium$getMemoryUsage();
 }
@@ -0,0 +1,108 @@
+package me.jellysquid.mods.sodium.client.world;
+
+import net.minecraft.block.BlockRenderType;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EmptyBlockView;
+import net.minecraft.world.chunk.Palette;
+import net.minecraft.world.chunk.ReadableContainer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes the contents of a chunk section using only the block states in its palette, which is much cheaper than
+ * looking at every block in the section. Since the palette may contain block states which are no longer present in the
+ * section, each flag only states what the section might contain, or what holds for all of its blocks.
+ */
+public class SectionPaletteFlags {
+    public static final int HAS_MODELS          = 0;
+    public static final int HAS_FLUIDS          = 1;
+    public static final int HAS_BLOCK_ENTITIES  = 2;
+    public static final int ALL_OPAQUE          = 3;
+    public static final int NONE_OPAQUE         = 4;
+    public static final int SINGLE_STATE        = 5;
+
+    public static final int NONE = 0;
+
+    // The flags used when the palette is unknown, which require every block to be checked
+    private static final int UNKNOWN = (1 << HAS_MODELS) | (1 << HAS_FLUIDS) | (1 << HAS_BLOCK_ENTITIES);
+
+    /**
+     * @param container The block states of the section, or null if the section is empty
+     */
+    public static int compute(@Nullable ReadableContainer<BlockState> container) {
+        if (container == null) {
+            return (1 << NONE_OPAQUE) | (1 << SINGLE_STATE);
+        }
+
+        Palette<BlockState> palette = ReadableContainerExtended.of(container)
+                .sodium$getPalette();
+
+        if (palette == null) {
+            return UNKNOWN;
+        }
+
+        int flags = NONE;
+
+        boolean allOpaque = true;
+        boolean noneOpaque = true;
+
+        for (int i = 0; i < palette.getSize(); i++) {
+            BlockState state = palette.get(i);
+
+            if (state.getRenderType() == BlockRenderType.MODEL) {
+                flags |= 1 << HAS_MODELS;
+            }
+
+            if (!state.getFluidState().isEmpty()) {
+                flags |= 1 << HAS_FLUIDS;
+            }
+
+            if (state.hasBlockEntity()) {
+                flags |= 1 << HAS_BLOCK_ENTITIES;
+            }
+
+            // Blocks with dynamic bounds can only be checked in the world, since their shape depends on their position
+            if (state.getBlock().hasDynamicBounds()) {
+                allOpaque = false;
+                noneOpaque = false;
+            } else if (state.isOpaqueFullCube(EmptyBlockView.INSTANCE, BlockPos.ORIGIN)) {
+                noneOpaque = false;
+            } else {
+                allOpaque = false;
+            }
+        }
+
+        if (allOpaque) {
+            flags |= 1 << ALL_OPAQUE;
+        }
+
+        if (noneOpaque) {
+            flags |= 1 << NONE_OPAQUE;
+        }
+
+        if (palette.getSize() == 1) {
+            flags |= 1 << SINGLE_STATE;
+        }
+
+        return flags;
+    }
+
+    /**
+     * @return The only block state in the section, which must have the {@link #SINGLE_STATE} flag
+     */
+    public static BlockState getSingleState(@Nullable ReadableContainer<BlockState> container) {
+        if (container == null) {
+            return Blocks.AIR.getDefaultState();
+        }
+
+        Palette<BlockState> palette = ReadableContainerExtended.of(container)
+                .sodium$getPalette();
+
+        if (palette == null || palette.getSize() != 1) {
+            throw new IllegalStateException("Section does not contain a single block state");
+        }
+
+        return palette.get(0);
+    }
+}
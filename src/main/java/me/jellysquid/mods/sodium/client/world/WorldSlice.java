@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.world;
 
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import me.jellysquid.mods.sodium.client.world.biome.BiomeColorCache;
 import me.jellysquid.mods.sodium.client.world.biome.BiomeColorSource;
 import me.jellysquid.mods.sodium.client.world.biome.BiomeColorView;
@@ -28,6 +29,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.ToIntFunction;
 
 /**
  * <p>Takes a slice of world state (block states, biome and light data arrays) and copies the data for use in off-thread
@@ -57,6 +59,12 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
     // The size of the (Local Section -> Resource) arrays.
     private static final int SECTION_ARRAY_SIZE = SECTION_ARRAY_LENGTH * SECTION_ARRAY_LENGTH * SECTION_ARRAY_LENGTH;
 
+    // The index of the origin section in the (Local Section -> Resource) arrays.
+    public static final int ORIGIN_SECTION_INDEX = getLocalSectionIndex(NEIGHBOR_CHUNK_RADIUS, NEIGHBOR_CHUNK_RADIUS, NEIGHBOR_CHUNK_RADIUS);
+
+    // The index of air in the block state palette, which is always present.
+    private static final int AIR_PALETTE_INDEX = 0;
+
     // The number of bits needed for each local X/Y/Z coordinate.
     private static final int LOCAL_XYZ_BITS = 4;
 
@@ -69,8 +77,18 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
     // The biome blend cache
     private final BiomeColorCache biomeColors;
 
-    // (Local Section -> Block States) table.
-    private final BlockState[][] blockArrays;
+    // (Local Section -> Block State Palette Indices) table.
+    private final short[][] blockArrays;
+
+    // The block states which have been copied into this slice, indexed by the values in the block arrays. Only the
+    // palettes of the copied sections are added to it, so it stays far smaller than the range of a short.
+    private BlockState[] blockPalette;
+    private int blockPaletteSize;
+
+    // (Block State -> Palette Index) table.
+    private final Reference2IntOpenHashMap<BlockState> blockPaletteIndices;
+
+    private final ToIntFunction<BlockState> blockPaletteIndexer = this::getBlockPaletteIndex;
 
     // (Local Section -> Light Arrays) table.
     private final @Nullable ChunkNibbleArray[][] lightArrays;
@@ -125,18 +143,49 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
         return new ChunkRenderContext(origin, sections, volume);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Copies the sections which {@link #prepare(World, ChunkSectionPos, ClonedChunkSectionCache)} will need for the
+     * given origin into the cache ahead of time, see {@link ClonedChunkSectionCache#prewarm(int, int, int)}.
+     */
+    public static void prewarm(World world, ChunkSectionPos origin, ClonedChunkSectionCache sectionCache) {
+        WorldChunk chunk = world.getChunk(origin.getX(), origin.getZ());
+        ChunkSection section = chunk.getSectionArray()[world.sectionCoordToIndex(origin.getY())];
+
+        // Empty sections will never be prepared, so their neighbours are not needed
+        if (section == null || section.isEmpty()) {
+            return;
+        }
+
+        for (int chunkX = origin.getX() - NEIGHBOR_CHUNK_RADIUS; chunkX <= origin.getX() + NEIGHBOR_CHUNK_RADIUS; chunkX++) {
+            for (int chunkZ = origin.getZ() - NEIGHBOR_CHUNK_RADIUS; chunkZ <= origin.getZ() + NEIGHBOR_CHUNK_RADIUS; chunkZ++) {
+                for (int chunkY = origin.getY() - NEIGHBOR_CHUNK_RADIUS; chunkY <= origin.getY() + NEIGHBOR_CHUNK_RADIUS; chunkY++) {
+                    sectionCache.prewarm(chunkX, chunkY, chunkZ);
+                }
+            }
+        }
+    }
+
     public WorldSlice(ClientWorld world) {
+        this(world, MinecraftClient.getInstance().options.getBiomeBlendRadius().getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public WorldSlice(ClientWorld world, int biomeBlendRadius) {
         this.world = world;
 
-        this.blockArrays = new BlockState[SECTION_ARRAY_SIZE][SECTION_BLOCK_COUNT];
+        this.blockArrays = new short[SECTION_ARRAY_SIZE][SECTION_BLOCK_COUNT];
+
+        this.blockPalette = new BlockState[64];
+        this.blockPaletteIndices = new Reference2IntOpenHashMap<>();
+        this.blockPaletteIndices.defaultReturnValue(-1);
+
         this.lightArrays = new ChunkNibbleArray[SECTION_ARRAY_SIZE][LIGHT_TYPES.length];
 
         this.blockEntityArrays = new Int2ReferenceMap[SECTION_ARRAY_SIZE];
         this.blockEntityAttachmentArrays = new Int2ReferenceMap[SECTION_ARRAY_SIZE];
 
         this.biomeSlice = new BiomeSlice();
-        this.biomeColors = new BiomeColorCache(this.biomeSlice, MinecraftClient.getInstance().options.getBiomeBlendRadius().getValue());
+        this.biomeColors = new BiomeColorCache(this.biomeSlice, biomeBlendRadius);
     }
 
     public void copyData(ChunkRenderContext context) {
@@ -144,6 +193,8 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
         this.originY = (context.getOrigin().getY() - NEIGHBOR_CHUNK_RADIUS) << 4;
         this.originZ = (context.getOrigin().getZ() - NEIGHBOR_CHUNK_RADIUS) << 4;
 
+        this.resetBlockPalette();
+
         for (int x = 0; x < SECTION_ARRAY_LENGTH; x++) {
             for (int y = 0; y < SECTION_ARRAY_LENGTH; y++) {
                 for (int z = 0; z < SECTION_ARRAY_LENGTH; z++) {
@@ -170,9 +221,9 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
         this.blockEntityAttachmentArrays[sectionIndex] = section.getBlockEntityAttachmentMap();
     }
 
-    private void unpackBlockData(BlockState[] blockArray, ChunkRenderContext context, ClonedChunkSection section) {
+    private void unpackBlockData(short[] blockArray, ChunkRenderContext context, ClonedChunkSection section) {
         if (section.getBlockData() == null) {
-            Arrays.fill(blockArray, Blocks.AIR.getDefaultState());
+            Arrays.fill(blockArray, (short) AIR_PALETTE_INDEX);
             return;
         }
 
@@ -182,7 +233,7 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
         ChunkSectionPos pos = section.getPosition();
 
         if (origin.equals(pos))  {
-            container.sodium$unpack(blockArray);
+            container.sodium$unpack(blockArray, this.blockPaletteIndexer);
         } else {
             var bounds = context.getVolume();
 
@@ -195,11 +246,44 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
             int minBlockZ = Math.max(bounds.getMinZ(), pos.getMinZ());
             int maxBlockZ = Math.min(bounds.getMaxZ(), pos.getMaxZ());
 
-            container.sodium$unpack(blockArray, minBlockX & 15, minBlockY & 15, minBlockZ & 15,
+            container.sodium$unpack(blockArray, this.blockPaletteIndexer, minBlockX & 15, minBlockY & 15, minBlockZ & 15,
                     maxBlockX & 15, maxBlockY & 15, maxBlockZ & 15);
         }
     }
 
+    private void resetBlockPalette() {
+        // The old entries are simply overwritten. The parts of the block arrays outside the volume of the slice are
+        // never unpacked, since the volume is always at the same place relative to the origin section, so they only
+        // ever hold AIR_PALETTE_INDEX (the arrays start zeroed, and empty sections are filled with air)
+        this.blockPaletteSize = 0;
+        this.blockPaletteIndices.clear();
+
+        if (this.getBlockPaletteIndex(Blocks.AIR.getDefaultState()) != AIR_PALETTE_INDEX) {
+            throw new IllegalStateException("Air must be the first entry in the palette");
+        }
+    }
+
+    private int getBlockPaletteIndex(BlockState state) {
+        int index = this.blockPaletteIndices.getInt(state);
+
+        if (index == -1) {
+            index = this.blockPaletteSize++;
+
+            if (index > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many block states in world slice");
+            }
+
+            if (index >= this.blockPalette.length) {
+                this.blockPalette = Arrays.copyOf(this.blockPalette, this.blockPalette.length * 2);
+            }
+
+            this.blockPalette[index] = state;
+            this.blockPaletteIndices.put(state, index);
+        }
+
+        return index;
+    }
+
     public void reset() {
         // erase any pointers to resources we no longer need
         // no point in cleaning the pre-allocated arrays (such as block state storage) since we hold the
@@ -222,8 +306,8 @@ public final class WorldSlice implements BlockRenderView, RenderAttachedBlockVie
         int relY = y - this.originY;
         int relZ = z - this.originZ;
 
-        return this.blockArrays[getLocalSectionIndex(relX >> 4, relY >> 4, relZ >> 4)]
-                [getLocalBlockIndex(relX & 15, relY & 15, relZ & 15)];
+        return this.blockPalette[this.blockArrays[getLocalSectionIndex(relX >> 4, relY >> 4, relZ >> 4)]
+                [getLocalBlockIndex(relX & 15, relY & 15, relZ & 15)]];
     }
 
     @Override
@@ -2,6 +2,7 @@ package me.jellysquid.mods.sodium.client.world.cloned;
 
 import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.ChunkSectionPos;
+import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import org.jetbrains.annotations.Nullable;
 
 public class ChunkRenderContext {
@@ -19,6 +20,13 @@ public class ChunkRenderContext {
         return this.sections;
     }
 
+    /**
+     * @return The section which is being rendered
+     */
+    public ClonedChunkSection getOriginSection() {
+        return this.sections[WorldSlice.ORIGIN_SECTION_INDEX];
+    }
+
     public ChunkSectionPos getOrigin() {
         return this.origin;
     }
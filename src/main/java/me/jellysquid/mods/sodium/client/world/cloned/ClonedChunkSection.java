@@ -3,6 +3,7 @@ package me.jellysquid.mods.sodium.client.world.cloned;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMaps;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.world.ChunkSectionExtended;
 import me.jellysquid.mods.sodium.client.world.ReadableContainerExtended;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import net.fabricmc.fabric.api.rendering.data.v1.RenderAttachmentBlockEntity;
@@ -23,13 +24,23 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClonedChunkSection {
     private static final ChunkNibbleArray DEFAULT_SKY_LIGHT_ARRAY = new ChunkNibbleArray(15);
     private static final ChunkNibbleArray DEFAULT_BLOCK_LIGHT_ARRAY = new ChunkNibbleArray(0);
 
+    // The number of bytes in a light data array, with four bits for each block in the section
+    private static final int LIGHT_ARRAY_SIZE = (16 * 16 * 16) / 2;
+
+    private static final AtomicLong NEXT_VERSION = new AtomicLong();
+
     private final ChunkSectionPos pos;
 
+    // A number which is unique to this snapshot. Since a new snapshot is created whenever the blocks or light of a
+    // section change, this identifies the contents of the snapshot without needing to hold a reference to it.
+    private final long version = NEXT_VERSION.getAndIncrement();
+
     private final @Nullable Int2ReferenceMap<BlockEntity> blockEntityMap;
     private final @Nullable Int2ReferenceMap<Object> blockEntityAttachmentMap;
 
@@ -39,8 +50,15 @@ public class ClonedChunkSection {
 
     private final @Nullable ReadableContainer<RegistryEntry<Biome>> biomeData;
 
+    // The section which the block and biome data was copied from, and its modification count at the time
+    private final @Nullable ChunkSection sourceSection;
+    private final int sourceModificationCount;
+
     private long lastUsedTimestamp = Long.MAX_VALUE;
 
+    // An estimate of the number of bytes retained by this snapshot, computed lazily
+    private long memoryUsage = -1L;
+
     public ClonedChunkSection(World world, WorldChunk chunk, @Nullable ChunkSection section, ChunkSectionPos pos) {
         this.pos = pos;
 
@@ -70,6 +88,85 @@ public class ClonedChunkSection {
         this.blockEntityAttachmentMap = blockEntityAttachmentMap;
 
         this.lightDataArrays = copyLightData(world, pos);
+
+        this.sourceSection = section;
+        this.sourceModificationCount = section != null ? ChunkSectionExtended.of(section).sodium$getModificationCount() : 0;
+    }
+
+    /**
+     * Creates a copy of the previous snapshot which shares its block and biome data, but with the block entities and
+     * light data copied again. This must only be used if the block data is still current, see
+     * {@link #isBlockDataCurrent(ChunkSection)}.
+     */
+    private ClonedChunkSection(ClonedChunkSection prev, World world, WorldChunk chunk) {
+        this.pos = prev.pos;
+
+        this.blockData = prev.blockData;
+        this.biomeData = prev.biomeData;
+
+        Int2ReferenceMap<BlockEntity> blockEntityMap = null;
+        Int2ReferenceMap<Object> blockEntityAttachmentMap = null;
+
+        if (this.blockData != null) {
+            blockEntityMap = copyBlockEntities(chunk, this.pos);
+
+            if (blockEntityMap != null) {
+                blockEntityAttachmentMap = copyBlockEntityAttachments(blockEntityMap);
+            }
+        }
+
+        this.blockEntityMap = blockEntityMap;
+        this.blockEntityAttachmentMap = blockEntityAttachmentMap;
+
+        this.lightDataArrays = copyLightData(world, this.pos);
+
+        this.sourceSection = prev.sourceSection;
+        this.sourceModificationCount = prev.sourceModificationCount;
+    }
+
+    /**
+     * Creates a cloned section from data which has already been copied by the caller. The containers and arrays are
+     * not copied again, so the caller must not modify them afterwards.
+     */
+    public ClonedChunkSection(ChunkSectionPos pos,
+                              @Nullable ReadableContainer<BlockState> blockData,
+                              @Nullable ReadableContainer<RegistryEntry<Biome>> biomeData,
+                              @Nullable Int2ReferenceMap<BlockEntity> blockEntityMap,
+                              @Nullable Int2ReferenceMap<Object> blockEntityAttachmentMap,
+                              @NotNull ChunkNibbleArray[] lightDataArrays) {
+        this.pos = pos;
+
+        this.blockData = blockData;
+        this.biomeData = biomeData;
+
+        this.blockEntityMap = blockEntityMap;
+        this.blockEntityAttachmentMap = blockEntityAttachmentMap;
+
+        this.lightDataArrays = lightDataArrays;
+
+        this.sourceSection = null;
+        this.sourceModificationCount = 0;
+    }
+
+    /**
+     * @return True if the block and biome data of this snapshot is the same as that of the given section, which is
+     * the case if it was copied from the section and the section has not been modified since
+     */
+    public boolean isBlockDataCurrent(@Nullable ChunkSection section) {
+        if (section != this.sourceSection) {
+            return false;
+        }
+
+        return section == null || ChunkSectionExtended.of(section).sodium$getModificationCount() == this.sourceModificationCount;
+    }
+
+    /**
+     * Creates a new snapshot which shares the block and biome data of this one, with the block entities and light data
+     * copied again. Since the light data changes far more often than the blocks, this avoids copying the block data when
+     * a section is invalidated only because of a lighting update.
+     */
+    public ClonedChunkSection withUpdatedLightData(World world, WorldChunk chunk) {
+        return new ClonedChunkSection(this, world, chunk);
     }
 
     @NotNull
@@ -150,6 +247,10 @@ public class ClonedChunkSection {
         return blockEntityAttachments;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
     public ChunkSectionPos getPosition() {
         return this.pos;
     }
@@ -174,6 +275,48 @@ public class ClonedChunkSection {
         return this.lightDataArrays[lightType.ordinal()];
     }
 
+    /**
+     * @return An estimate of the number of bytes of memory which are retained by this snapshot
+     */
+    public long getMemoryUsage() {
+        if (this.memoryUsage < 0L) {
+            this.memoryUsage = this.computeMemoryUsage();
+        }
+
+        return this.memoryUsage;
+    }
+
+    private long computeMemoryUsage() {
+        // The fixed overhead of the snapshot object and its arrays
+        long bytes = 128L;
+
+        if (this.blockData != null) {
+            bytes += ReadableContainerExtended.of(this.blockData).sodium$getMemoryUsage();
+        }
+
+        if (this.biomeData != null) {
+            bytes += ReadableContainerExtended.of(this.biomeData).sodium$getMemoryUsage();
+        }
+
+        // Each entry in a map is at least a key, a value, and the hash table slots for them
+        if (this.blockEntityMap != null) {
+            bytes += this.blockEntityMap.size() * 16L;
+        }
+
+        if (this.blockEntityAttachmentMap != null) {
+            bytes += this.blockEntityAttachmentMap.size() * 16L;
+        }
+
+        for (var array : this.lightDataArrays) {
+            // The default arrays are shared by every snapshot, and are never freed
+            if (array != null && array != DEFAULT_SKY_LIGHT_ARRAY && array != DEFAULT_BLOCK_LIGHT_ARRAY) {
+                bytes += LIGHT_ARRAY_SIZE;
+            }
+        }
+
+        return bytes;
+    }
+
     public long getLastUsedTimestamp() {
         return this.lastUsedTimestamp;
     }
@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.world.cloned;
 
 import it.unimi.dsi.fastutil.longs.Long2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.ChunkSection;
@@ -10,25 +11,59 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.TimeUnit;
 
+/**
+ * A cache of chunk section snapshots, which allows the snapshots to be shared between the builds of neighbouring
+ * sections. Entries are evicted in least-recently-used order once the estimated memory usage of all the snapshots
+ * exceeds the memory budget, or once they have not been used for a while.
+ */
 public class ClonedChunkSectionCache {
-    private static final int MAX_CACHE_SIZE = 512; /* number of entries */
     private static final long MAX_CACHE_DURATION = TimeUnit.SECONDS.toNanos(5); /* number of nanoseconds */
 
+    // The fraction of the memory budget which pre-warming is allowed to fill, so that it never evicts entries
+    private static final double PREWARM_BUDGET_FRACTION = 0.75;
+
     private final World world;
 
+    private final long memoryBudget; /* number of bytes */
+    private long memoryUsage; /* number of bytes */
+
+    private long hitCount;
+    private long missCount;
+    private long refreshCount;
+    private long evictionCount;
+
     private final Long2ReferenceLinkedOpenHashMap<ClonedChunkSection> positionToEntry = new Long2ReferenceLinkedOpenHashMap<>();
 
+    // The positions of the entries which have been invalidated since they were last acquired
+    private final LongOpenHashSet invalidatedPositions = new LongOpenHashSet();
+
     private long time; // updated once per frame to be the elapsed time since application start
 
-    public ClonedChunkSectionCache(World world) {
+    /**
+     * @param memoryBudget The number of bytes which the snapshots in the cache may use before they are evicted
+     */
+    public ClonedChunkSectionCache(World world, long memoryBudget) {
         this.world = world;
+        this.memoryBudget = memoryBudget;
         this.time = getMonotonicTimeSource();
     }
 
     public void cleanup() {
         this.time = getMonotonicTimeSource();
-        this.positionToEntry.values()
-                .removeIf(entry -> this.time > (entry.getLastUsedTimestamp() + MAX_CACHE_DURATION));
+
+        var iterator = this.positionToEntry.values()
+                .iterator();
+
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+
+            if (this.time > (entry.getLastUsedTimestamp() + MAX_CACHE_DURATION)) {
+                this.memoryUsage -= entry.getMemoryUsage();
+                iterator.remove();
+            }
+        }
+
+        this.invalidatedPositions.removeIf((long pos) -> !this.positionToEntry.containsKey(pos));
     }
 
     @Nullable
@@ -39,11 +74,28 @@ public class ClonedChunkSectionCache {
         if (section == null) {
             section = this.clone(x, y, z);
 
-            while (this.positionToEntry.size() >= MAX_CACHE_SIZE) {
-                this.positionToEntry.removeFirst();
-            }
-
             this.positionToEntry.putAndMoveToLast(pos, section);
+            this.invalidatedPositions.remove(pos);
+
+            this.memoryUsage += section.getMemoryUsage();
+            this.missCount++;
+        } else if (this.invalidatedPositions.remove(pos)) {
+            var prev = section;
+            section = this.refresh(prev, x, y, z);
+
+            this.positionToEntry.put(pos, section);
+
+            this.memoryUsage += section.getMemoryUsage() - prev.getMemoryUsage();
+            this.refreshCount++;
+        } else {
+            this.hitCount++;
+        }
+
+        // The entry which was just acquired is the most recently used, so it will only be evicted if it is the only one
+        while (this.memoryUsage > this.memoryBudget && this.positionToEntry.size() > 1) {
+            this.memoryUsage -= this.positionToEntry.removeFirst()
+                    .getMemoryUsage();
+            this.evictionCount++;
         }
 
         section.setLastUsedTimestamp(this.time);
@@ -51,25 +103,107 @@ public class ClonedChunkSectionCache {
         return section;
     }
 
+    /**
+     * Copies the section into the cache ahead of time if it is not already present, or otherwise marks it as recently
+     * used, so that it will not be evicted before it is needed. Nothing is done if the cache is close to its memory
+     * budget, since pre-warming should never evict entries which are already in use.
+     */
+    public void prewarm(int x, int y, int z) {
+        if (this.memoryUsage >= this.memoryBudget * PREWARM_BUDGET_FRACTION) {
+            return;
+        }
+
+        var section = this.positionToEntry.getAndMoveToLast(ChunkSectionPos.asLong(x, y, z));
+
+        if (section != null) {
+            section.setLastUsedTimestamp(this.time);
+        } else {
+            this.acquire(x, y, z);
+        }
+    }
+
+    public long getMemoryUsage() {
+        return this.memoryUsage;
+    }
+
+    public long getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
+    public int getEntryCount() {
+        return this.positionToEntry.size();
+    }
+
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    public long getRefreshCount() {
+        return this.refreshCount;
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
     @NotNull
     private ClonedChunkSection clone(int x, int y, int z) {
+        WorldChunk chunk = this.getChunk(x, y, z);
+        ChunkSection section = this.getSection(chunk, y);
+
+        return new ClonedChunkSection(this.world, chunk, section, ChunkSectionPos.from(x, y, z));
+    }
+
+    /**
+     * Brings an invalidated snapshot up-to-date. The block data is shared with the previous snapshot if the section has
+     * not been modified since it was copied, otherwise the whole section is copied again.
+     */
+    @NotNull
+    private ClonedChunkSection refresh(ClonedChunkSection prev, int x, int y, int z) {
+        WorldChunk chunk = this.getChunk(x, y, z);
+        ChunkSection section = this.getSection(chunk, y);
+
+        if (prev.isBlockDataCurrent(section)) {
+            return prev.withUpdatedLightData(this.world, chunk);
+        }
+
+        return new ClonedChunkSection(this.world, chunk, section, ChunkSectionPos.from(x, y, z));
+    }
+
+    @NotNull
+    private WorldChunk getChunk(int x, int y, int z) {
         WorldChunk chunk = this.world.getChunk(x, z);
 
         if (chunk == null) {
             throw new RuntimeException("Chunk is not loaded at: " + ChunkSectionPos.asLong(x, y, z));
         }
 
-        @Nullable ChunkSection section = null;
+        return chunk;
+    }
 
-        if (!this.world.isOutOfHeightLimit(ChunkSectionPos.getBlockCoord(y))) {
-            section = chunk.getSectionArray()[this.world.sectionCoordToIndex(y)];
+    @Nullable
+    private ChunkSection getSection(WorldChunk chunk, int y) {
+        if (this.world.isOutOfHeightLimit(ChunkSectionPos.getBlockCoord(y))) {
+            return null;
         }
 
-        return new ClonedChunkSection(this.world, chunk, section, ChunkSectionPos.from(x, y, z));
+        return chunk.getSectionArray()[this.world.sectionCoordToIndex(y)];
     }
 
+    /**
+     * Marks the snapshot of the section as out-of-date. Any snapshots which were already acquired are immutable and
+     * remain valid, but the next call to {@link #acquire(int, int, int)} will return an up-to-date snapshot.
+     */
     public void invalidate(int x, int y, int z) {
-        this.positionToEntry.remove(ChunkSectionPos.asLong(x, y, z));
+        long pos = ChunkSectionPos.asLong(x, y, z);
+
+        if (this.positionToEntry.containsKey(pos)) {
+            this.invalidatedPositions.add(pos);
+        }
     }
 
     private static long getMonotonicTimeSource() {
@@ -3,7 +3,7 @@ package me.jellysquid.mods.sodium.mixin.core.render.frustum;
 import me.jellysquid.mods.sodium.client.render.viewport.Viewport;
 import me.jellysquid.mods.sodium.client.render.viewport.ViewportProvider;
 import net.minecraft.client.render.Frustum;
-import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -21,10 +21,10 @@ public class FrustumMixin implements ViewportProvider {
 
     @Shadow
     @Final
-    private FrustumIntersection frustumIntersection;
+    private Matrix4f positionProjectionMatrix;
 
     @Override
     public Viewport sodium$createViewport() {
-        return new Viewport(this.frustumIntersection, this.x, this.y, this.z);
+        return new Viewport(this.positionProjectionMatrix, this.x, this.y, this.z);
     }
 }
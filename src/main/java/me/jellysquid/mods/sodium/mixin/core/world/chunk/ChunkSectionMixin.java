@@ -0,0 +1,33 @@
+package me.jellysquid.mods.sodium.mixin.core.world.chunk;
+
+import me.jellysquid.mods.sodium.client.world.ChunkSectionExtended;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.world.chunk.ChunkSection;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(ChunkSection.class)
+public class ChunkSectionMixin implements ChunkSectionExtended {
+    @Unique
+    private int modificationCount;
+
+    @Inject(method = "setBlockState(IIILnet/minecraft/block/BlockState;Z)Lnet/minecraft/block/BlockState;", at = @At("RETURN"))
+    private void onBlockStateChanged(int x, int y, int z, BlockState state, boolean lock, CallbackInfoReturnable<BlockState> cir) {
+        this.modificationCount++;
+    }
+
+    @Inject(method = { "readDataPacket", "readBiomePacket" }, at = @At("RETURN"))
+    private void onDataReceived(PacketByteBuf buf, CallbackInfo ci) {
+        this.modificationCount++;
+    }
+
+    @Override
+    public int sodium$getModificationCount() {
+        return this.modificationCount;
+    }
+}
@@ -2,13 +2,11 @@ package me.jellysquid.mods.sodium.mixin.core.world.chunk;
 
 import me.jellysquid.mods.sodium.client.world.PaletteStorageExtended;
 import net.minecraft.util.collection.EmptyPaletteStorage;
-import net.minecraft.world.chunk.Palette;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 
 import java.util.Arrays;
-import java.util.Objects;
 
 @Mixin(EmptyPaletteStorage.class)
 public class EmptyPaletteStorageMixin implements PaletteStorageExtended {
@@ -17,12 +15,15 @@ public class EmptyPaletteStorageMixin implements PaletteStorageExtended {
     private int size;
 
     @Override
-    public <T> void sodium$unpack(T[] out, Palette<T> palette) {
+    public void sodium$unpack(short[] out, short[] remap) {
         if (this.size != out.length) {
             throw new IllegalArgumentException("Array has mismatched size");
         }
 
-        var defaultEntry = Objects.requireNonNull(palette.get(0), "Palette must have default entry");
-        Arrays.fill(out, defaultEntry);
+        if (remap.length == 0) {
+            throw new IllegalArgumentException("Palette must have default entry");
+        }
+
+        Arrays.fill(out, remap[0]);
     }
 }
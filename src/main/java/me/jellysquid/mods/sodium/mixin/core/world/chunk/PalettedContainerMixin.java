@@ -2,13 +2,17 @@ package me.jellysquid.mods.sodium.mixin.core.world.chunk;
 
 import me.jellysquid.mods.sodium.client.world.PaletteStorageExtended;
 import me.jellysquid.mods.sodium.client.world.ReadableContainerExtended;
+import net.minecraft.world.chunk.IdListPalette;
+import net.minecraft.world.chunk.Palette;
 import net.minecraft.world.chunk.PalettedContainer;
 import net.minecraft.world.chunk.ReadableContainer;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 
 import java.util.Objects;
+import java.util.function.ToIntFunction;
 
 @Mixin(PalettedContainer.class)
 public abstract class PalettedContainerMixin<T> implements ReadableContainerExtended<T> {
@@ -24,24 +28,34 @@ public abstract class PalettedContainerMixin<T> implements ReadableContainerExte
     public abstract PalettedContainer<T> copy();
 
     @Override
-    public void sodium$unpack(T[] values) {
-        var indexer = Objects.requireNonNull(this.paletteProvider);
+    public void sodium$unpack(short[] values, ToIntFunction<T> indexer) {
+        var provider = Objects.requireNonNull(this.paletteProvider);
 
-        if (values.length != indexer.getContainerSize()) {
+        if (values.length != provider.getContainerSize()) {
             throw new IllegalArgumentException("Array is wrong size");
         }
 
         var data = Objects.requireNonNull(this.data, "PalettedContainer must have data");
 
-        var storage = (PaletteStorageExtended) data.storage();
-        storage.sodium$unpack(values, data.palette());
+        var storage = data.storage();
+        var palette = data.palette();
+
+        short[] remap = createRemapTable(palette, indexer);
+
+        if (remap != null) {
+            ((PaletteStorageExtended) storage).sodium$unpack(values, remap);
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (short) indexer.applyAsInt(palette.get(storage.get(i)));
+            }
+        }
     }
 
     @Override
-    public void sodium$unpack(T[] values, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
-        var indexer = Objects.requireNonNull(this.paletteProvider);
+    public void sodium$unpack(short[] values, ToIntFunction<T> indexer, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var provider = Objects.requireNonNull(this.paletteProvider);
 
-        if (values.length != indexer.getContainerSize()) {
+        if (values.length != provider.getContainerSize()) {
             throw new IllegalArgumentException("Array is wrong size");
         }
 
@@ -50,22 +64,69 @@ public abstract class PalettedContainerMixin<T> implements ReadableContainerExte
         var storage = data.storage();
         var palette = data.palette();
 
+        short[] remap = createRemapTable(palette, indexer);
+
         for (int y = minY; y <= maxY; y++) {
             for (int z = minZ; z <= maxZ; z++) {
                 for (int x = minX; x <= maxX; x++) {
-                    int localBlockIndex = indexer.computeIndex(x, y, z);
-
+                    int localBlockIndex = provider.computeIndex(x, y, z);
                     int paletteIndex = storage.get(localBlockIndex);
-                    var paletteValue =  palette.get(paletteIndex);
 
-                    values[localBlockIndex] = paletteValue;
+                    values[localBlockIndex] = remap != null ? remap[paletteIndex] :
+                            (short) indexer.applyAsInt(palette.get(paletteIndex));
                 }
             }
         }
     }
 
+    @Override
+    public long sodium$getMemoryUsage() {
+        var data = Objects.requireNonNull(this.data, "PalettedContainer must have data");
+        var palette = data.palette();
+
+        long bytes = data.storage().getData().length * 8L;
+
+        if (!(palette instanceof IdListPalette<T>)) {
+            // Each entry in the palette is at least one reference and one hash table slot
+            bytes += palette.getSize() * 16L;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Creates a table which maps each index in the palette to the index assigned to its value by the given function.
+     *
+     * @return The table, or null if the global palette is used, since it would contain every value in the registry
+     */
+    private static <T> short[] createRemapTable(Palette<T> palette, ToIntFunction<T> indexer) {
+        if (palette instanceof IdListPalette<T>) {
+            return null;
+        }
+
+        short[] remap = new short[palette.getSize()];
+
+        for (int i = 0; i < remap.length; i++) {
+            remap[i] = (short) indexer.applyAsInt(palette.get(i));
+        }
+
+        return remap;
+    }
+
     @Override
     public ReadableContainer<T> sodium$copy() {
         return this.copy();
     }
+
+    @Override
+    public @Nullable Palette<T> sodium$getPalette() {
+        var data = Objects.requireNonNull(this.data, "PalettedContainer must have data");
+        var palette = data.palette();
+
+        if (palette instanceof IdListPalette<T>) {
+            return null;
+        }
+
+        return palette;
+    }
 }
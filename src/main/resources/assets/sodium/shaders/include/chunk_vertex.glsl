@@ -7,6 +7,12 @@ vec2 _vert_tex_diffuse_coord;
 // The light texture coordinate of the vertex
 ivec2 _vert_tex_light_coord;
 
+// The coordinate of the vertex in repeats of the block texture's sprite
+vec2 _vert_tex_tile_coord;
+
+// The base-2 logarithm of the sprite's size in texels plus one, or zero if the sprite is not repeated
+uint _vert_tex_tile_size;
+
 // The color of the vertex
 vec4 _vert_color;
 
@@ -33,7 +39,11 @@ in ivec2 a_LightCoord;
 void _vert_init() {
     _vert_position = (vec3(a_PosId.xyz) * VERT_POS_SCALE + VERT_POS_OFFSET);
     _vert_tex_diffuse_coord = (a_TexCoord * VERT_TEX_SCALE);
-    _vert_tex_light_coord = a_LightCoord;
+    _vert_tex_light_coord = a_LightCoord & 0xFF;
+
+    // The high byte of each light coordinate holds the repeat coordinate (6 bits) and half of the sprite size (2 bits)
+    _vert_tex_tile_coord = vec2((a_LightCoord >> 8) & 0x3F);
+    _vert_tex_tile_size = uint((a_LightCoord.x >> 14) & 0x3) | (uint((a_LightCoord.y >> 14) & 0x3) << 2u);
     _vert_color = a_Color;
 
     _draw_id = (a_PosId.w >> 8u) & 0xFFu;
@@ -0,0 +1,506 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import me.jellysquid.mods.sodium.client.gl.arena.FreeSegmentIndexTest.Strategy;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaAllocatorTest {
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void allocatesDisjointSegments(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+
+        var a = arena.alloc(10);
+        var b = arena.alloc(20);
+        var c = arena.alloc(30);
+
+        assertEquals(60, arena.allocator.getUsed());
+        assertTrue(a.getEnd() <= b.getOffset() || b.getEnd() <= a.getOffset());
+        assertTrue(b.getEnd() <= c.getOffset() || c.getEnd() <= b.getOffset());
+        assertTrue(a.getEnd() <= c.getOffset() || c.getEnd() <= a.getOffset());
+
+        arena.check();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void allocFailsWhenNoSegmentFits(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+
+        arena.alloc(60);
+
+        assertNull(arena.allocator.alloc(41));
+        assertNotNull(arena.alloc(40));
+        assertNull(arena.allocator.alloc(1));
+
+        arena.check();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void allocRejectsEmptySegments(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> arena.allocator.alloc(0));
+        assertThrows(IllegalArgumentException.class, () -> arena.allocator.alloc(-1));
+
+        arena.check();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void freeMergesWithBothNeighbors(Strategy strategy) {
+        var arena = new TestArena(strategy, 90);
+
+        var a = arena.alloc(30);
+        var b = arena.alloc(30);
+        var c = arena.alloc(30);
+
+        arena.free(a);
+        arena.free(c);
+
+        // The middle segment separates the two free segments
+        assertEquals(3, arena.segments().size());
+
+        arena.free(b);
+
+        var segments = arena.segments();
+        assertEquals(1, segments.size());
+        assertTrue(segments.get(0).isFree());
+        assertEquals(90, segments.get(0).getLength());
+        assertEquals(0, arena.allocator.getUsed());
+        assertTrue(arena.allocator.isEmpty());
+
+        // The whole arena can be allocated again
+        assertNotNull(arena.alloc(90));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void freeingTwiceThrows(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+        var a = arena.alloc(10);
+
+        arena.free(a);
+
+        assertThrows(IllegalStateException.class, () -> arena.allocator.free(a));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void allocChoosesBestFit(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+
+        // Segments are taken from the end of free space, so this leaves free holes of 8, 3 and 5 elements which are
+        // separated by used segments, and a large free segment at the start of the arena
+        var hole8 = arena.alloc(8);
+        arena.alloc(1);
+        var hole3 = arena.alloc(3);
+        arena.alloc(1);
+        var hole5 = arena.alloc(5);
+        arena.alloc(1);
+
+        int hole8Start = hole8.getOffset(), hole3Start = hole3.getOffset(), hole5Start = hole5.getOffset();
+
+        arena.free(hole8);
+        arena.free(hole3);
+        arena.free(hole5);
+
+        assertWithin(arena.alloc(4), hole5Start, 5);
+        assertWithin(arena.alloc(3), hole3Start, 3);
+        assertWithin(arena.alloc(6), hole8Start, 8);
+        assertWithin(arena.alloc(50), 0, 81);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void randomAllocAndFreeKeepsInvariants(Strategy strategy) {
+        var arena = new TestArena(strategy, 4096);
+        var random = new Random(1234L);
+
+        List<GlBufferSegment> live = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            if (live.isEmpty() || random.nextInt(5) < 3) {
+                var segment = arena.allocator.alloc(1 + random.nextInt(64));
+
+                if (segment != null) {
+                    arena.fill(segment);
+                    live.add(segment);
+                }
+            } else {
+                arena.free(live.remove(random.nextInt(live.size())));
+            }
+
+            arena.check();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void resizeMovesUsedSegmentsToEnd(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+        var live = arena.fragment(new Random(7L), 20);
+
+        int used = arena.allocator.getUsed();
+
+        arena.resize(200);
+
+        assertEquals(200, arena.allocator.getCapacity());
+        assertEquals(used, arena.allocator.getUsed());
+
+        var segments = arena.segments();
+        assertTrue(segments.get(0).isFree());
+        assertEquals(200 - used, segments.get(0).getLength());
+
+        for (int i = 1; i < segments.size(); i++) {
+            assertFalse(segments.get(i).isFree());
+        }
+
+        arena.check(live);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void compactPreservesDataAndUsage(Strategy strategy) {
+        var random = new Random(99L);
+
+        for (int trial = 0; trial < 200; trial++) {
+            var arena = new TestArena(strategy, 1024);
+            var live = arena.fragment(random, 100);
+
+            int used = arena.allocator.getUsed();
+            int usedEnd = arena.allocator.getUsedEnd();
+
+            int limit = 1 + random.nextInt(256);
+            var copies = arena.compact(limit);
+
+            int moved = copies.stream()
+                    .mapToInt(copy -> copy.length)
+                    .sum();
+
+            assertTrue(moved <= limit, "moved more elements than the limit");
+
+            for (var copy : copies) {
+                assertTrue(copy.writeOffset < copy.readOffset, "segments must only move towards the start");
+            }
+
+            assertEquals(used, arena.allocator.getUsed());
+            assertTrue(arena.allocator.getUsedEnd() <= usedEnd);
+
+            arena.check(live);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void compactWithLargeLimitPacksSegments(Strategy strategy) {
+        var arena = new TestArena(strategy, 1024);
+        var live = arena.fragment(new Random(3L), 100);
+
+        // Repeat until nothing moves, since a segment can only move into free space which was already before it
+        while (!arena.compact(Integer.MAX_VALUE).isEmpty()) {
+            arena.check(live);
+        }
+
+        arena.check(live);
+
+        // No used segment can be left with a free segment before it which is large enough to hold it
+        int largestFreeBefore = 0;
+
+        for (var segment : arena.segments()) {
+            if (segment.isFree()) {
+                largestFreeBefore = Math.max(largestFreeBefore, segment.getLength());
+            } else {
+                assertTrue(segment.getLength() > largestFreeBefore, "segment could have been moved");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void truncateReleasesFreeSpaceAtEnd(Strategy strategy) {
+        var random = new Random(5L);
+
+        for (int trial = 0; trial < 200; trial++) {
+            var arena = new TestArena(strategy, 1024);
+            var live = arena.fragment(random, 100);
+
+            arena.compact(1 + random.nextInt(512));
+
+            int used = arena.allocator.getUsed();
+            int usedEnd = arena.allocator.getUsedEnd();
+            int newCapacity = usedEnd + random.nextInt(arena.allocator.getCapacity() - usedEnd + 1);
+
+            arena.truncate(newCapacity);
+
+            assertEquals(newCapacity, arena.allocator.getCapacity());
+            assertEquals(used, arena.allocator.getUsed());
+
+            arena.check(live);
+
+            // The arena must still be usable after it was truncated
+            int free = newCapacity - used;
+
+            if (free > 0) {
+                var segments = arena.segments();
+                int largestFree = segments.stream()
+                        .filter(GlBufferSegment::isFree)
+                        .mapToInt(GlBufferSegment::getLength)
+                        .max()
+                        .orElse(0);
+
+                assertNotNull(arena.alloc(largestFree));
+                arena.check();
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void truncateRejectsInvalidCapacity(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+        arena.alloc(10);
+
+        assertThrows(IllegalArgumentException.class, () -> arena.allocator.truncate(101));
+        assertThrows(IllegalArgumentException.class, () -> arena.allocator.truncate(99));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void truncateToZeroLeavesEmptyArena(Strategy strategy) {
+        var arena = new TestArena(strategy, 100);
+        arena.free(arena.alloc(10));
+
+        arena.truncate(0);
+
+        assertEquals(0, arena.allocator.getCapacity());
+        assertNull(arena.allocator.getHead());
+        assertNull(arena.allocator.alloc(1));
+
+        arena.resize(50);
+
+        assertNotNull(arena.alloc(50));
+    }
+
+    private static void assertWithin(GlBufferSegment segment, int start, int length) {
+        assertNotNull(segment);
+        assertTrue(segment.getOffset() >= start && segment.getEnd() <= start + length,
+                "segment [%d, %d) is not within [%d, %d)".formatted(segment.getOffset(), segment.getEnd(), start, start + length));
+    }
+
+    /**
+     * An allocator along with a simulated buffer, in which every element of a used segment holds an id for that
+     * segment. The copies returned by the allocator are applied to the buffer, which shows whether the data of each
+     * segment ends up where the allocator says it is.
+     */
+    private static class TestArena {
+        private final TrackingFreeSegmentIndex index;
+        private final ArenaAllocator allocator;
+
+        private final Map<GlBufferSegment, Integer> ids = new IdentityHashMap<>();
+        private int nextId = 1;
+
+        private int[] buffer;
+
+        TestArena(Strategy strategy, int capacity) {
+            this.index = new TrackingFreeSegmentIndex(strategy.create());
+            this.allocator = new ArenaAllocator(capacity, this.index);
+            this.buffer = new int[capacity];
+        }
+
+        GlBufferSegment alloc(int length) {
+            var segment = this.allocator.alloc(length);
+            assertNotNull(segment);
+
+            this.fill(segment);
+
+            return segment;
+        }
+
+        void fill(GlBufferSegment segment) {
+            int id = this.nextId++;
+            this.ids.put(segment, id);
+
+            Arrays.fill(this.buffer, segment.getOffset(), segment.getEnd(), id);
+        }
+
+        void free(GlBufferSegment segment) {
+            this.allocator.free(segment);
+            this.ids.remove(segment);
+        }
+
+        /**
+         * Allocates and frees random segments until the arena is full, leaving free holes between the remaining
+         * segments.
+         */
+        List<GlBufferSegment> fragment(Random random, int maxLength) {
+            List<GlBufferSegment> live = new ArrayList<>();
+            GlBufferSegment segment;
+
+            while ((segment = this.allocator.alloc(1 + random.nextInt(maxLength))) != null) {
+                this.fill(segment);
+                live.add(segment);
+            }
+
+            Collections.shuffle(live, random);
+
+            int freeCount = live.size() / 2;
+
+            for (int i = 0; i < freeCount; i++) {
+                this.free(live.remove(live.size() - 1));
+            }
+
+            this.check(live);
+
+            return live;
+        }
+
+        void resize(int newCapacity) {
+            int[] newBuffer = new int[newCapacity];
+
+            // The copies are made from the old buffer into a new buffer
+            for (var copy : this.allocator.resize(newCapacity)) {
+                System.arraycopy(this.buffer, copy.readOffset, newBuffer, copy.writeOffset, copy.length);
+            }
+
+            this.buffer = newBuffer;
+        }
+
+        List<PendingBufferCopyCommand> compact(int maxElements) {
+            var copies = this.allocator.compact(maxElements);
+
+            // The copies are made within the same buffer, in order
+            for (var copy : copies) {
+                System.arraycopy(this.buffer, copy.readOffset, this.buffer, copy.writeOffset, copy.length);
+            }
+
+            return copies;
+        }
+
+        void truncate(int newCapacity) {
+            this.allocator.truncate(newCapacity);
+            this.buffer = Arrays.copyOf(this.buffer, newCapacity);
+        }
+
+        List<GlBufferSegment> segments() {
+            List<GlBufferSegment> segments = new ArrayList<>();
+
+            for (var segment = this.allocator.getHead(); segment != null; segment = segment.getNext()) {
+                segments.add(segment);
+            }
+
+            return segments;
+        }
+
+        void check() {
+            this.check(null);
+        }
+
+        /**
+         * Checks that the segments cover the arena without overlapping, that neighboring free segments were merged,
+         * that the used length and free index match the segment list, and that every used segment still holds its
+         * data.
+         *
+         * @param live If not null, the segments which are expected to be in use
+         */
+        void check(@Nullable List<GlBufferSegment> live) {
+            var segments = this.segments();
+
+            int offset = 0;
+            int used = 0;
+
+            Set<GlBufferSegment> free = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (int i = 0; i < segments.size(); i++) {
+                var segment = segments.get(i);
+
+                assertEquals(offset, segment.getOffset(), "segments must be contiguous and not overlap");
+                assertTrue(segment.getLength() > 0, "segments must not be empty");
+                assertSame(i == 0 ? null : segments.get(i - 1), segment.getPrev(), "broken back link");
+
+                if (segment.isFree()) {
+                    assertFalse(i > 0 && segments.get(i - 1).isFree(), "neighboring free segments were not merged");
+                    free.add(segment);
+                } else {
+                    used += segment.getLength();
+
+                    Integer id = this.ids.get(segment);
+                    assertNotNull(id, "used segment was never allocated");
+
+                    for (int j = segment.getOffset(); j < segment.getEnd(); j++) {
+                        assertEquals((int) id, this.buffer[j], "segment data was lost");
+                    }
+                }
+
+                offset = segment.getEnd();
+            }
+
+            assertEquals(this.allocator.getCapacity(), offset, "segments must cover the whole arena");
+            assertEquals(used, this.allocator.getUsed());
+            assertEquals(this.ids.size(), segments.size() - free.size());
+            assertEquals(free, this.index.segments, "free index does not match the segment list");
+
+            if (live != null) {
+                Set<GlBufferSegment> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+                expected.addAll(live);
+
+                Set<GlBufferSegment> actual = Collections.newSetFromMap(new IdentityHashMap<>());
+                actual.addAll(this.ids.keySet());
+
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Wraps a free segment index to keep track of which segments it holds, and checks that a segment is never added
+     * twice or removed when it isn't in the index.
+     */
+    private static class TrackingFreeSegmentIndex implements FreeSegmentIndex {
+        private final FreeSegmentIndex delegate;
+        private final Set<GlBufferSegment> segments = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        TrackingFreeSegmentIndex(FreeSegmentIndex delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void add(GlBufferSegment segment) {
+            assertTrue(segment.isFree(), "used segment added to the free index");
+            assertTrue(this.segments.add(segment), "segment added to the free index twice");
+
+            this.delegate.add(segment);
+        }
+
+        @Override
+        public void remove(GlBufferSegment segment) {
+            assertTrue(this.segments.remove(segment), "segment removed from the free index but was never added");
+
+            this.delegate.remove(segment);
+        }
+
+        @Override
+        public @Nullable GlBufferSegment findFree(int length) {
+            var segment = this.delegate.findFree(length);
+
+            if (segment != null) {
+                assertTrue(this.segments.contains(segment), "free index returned a segment it doesn't hold");
+                assertTrue(segment.getLength() >= length, "free index returned a segment which is too small");
+            }
+
+            return segment;
+        }
+
+        @Override
+        public void clear() {
+            this.segments.clear();
+            this.delegate.clear();
+        }
+    }
+}
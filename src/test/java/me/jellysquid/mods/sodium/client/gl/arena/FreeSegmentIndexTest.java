@@ -0,0 +1,193 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeSegmentIndexTest {
+    enum Strategy {
+        SEGREGATED(SegregatedFreeSegmentIndex::new),
+        TREE(TreeFreeSegmentIndex::new);
+
+        private final Supplier<FreeSegmentIndex> factory;
+
+        Strategy(Supplier<FreeSegmentIndex> factory) {
+            this.factory = factory;
+        }
+
+        FreeSegmentIndex create() {
+            return this.factory.get();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findsNothingWhenEmpty(Strategy strategy) {
+        var index = strategy.create();
+
+        assertNull(index.findFree(1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findsExactFit(Strategy strategy) {
+        var index = strategy.create();
+
+        var small = segment(0, 4);
+        var exact = segment(10, 6);
+        var large = segment(20, 7);
+
+        var segments = List.of(small, large, exact);
+        segments.forEach(index::add);
+
+        assertFound(strategy, segments, 6, index.findFree(6));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void findsSmallestSegmentWhichFits(Strategy strategy) {
+        var index = strategy.create();
+
+        // 5 and 7 are in the same size class, and 9 and 100 are in larger classes
+        var segments = List.of(segment(0, 100), segment(100, 9), segment(200, 7), segment(300, 5), segment(400, 3));
+        segments.forEach(index::add);
+
+        for (int length : new int[] { 4, 6, 8, 10 }) {
+            assertFound(strategy, segments, length, index.findFree(length));
+        }
+
+        assertNull(index.findFree(101));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void takesAnySegmentForPowerOfTwoLengths(Strategy strategy) {
+        var index = strategy.create();
+
+        // Every segment in the size class of a power of two is long enough to hold it
+        var segments = List.of(segment(0, 15), segment(100, 9), segment(200, 8));
+        segments.forEach(index::add);
+
+        var found = index.findFree(8);
+
+        assertNotNull(found);
+        assertFound(strategy, segments, 8, found);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void removedSegmentsAreNotFound(Strategy strategy) {
+        var index = strategy.create();
+
+        var a = segment(0, 8);
+        var b = segment(10, 16);
+
+        index.add(a);
+        index.add(b);
+        index.remove(a);
+
+        assertSame(b, index.findFree(8));
+
+        index.remove(b);
+
+        assertNull(index.findFree(1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void removingMissingSegmentThrows(Strategy strategy) {
+        var index = strategy.create();
+        index.add(segment(0, 8));
+
+        assertThrows(IllegalStateException.class, () -> index.remove(segment(0, 8)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void clearRemovesAllSegments(Strategy strategy) {
+        var index = strategy.create();
+        index.add(segment(0, 8));
+        index.add(segment(10, 1000));
+
+        index.clear();
+
+        assertNull(index.findFree(1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void matchesLinearBestFit(Strategy strategy) {
+        var index = strategy.create();
+        var random = new Random(42L);
+
+        List<GlBufferSegment> segments = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            if (segments.isEmpty() || random.nextInt(3) != 0) {
+                var segment = segment(i, 1 + random.nextInt(4096));
+
+                segments.add(segment);
+                index.add(segment);
+            } else {
+                index.remove(segments.remove(random.nextInt(segments.size())));
+            }
+
+            int length = 1 + random.nextInt(4096);
+
+            assertFound(strategy, segments, length, index.findFree(length));
+        }
+    }
+
+    /**
+     * Checks that the segment found for the given length is what the strategy promises. The tree always finds the best
+     * fit, and the segregated index finds a segment from the smallest size class which has one that fits.
+     */
+    private static void assertFound(Strategy strategy, List<GlBufferSegment> segments, int length,
+                                    @Nullable GlBufferSegment found) {
+        var fits = segments.stream()
+                .filter(segment -> segment.getLength() >= length)
+                .toList();
+
+        if (fits.isEmpty()) {
+            assertNull(found);
+            return;
+        }
+
+        assertNotNull(found);
+        assertTrue(segments.contains(found));
+        assertTrue(found.getLength() >= length, "segment is too small");
+
+        switch (strategy) {
+            case TREE -> {
+                int best = fits.stream()
+                        .mapToInt(GlBufferSegment::getLength)
+                        .min()
+                        .getAsInt();
+
+                assertEquals(best, found.getLength());
+            }
+            case SEGREGATED -> {
+                int smallestClass = fits.stream()
+                        .mapToInt(segment -> SegregatedFreeSegmentIndex.getSizeClass(segment.getLength()))
+                        .min()
+                        .getAsInt();
+
+                assertEquals(smallestClass, SegregatedFreeSegmentIndex.getSizeClass(found.getLength()));
+            }
+        }
+    }
+
+    private static GlBufferSegment segment(int offset, int length) {
+        var segment = new GlBufferSegment(null, offset, length);
+        segment.setFree(true);
+
+        return segment;
+    }
+}